@@ -94,6 +94,11 @@
 }
 -keep class com.srun.campuslogin.core.LoginBridge$LoginCallback { *; }
 
+# 原生层按类名与构造函数签名创建登录结果
+-keep class com.srun.campuslogin.core.LoginResult {
+    <init>(int, java.lang.String, java.lang.String, java.lang.String, java.lang.String, java.lang.String, long, long, int, long, long, long, long, boolean);
+}
+
 -keep class * implements com.srun.campuslogin.core.LoginBridge$LoginCallback {
     *;
 }
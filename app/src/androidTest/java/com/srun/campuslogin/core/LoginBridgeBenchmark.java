@@ -0,0 +1,96 @@
+package com.srun.campuslogin.core;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * LoginBridge JNI 调用开销基准（需在设备上运行，结果输出到 logcat 的 LoginBridgeBenchmark 标签）
+ * 使用空账号调用原生入口：原生层在发起网络请求前直接返回失败结果，测得的只是跨 JNI、字符串转换与构造 LoginResult 的开销
+ * 对比三种调用方式：
+ * 1. 当前线程直接调用同步入口
+ * 2. 经 LoginBridge.login 交给常驻登录线程并等待回调（实际使用的路径）
+ * 3. 每次新建线程调用（近似旧实现每次登录创建并附加线程的开销）
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoginBridgeBenchmark {
+    private static final String TAG = "LoginBridgeBenchmark";
+    private static final String EMPTY_ACCOUNT_ERROR = "账号或密码为空";
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2_000;
+
+    @Test
+    public void directCall() {
+        for (int i = 0; i < WARMUP; i++) {
+            LoginBridge.nativeLoginSync("", "", false, 0);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(EMPTY_ACCOUNT_ERROR, LoginBridge.nativeLoginSync("", "", false, 0).message);
+        }
+        report("当前线程同步调用", System.nanoTime() - start);
+    }
+
+    @Test
+    public void pooledWorker() throws InterruptedException {
+        for (int i = 0; i < WARMUP; i++) {
+            loginAndWait();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(EMPTY_ACCOUNT_ERROR, loginAndWait());
+        }
+        report("常驻登录线程", System.nanoTime() - start);
+    }
+
+    @Test
+    public void threadPerCall() throws InterruptedException {
+        String[] result = new String[1];
+        for (int i = 0; i < WARMUP; i++) {
+            callOnNewThread(result);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            callOnNewThread(result);
+            assertEquals(EMPTY_ACCOUNT_ERROR, result[0]);
+        }
+        report("每次新建线程", System.nanoTime() - start);
+    }
+
+    private static String loginAndWait() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        String[] result = new String[1];
+        LoginBridge.login("", "", false, 0, Runnable::run, new LoginBridge.LoginCallback() {
+            @Override
+            public void onSuccess(LoginResult loginResult) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(LoginResult loginResult) {
+                result[0] = loginResult.message;
+                done.countDown();
+            }
+        });
+        assertTrue("登录回调超时", done.await(5, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    private static void callOnNewThread(String[] result) throws InterruptedException {
+        Thread thread = new Thread(() -> result[0] = LoginBridge.nativeLoginSync("", "", false, 0).message);
+        thread.start();
+        thread.join();
+    }
+
+    private static void report(String name, long elapsedNs) {
+        Log.i(TAG, name + "：" + ITERATIONS + " 次，平均 " + elapsedNs / ITERATIONS / 1000.0 + " µs/次");
+    }
+}
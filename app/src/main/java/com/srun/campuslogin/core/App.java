@@ -3,12 +3,24 @@ package com.srun.campuslogin.core;
 import android.app.Application;
 import androidx.room.Room;
 import com.srun.campuslogin.data.AppDatabase;
+import com.srun.campuslogin.data.CardWriteBuffer;
+import com.srun.campuslogin.data.history.HistoryMaintenanceWorker;
+import com.srun.campuslogin.data.history.HistoryRetention;
+import com.srun.campuslogin.data.history.HistoryStore;
+import com.srun.campuslogin.data.model.ProbeLatencyEntity;
 import com.srun.campuslogin.utils.VersionChecker;
+import com.srun.campuslogin.utils.probe.LatencyRecorder;
+import com.srun.campuslogin.utils.probe.PhaseTimingListener;
+import com.srun.campuslogin.utils.probe.PortalProbe;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 
 //===========================应用核心类（单例管理）=============================
 /**
@@ -20,9 +32,16 @@ public class App extends Application {
     private static App instance;
     private static ExecutorService dbExecutor;
     private static ExecutorService networkExecutor;
+    private static OkHttpClient httpClient;
+    private static LatencyRecorder latencyRecorder;
 
     //===========================实例成员=============================
     private AppDatabase database;
+    private HistoryStore historyStore;
+    private CardWriteBuffer cardWriteBuffer;
+    private PortalProbe portalProbe;
+    private LoginCoordinator loginCoordinator;
+    private HeartbeatScheduler heartbeatScheduler;
 
     //===========================生命周期方法=============================
     @Override
@@ -30,7 +49,9 @@ public class App extends Application {
         super.onCreate();
         instance = this;
         initThreadPools();
+        initHttpClient();
         initDatabase();
+        HistoryMaintenanceWorker.schedule(this);
         VersionChecker.checkNewVersion(this);
     }
 
@@ -63,10 +84,58 @@ public class App extends Application {
         );
     }
 
+    /**
+     * 全应用共享一个 HTTP 客户端（连接池与线程），需要不同超时或重定向策略时用 newBuilder() 派生
+     * 每次调用的分阶段耗时计入 latencyRecorder，每小时的摘要写入 probe_latency_stats
+     */
+    private void initHttpClient() {
+        latencyRecorder = new LatencyRecorder(TimeUnit.HOURS.toMillis(1), summaries -> dbExecutor.execute(() -> {
+            List<ProbeLatencyEntity> rows = new ArrayList<>(summaries.size());
+            for (LatencyRecorder.Summary summary : summaries) {
+                rows.add(new ProbeLatencyEntity(summary));
+            }
+            database.probeLatencyDao().insertAll(rows);
+        }));
+        httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES)) // 空闲连接保留到下次心跳
+                .eventListenerFactory(new PhaseTimingListener.Factory(latencyRecorder))
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+    }
+
     private void initDatabase() {
         database = Room.databaseBuilder(this, AppDatabase.class, "campus-login-db")
                 .setQueryExecutor(dbExecutor) // 绑定数据库线程池
+                .addMigrations(AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5,
+                        AppDatabase.MIGRATION_5_6, AppDatabase.MIGRATION_6_7,
+                        AppDatabase.MIGRATION_7_8, AppDatabase.MIGRATION_8_9,
+                        AppDatabase.MIGRATION_9_10) // 日志拆分、结构化、历史块、计数列、全文索引、小时聚合、调用耗时
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
                 .build();
+        historyStore = new HistoryStore(database, HistoryRetention.DEFAULT);
+        cardWriteBuffer = new CardWriteBuffer(database, historyStore);
+        portalProbe = PortalProbe.createDefault(httpClient, latencyRecorder);
+        // 协调器把结果分发到各请求自己的执行器，原生结果直接在登录线程交给协调器
+        loginCoordinator = new LoginCoordinator((account, password, timeoutMs, callback) ->
+                LoginBridge.login(account, password, true, timeoutMs, Runnable::run, callback),
+                LoginCoordinator.Config.DEFAULT);
+        // 预取须与登录使用相同的 IP 检测方式
+        LoginStandby loginStandby = new LoginStandby(new LoginStandby.Prewarmer() {
+            @Override
+            public long prewarm(String account, long timeoutMs) {
+                return LoginBridge.prewarm(account, true, timeoutMs);
+            }
+
+            @Override
+            public void discard() {
+                LoginBridge.discardPrewarmed();
+            }
+        }, loginCoordinator, LoginStandby.Config.DEFAULT);
+        loginCoordinator.addListener(loginStandby);
+        heartbeatScheduler = new HeartbeatScheduler(cardWriteBuffer, database.cardDao(), dbExecutor,
+                networkExecutor, portalProbe, loginCoordinator, loginStandby,
+                new NetworkEventMonitor(this), HeartbeatIntervalPolicy.Config.DEFAULT);
     }
 
     //===========================实例获取方法=============================
@@ -83,11 +152,40 @@ public class App extends Application {
         return networkExecutor;
     }
 
+    public static OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public static LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
     //===========================数据库访问方法=============================
     public AppDatabase getDatabase() {
         return database;
     }
 
+    public HistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    public CardWriteBuffer getCardWriteBuffer() {
+        return cardWriteBuffer;
+    }
+
+    //===========================心跳调度访问方法=============================
+    public PortalProbe getPortalProbe() {
+        return portalProbe;
+    }
+
+    public LoginCoordinator getLoginCoordinator() {
+        return loginCoordinator;
+    }
+
+    public HeartbeatScheduler getHeartbeatScheduler() {
+        return heartbeatScheduler;
+    }
+
     //===========================资源释放方法=============================
     private void shutdownThreadPools() {
         if (dbExecutor != null) {
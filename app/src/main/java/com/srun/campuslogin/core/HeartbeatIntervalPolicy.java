@@ -0,0 +1,222 @@
+package com.srun.campuslogin.core;
+
+import android.os.SystemClock;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 心跳检测间隔策略
+ *
+ * <p>
+ * 功能说明：
+ * 1. 网络持续正常时逐级拉长间隔：每稳定 stabilityWindow 时长，间隔翻倍，直至上限。
+ * 2. 检测失败或刚完成登录时立即改用较短的复查间隔，尽快确认网络状态。
+ * 3. 自动登录连续失败时按指数退避限制登录频率，退避时长带随机抖动，避免多台设备同时重试。
+ * 4. 已注册网络回调时，断线由事件即时触发检测，轮询只作兜底：正常间隔从 eventDrivenInterval 起算。
+ * 5. 时间与随机数均可注入，便于用假时钟做单元测试。
+ * </p>
+ *
+ * <p>
+ * 线程安全：非线程安全，由 HeartbeatScheduler 只在调度线程调用。
+ * </p>
+ */
+public final class HeartbeatIntervalPolicy {
+    //========================= 时钟 =========================
+    public interface Clock {
+        /** @return 当前时间（毫秒，只要求单调递增，不可与墙上时间比较） */
+        long now();
+
+        /** 开机以来的时间（含休眠），不受用户修改系统时间或网络校时影响 */
+        Clock SYSTEM = SystemClock::elapsedRealtime;
+    }
+
+    //========================= 配置 =========================
+    /**
+     * 间隔策略参数（不可变）
+     */
+    public static final class Config {
+        /**
+         * 默认：正常 60 秒（有网络回调时 5 分钟），稳定 30 分钟翻倍，最长 10 分钟；
+         * 失败后 15 秒复查；登录退避 30 秒起、最长 15 分钟
+         */
+        public static final Config DEFAULT = new Builder().build();
+
+        public final long minIntervalMs;       // 任意间隔的下限
+        public final long baseIntervalMs;      // 网络正常时的初始间隔
+        public final long eventDrivenIntervalMs; // 有网络回调时网络正常的初始间隔（兜底轮询）
+        public final long maxIntervalMs;       // 任意间隔的上限
+        public final long recheckIntervalMs;   // 检测失败或登录后的复查间隔
+        public final long stabilityWindowMs;   // 每稳定多久间隔翻倍一次
+        public final long loginBackoffBaseMs;  // 首次登录失败后的退避时长
+        public final long loginBackoffMaxMs;   // 登录退避时长上限
+        public final double jitterRatio;       // 抖动比例，0.2 表示 ±20%
+
+        private Config(Builder builder) {
+            if (builder.minIntervalMs <= 0 || builder.minIntervalMs > builder.maxIntervalMs
+                    || builder.baseIntervalMs < builder.minIntervalMs || builder.baseIntervalMs > builder.maxIntervalMs
+                    || builder.eventDrivenIntervalMs < builder.baseIntervalMs
+                    || builder.eventDrivenIntervalMs > builder.maxIntervalMs
+                    || builder.recheckIntervalMs < builder.minIntervalMs
+                    || builder.recheckIntervalMs > builder.maxIntervalMs
+                    || builder.stabilityWindowMs <= 0
+                    || builder.loginBackoffBaseMs <= 0 || builder.loginBackoffBaseMs > builder.loginBackoffMaxMs
+                    || builder.jitterRatio < 0 || builder.jitterRatio >= 1) {
+                throw new IllegalArgumentException("心跳间隔参数不合法");
+            }
+            this.minIntervalMs = builder.minIntervalMs;
+            this.baseIntervalMs = builder.baseIntervalMs;
+            this.eventDrivenIntervalMs = builder.eventDrivenIntervalMs;
+            this.maxIntervalMs = builder.maxIntervalMs;
+            this.recheckIntervalMs = builder.recheckIntervalMs;
+            this.stabilityWindowMs = builder.stabilityWindowMs;
+            this.loginBackoffBaseMs = builder.loginBackoffBaseMs;
+            this.loginBackoffMaxMs = builder.loginBackoffMaxMs;
+            this.jitterRatio = builder.jitterRatio;
+        }
+
+        public static final class Builder {
+            private long minIntervalMs = TimeUnit.SECONDS.toMillis(10);
+            private long baseIntervalMs = TimeUnit.SECONDS.toMillis(60);
+            private long maxIntervalMs = TimeUnit.MINUTES.toMillis(10);
+            private long eventDrivenIntervalMs = TimeUnit.MINUTES.toMillis(5);
+            private long recheckIntervalMs = TimeUnit.SECONDS.toMillis(15);
+            private long stabilityWindowMs = TimeUnit.MINUTES.toMillis(30);
+            private long loginBackoffBaseMs = TimeUnit.SECONDS.toMillis(30);
+            private long loginBackoffMaxMs = TimeUnit.MINUTES.toMillis(15);
+            private double jitterRatio = 0.2;
+
+            public Builder setIntervalBounds(long minMs, long baseMs, long maxMs) {
+                this.minIntervalMs = minMs;
+                this.baseIntervalMs = baseMs;
+                this.maxIntervalMs = maxMs;
+                return this;
+            }
+
+            public Builder setEventDrivenInterval(long intervalMs) {
+                this.eventDrivenIntervalMs = intervalMs;
+                return this;
+            }
+
+            public Builder setRecheckInterval(long recheckMs) {
+                this.recheckIntervalMs = recheckMs;
+                return this;
+            }
+
+            public Builder setStabilityWindow(long windowMs) {
+                this.stabilityWindowMs = windowMs;
+                return this;
+            }
+
+            public Builder setLoginBackoff(long baseMs, long maxMs) {
+                this.loginBackoffBaseMs = baseMs;
+                this.loginBackoffMaxMs = maxMs;
+                return this;
+            }
+
+            public Builder setJitterRatio(double ratio) {
+                this.jitterRatio = ratio;
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+        }
+    }
+
+    //========================= 成员变量 =========================
+    private final Config config;
+    private final Clock clock;
+    private final Random random;
+    private long stableSince = -1;     // 本轮连续正常的起始时间，-1 表示最近一次检测失败或尚未检测
+    private int loginFailures;         // 连续登录失败次数
+    private long nextLoginAllowedAt;   // 退避结束时间
+    private boolean eventDriven;       // 是否已有网络回调即时触发检测
+
+    public HeartbeatIntervalPolicy(Config config) {
+        this(config, Clock.SYSTEM, new Random());
+    }
+
+    public HeartbeatIntervalPolicy(Config config, Clock clock, Random random) {
+        this.config = config;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * 设置是否由网络回调驱动检测，决定网络正常时的起始间隔
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    //========================= 检测结果 =========================
+    /**
+     * 记录一次正常的检测
+     * @return 到下次检测的间隔
+     */
+    public long onProbeSuccess() {
+        long now = clock.now();
+        if (stableSince < 0) stableSince = now;
+        long stableFor = now - stableSince;
+        long doublings = Math.min(stableFor / config.stabilityWindowMs, 30);
+        long start = eventDriven ? config.eventDrivenIntervalMs : config.baseIntervalMs;
+        long interval = Math.min(start << doublings, config.maxIntervalMs);
+        return jitter(interval);
+    }
+
+    /**
+     * 记录一次需要重新认证的检测，稳定计时清零
+     * @return 到下次检测的间隔（复查间隔）
+     */
+    public long onProbeFailure() {
+        stableSince = -1;
+        return jitter(config.recheckIntervalMs);
+    }
+
+    //========================= 登录结果 =========================
+    /**
+     * 当前是否允许发起自动登录（不在退避期内）
+     */
+    public boolean canAttemptLogin() {
+        return clock.now() >= nextLoginAllowedAt;
+    }
+
+    /**
+     * 记录自动登录成功，清除退避
+     * @return 到下次检测的间隔（登录后尽快复查）
+     */
+    public long onLoginSuccess() {
+        loginFailures = 0;
+        nextLoginAllowedAt = 0;
+        return jitter(config.recheckIntervalMs);
+    }
+
+    /**
+     * 记录一轮自动登录失败，退避时长按失败次数翻倍
+     * @return 本次退避时长
+     */
+    public long onLoginFailure() {
+        loginFailures++;
+        long backoff = Math.min(config.loginBackoffBaseMs << Math.min(loginFailures - 1, 30),
+                config.loginBackoffMaxMs);
+        backoff = applyJitter(backoff, 0, config.loginBackoffMaxMs);
+        nextLoginAllowedAt = clock.now() + backoff;
+        return backoff;
+    }
+
+    public int getLoginFailures() {
+        return loginFailures;
+    }
+
+    //========================= 抖动 =========================
+    private long jitter(long interval) {
+        return applyJitter(interval, config.minIntervalMs, config.maxIntervalMs);
+    }
+
+    private long applyJitter(long value, long min, long max) {
+        double factor = 1 + config.jitterRatio * (2 * random.nextDouble() - 1);
+        long jittered = Math.round(value * factor);
+        return Math.max(min, Math.min(max, jittered));
+    }
+}
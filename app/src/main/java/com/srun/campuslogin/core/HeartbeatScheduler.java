@@ -0,0 +1,489 @@
+package com.srun.campuslogin.core;
+
+import android.util.Log;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.srun.campuslogin.data.CardWriteBuffer;
+import com.srun.campuslogin.data.dao.CardDao;
+import com.srun.campuslogin.data.model.CardEntity;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import com.srun.campuslogin.utils.NetworkUtils;
+import com.srun.campuslogin.utils.probe.PortalProbe;
+import com.srun.campuslogin.utils.probe.ProbeReport;
+import com.srun.campuslogin.utils.probe.ProbeVerdict;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+//===========================心跳调度器=============================
+/**
+ * 功能：在独立的调度线程上周期检测网络，需要重新认证时自动重连
+ * 核心职责：
+ * 1. 所有开启断线重连的卡片共享一个检测循环，每个周期只发起一次网络探测（{@link PortalProbe}），结果分发给每张卡片记录
+ * 2. 探测确认需要重新认证时按开启顺序逐个尝试卡片登录，直到有一张成功（多账号互为备份），同一时刻只有一轮重连；
+ *    登录经 {@link LoginCoordinator} 发起，与手动登录合并，冷却中的账号直接跳过
+ * 3. 检测间隔与登录退避由 {@link HeartbeatIntervalPolicy} 决定，每次启动检测循环时重新计算
+ * 4. 通过 {@link NetworkEventMonitor} 监听网络变化：网络接入、出现认证门户或验证状态变化时立即检测，
+ *    周期检测只作为低频兜底；回调注册失败时退回纯轮询
+ * 5. 检测调度、日志记录、计数与重连都在调度线程完成；网络探测在网络线程池执行，调度线程本身从不阻塞
+ * 6. 探测无法判断、网络验证失效或刚经历一轮重连时，为优先级最高的卡片进入预热登录（{@link LoginStandby}），
+ *    下一次重连只需请求 srun_portal；网络变化时丢弃预取结果，检测循环终止时退出预热
+ * 7. 只由 {@link com.srun.campuslogin.utils.HeartbeatService} 驱动：检测按卡片 ID 进行，计数在加入时从数据库读取，
+ *    重连时重新读取账号密码，不持有界面或 Room 发出的卡片对象；界面只通过 {@link #getState()} 与 {@link #getNotices()} 观察
+ * 线程安全：公开方法可在任意线程调用，内部状态只在调度线程访问
+ */
+public class HeartbeatScheduler {
+    //===========================常量定义=============================
+    private static final String TAG = "Heartbeat";
+    private static final long AVAILABLE_CHECK_DELAY_MS = 1_000; // 网络接入后等待地址分配再检测
+    private static final long VALIDATED_CHECK_DELAY_MS = 500;   // 验证状态变化后的检测延迟
+
+    //===========================成员变量=============================
+    private final CardWriteBuffer writeBuffer;
+    private final CardDao cardDao;
+    private final ExecutorService dbExecutor;
+    private final ExecutorService probeExecutor;
+    private final PortalProbe portalProbe;
+    private final LoginCoordinator loginCoordinator;
+    private final LoginStandby loginStandby;
+    private final NetworkEventMonitor networkMonitor;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "heartbeat-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final MutableLiveData<HeartbeatState> state = new MutableLiveData<>(HeartbeatState.IDLE);
+    private final MutableLiveData<String> notices = new MutableLiveData<>();
+    private volatile HeartbeatIntervalPolicy.Config intervalConfig;
+
+    // 以下字段只在调度线程访问
+    private final Map<Integer, Subscriber> subscribers = new LinkedHashMap<>(); // 按开启顺序，即重连优先级
+    private ScheduledFuture<?> pendingCheck;
+    private HeartbeatIntervalPolicy policy;
+    private int taskId;
+    private int taskCounter;
+    private boolean probing;           // 本周期探测是否尚未返回
+    private boolean reloginInProgress; // 是否有一轮重连尚未结束
+    private LoginCoordinator.Ticket reloginTicket; // 进行中的自动登录请求，检测循环终止时取消
+    private long lastCheckAt;
+    private boolean lastNetworkOk = true;
+    private long nextCheckAt;
+    private Boolean lastValidated;     // 最近一次回调的验证状态，null 表示尚未收到
+    private Boolean lastCaptivePortal; // 最近一次回调的门户状态，null 表示尚未收到
+
+    public HeartbeatScheduler(CardWriteBuffer writeBuffer, CardDao cardDao, ExecutorService dbExecutor,
+                              ExecutorService probeExecutor, PortalProbe portalProbe,
+                              LoginCoordinator loginCoordinator, LoginStandby loginStandby,
+                              NetworkEventMonitor networkMonitor, HeartbeatIntervalPolicy.Config intervalConfig) {
+        this.writeBuffer = writeBuffer;
+        this.cardDao = cardDao;
+        this.dbExecutor = dbExecutor;
+        this.probeExecutor = probeExecutor;
+        this.portalProbe = portalProbe;
+        this.loginCoordinator = loginCoordinator;
+        this.loginStandby = loginStandby;
+        this.networkMonitor = networkMonitor;
+        this.intervalConfig = intervalConfig;
+    }
+
+    public HeartbeatIntervalPolicy.Config getIntervalConfig() {
+        return intervalConfig;
+    }
+
+    /**
+     * 修改间隔策略参数，下次启动检测循环时生效
+     */
+    public void setIntervalConfig(HeartbeatIntervalPolicy.Config intervalConfig) {
+        this.intervalConfig = intervalConfig;
+    }
+
+    //===========================对外接口=============================
+    /**
+     * 将卡片加入检测（已在检测时忽略）；没有检测循环时启动一个并立即检测
+     * @param heartbeatCounter 数据库中的累计检测次数，此后由调度器递增并写回
+     * @return 完成后正在检测的卡片数
+     */
+    public Future<Integer> start(int cardId, int heartbeatCounter) {
+        return scheduler.submit(() -> {
+            subscribe(cardId, heartbeatCounter);
+            return subscribers.size();
+        });
+    }
+
+    /**
+     * 将卡片移出检测；最后一张卡片移出时停止检测循环
+     * @return 完成后正在检测的卡片数
+     */
+    public Future<Integer> stop(int cardId) {
+        return scheduler.submit(() -> {
+            unsubscribe(cardId);
+            return subscribers.size();
+        });
+    }
+
+    /**
+     * 使检测的卡片与给定集合一致：移出不在集合中的卡片，加入新增的卡片
+     * @param heartbeatCounters 卡片 ID 到数据库中累计检测次数（按重连优先级排序）
+     * @return 完成后正在检测的卡片数
+     */
+    public Future<Integer> sync(Map<Integer, Integer> heartbeatCounters) {
+        return scheduler.submit(() -> {
+            for (Integer cardId : new ArrayList<>(subscribers.keySet())) {
+                if (!heartbeatCounters.containsKey(cardId)) unsubscribe(cardId);
+            }
+            for (Map.Entry<Integer, Integer> entry : heartbeatCounters.entrySet()) {
+                subscribe(entry.getKey(), entry.getValue());
+            }
+            return subscribers.size();
+        });
+    }
+
+    public void stopAll() {
+        scheduler.execute(() -> {
+            subscribers.clear();
+            stopLoop();
+        });
+    }
+
+    /**
+     * 心跳状态，每次卡片加入、退出与检测完成后更新
+     */
+    public LiveData<HeartbeatState> getState() {
+        return state;
+    }
+
+    /**
+     * 需要提示用户的消息（如自动重连结果）
+     */
+    public LiveData<String> getNotices() {
+        return notices;
+    }
+
+    //===========================检测循环=============================
+    private void subscribe(int cardId, int heartbeatCounter) {
+        if (subscribers.containsKey(cardId)) return;
+        subscribers.put(cardId, new Subscriber(heartbeatCounter));
+        if (subscribers.size() == 1) {
+            taskId = ++taskCounter;
+            policy = new HeartbeatIntervalPolicy(intervalConfig);
+            lastValidated = null;
+            lastCaptivePortal = null;
+            int task = taskId;
+            boolean eventDriven = networkMonitor.start(new NetworkListener(task));
+            policy.setEventDriven(eventDriven);
+            Log.d(TAG, "启动心跳检测循环，任务ID：" + taskId + (eventDriven ? "（事件驱动）" : "（轮询）"));
+            nextCheckAt = System.currentTimeMillis();
+            pendingCheck = scheduler.schedule(() -> runCheck(task), 0, TimeUnit.MILLISECONDS);
+        }
+        Log.d(TAG, "卡片加入检测，卡片ID：" + cardId + " 当前卡片数：" + subscribers.size());
+        publishState();
+    }
+
+    private void unsubscribe(int cardId) {
+        if (subscribers.remove(cardId) == null) return;
+        Log.d(TAG, "卡片退出检测，卡片ID：" + cardId);
+        if (subscribers.isEmpty()) {
+            stopLoop();
+        } else {
+            publishState();
+        }
+    }
+
+    private void stopLoop() {
+        Log.d(TAG, "终止检测循环，任务ID：" + taskId);
+        if (pendingCheck != null) {
+            pendingCheck.cancel(false);
+            pendingCheck = null;
+        }
+        taskId = ++taskCounter; // 使进行中的探测结果与网络回调失效
+        if (reloginTicket != null) {
+            reloginTicket.cancel(); // 结果以取消失败回调，本轮重连随之结束
+            reloginTicket = null;
+        }
+        networkMonitor.stop();
+        loginStandby.disarm();
+        probing = false;
+        nextCheckAt = 0;
+        state.postValue(HeartbeatState.IDLE);
+    }
+
+    private boolean isCurrent(int task) {
+        return !subscribers.isEmpty() && task == taskId;
+    }
+
+    private void runCheck(int task) {
+        if (!isCurrent(task) || probing) return;
+        probing = true;
+        for (int cardId : subscribers.keySet()) {
+            log(cardId, LogEventType.CHECK_STARTED, task);
+        }
+        probeExecutor.execute(() -> {
+            ProbeReport report = portalProbe.run();
+            scheduler.execute(() -> onProbeResult(task, report));
+        });
+    }
+
+    private void onProbeResult(int task, ProbeReport report) {
+        if (!isCurrent(task)) {
+            Log.w(TAG, "检测循环已终止，丢弃检测结果");
+            return;
+        }
+        probing = false;
+
+        // 同一探测结果分发给每张卡片
+        for (Map.Entry<Integer, Subscriber> entry : subscribers.entrySet()) {
+            int cardId = entry.getKey();
+            int count = ++entry.getValue().heartbeatCounter;
+            log(cardId, LogEventType.CHECK_COUNT, task, String.valueOf(count));
+            writeBuffer.appendLog(probeLog(cardId, report, task));
+            writeBuffer.setHeartbeatCounter(cardId, count);
+        }
+
+        if (report.needReauth() && !reloginInProgress && policy.canAttemptLogin()) {
+            reloginInProgress = true;
+            relogin(task, new ArrayList<>(subscribers.keySet()), 0);
+        }
+
+        // 需要认证时先重连，预热在本轮重连结束后开始，避免新的 challenge 使进行中登录的 token 失效
+        if (report.verdict == ProbeVerdict.INCONCLUSIVE) {
+            armStandby(task);
+        }
+
+        // 无法判断时不登录，但按失败处理以尽快复查
+        boolean online = report.verdict == ProbeVerdict.ONLINE;
+        long interval = online ? policy.onProbeSuccess() : policy.onProbeFailure();
+        lastCheckAt = System.currentTimeMillis();
+        lastNetworkOk = online;
+        scheduleNextCheck(task, interval);
+        publishState();
+    }
+
+    /**
+     * 按探测结论生成卡片日志（需要认证与无法判断时附带各策略结果摘要）
+     */
+    public static CardLogEntity probeLog(int cardId, ProbeReport report, int taskId) {
+        long now = System.currentTimeMillis();
+        switch (report.verdict) {
+            case ONLINE:
+                return new CardLogEntity(cardId, now, LogEventType.NETWORK_OK, taskId);
+            case NEED_AUTH:
+                return new CardLogEntity(cardId, now, LogEventType.REAUTH_REQUIRED, taskId, report.summary());
+            default:
+                return new CardLogEntity(cardId, now, LogEventType.PROBE_INCONCLUSIVE, taskId, report.summary());
+        }
+    }
+
+    /**
+     * 为优先级最高的卡片进入（或延长）预热登录，账号从数据库读取
+     */
+    private void armStandby(int task) {
+        if (!isCurrent(task)) return;
+        int cardId = subscribers.keySet().iterator().next();
+        dbExecutor.execute(() -> {
+            CardEntity card = cardDao.getById(cardId);
+            if (card == null) return;
+            String account = LoginCoordinator.accountOf(card.getUsername(), card.getOperator());
+            scheduler.execute(() -> {
+                if (isCurrent(task)) loginStandby.arm(account);
+            });
+        });
+    }
+
+    private void log(int cardId, LogEventType type, int taskId, String... args) {
+        writeBuffer.appendLog(new CardLogEntity(cardId, System.currentTimeMillis(), type, taskId, args));
+    }
+
+    private void scheduleNextCheck(int task, long interval) {
+        if (pendingCheck != null) pendingCheck.cancel(false);
+        nextCheckAt = System.currentTimeMillis() + interval;
+        pendingCheck = scheduler.schedule(() -> runCheck(task), interval, TimeUnit.MILLISECONDS);
+        Log.d(TAG, "已调度下次检测，卡片数：" + subscribers.size() + " 间隔：" + interval / 1000 + "s");
+    }
+
+    /**
+     * 网络事件触发的提前检测：下次检测本就更早（或探测进行中）时不重复调度
+     */
+    private void expediteCheck(int task, long delay, String reason) {
+        if (!isCurrent(task) || probing) return;
+        if (nextCheckAt - System.currentTimeMillis() <= delay) return;
+        Log.d(TAG, "网络事件触发检测：" + reason);
+        scheduleNextCheck(task, delay);
+        publishState();
+    }
+
+    private void publishState() {
+        state.postValue(new HeartbeatState(new LinkedHashSet<>(subscribers.keySet()), taskId,
+                lastCheckAt, lastNetworkOk, nextCheckAt));
+    }
+
+    //===========================网络事件=============================
+    /**
+     * 网络回调在系统线程执行，统一转交调度线程处理；任务号用于丢弃已终止循环的迟到回调
+     */
+    private final class NetworkListener implements NetworkEventMonitor.Listener {
+        private final int task;
+
+        NetworkListener(int task) {
+            this.task = task;
+        }
+
+        @Override
+        public void onNetworkAvailable() {
+            scheduler.execute(() -> {
+                if (!isCurrent(task)) return;
+                loginStandby.invalidate(); // 新网络的 IP 与连接都不同
+                expediteCheck(task, AVAILABLE_CHECK_DELAY_MS, "网络接入");
+            });
+        }
+
+        @Override
+        public void onNetworkLost() {
+            scheduler.execute(() -> {
+                if (!isCurrent(task)) return;
+                // 没有网络时探测必然失败，等待下一次接入回调
+                Log.d(TAG, "默认网络断开");
+                lastValidated = null;
+                lastCaptivePortal = null;
+                loginStandby.invalidate();
+            });
+        }
+
+        @Override
+        public void onCapabilitiesChanged(boolean validated, boolean captivePortal) {
+            scheduler.execute(() -> {
+                if (!isCurrent(task)) return;
+                boolean captiveChanged = !Boolean.valueOf(captivePortal).equals(lastCaptivePortal);
+                boolean validatedChanged = !Boolean.valueOf(validated).equals(lastValidated);
+                lastCaptivePortal = captivePortal;
+                lastValidated = validated;
+                if (captivePortal && captiveChanged) {
+                    // 系统已确认需要门户认证：立即探测，结果需要认证时随即登录
+                    expediteCheck(task, 0, "检测到认证门户");
+                } else if (validatedChanged) {
+                    if (!validated) armStandby(task); // 可能即将被要求重新认证
+                    expediteCheck(task, VALIDATED_CHECK_DELAY_MS, validated ? "网络已验证" : "网络验证失效");
+                }
+            });
+        }
+    }
+
+    //===========================自动重连=============================
+    /**
+     * 依次尝试候选卡片登录，成功即停止；候选全部失败后结束本轮重连并进入登录退避
+     * 每次尝试前从数据库读取最新的账号密码，期间被删除的卡片直接跳过
+     * @param task       发起重连的检测循环任务号
+     * @param candidates 本轮开始时的检测卡片 ID（按优先级）
+     * @param index      当前尝试的下标
+     */
+    private void relogin(int task, List<Integer> candidates, int index) {
+        if (!isCurrent(task)) {
+            reloginInProgress = false; // 检测循环已终止，不再尝试其余卡片
+            return;
+        }
+        if (index >= candidates.size()) {
+            reloginInProgress = false;
+            long backoff = policy.onLoginFailure();
+            Log.d(TAG, "本轮重连全部失败，" + backoff / 1000 + "s 内不再自动登录");
+            armStandby(task);
+            return;
+        }
+        int cardId = candidates.get(index);
+        dbExecutor.execute(() -> {
+            CardEntity card = cardDao.getById(cardId);
+            scheduler.execute(() -> {
+                if (card == null) {
+                    relogin(task, candidates, index + 1);
+                } else {
+                    login(task, card, candidates, index);
+                }
+            });
+        });
+    }
+
+    private void login(int task, CardEntity card, List<Integer> candidates, int index) {
+        if (!isCurrent(task)) {
+            reloginInProgress = false; // 读取卡片期间检测循环已终止，不再发起登录
+            return;
+        }
+        String account = LoginCoordinator.accountOf(card.getUsername(), card.getOperator());
+        if (loginCoordinator.getState(account) == LoginCoordinator.LoginState.COOLING_DOWN) {
+            Log.d(TAG, "账号登录冷却中，跳过卡片：" + card.getId());
+            relogin(task, candidates, index + 1);
+            return;
+        }
+        log(card.getId(), LogEventType.AUTO_LOGIN_STARTED, 0);
+        // 结果直接在调度线程回调
+        reloginTicket = loginCoordinator.login(
+                account,
+                card.getPassword(),
+                scheduler,
+                new LoginBridge.LoginCallback() {
+                    @Override
+                    public void onSuccess(LoginResult result) {
+                        reloginTicket = null;
+                        reloginInProgress = false;
+                        onReloginSuccess(card.getId(), result);
+                        if (isCurrent(task)) {
+                            scheduleNextCheck(task, policy.onLoginSuccess()); // 登录后尽快复查
+                            publishState();
+                            armStandby(task); // 刚被强制下线，短时间内可能再次发生
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(LoginResult result) {
+                        reloginTicket = null;
+                        onReloginFailure(card.getId(), result);
+                        relogin(task, candidates, index + 1);
+                    }
+                }
+        );
+    }
+
+    /**
+     * 在线 IP 取自认证服务器的响应，服务器未返回时才枚举本机网卡
+     */
+    private void onReloginSuccess(int cardId, LoginResult result) {
+        String ip = result.onlineIp;
+        if (ip.isEmpty()) {
+            ip = NetworkUtils.getCurrentIPv4Address().ip;
+        }
+        String timing = result.timingSummary();
+        if (timing != null) {
+            log(cardId, LogEventType.AUTO_LOGIN_SUCCESS, 0, timing);
+        } else {
+            log(cardId, LogEventType.AUTO_LOGIN_SUCCESS, 0);
+        }
+        writeBuffer.setLastIp(cardId, (ip == null || ip.isEmpty()) ? "未获取" : ip);
+        writeBuffer.flushAsync(); // 尽快落库，列表通过 Room 观察刷新 IP
+        notices.postValue("自动登录成功");
+    }
+
+    private void onReloginFailure(int cardId, LoginResult result) {
+        log(cardId, LogEventType.AUTO_LOGIN_FAILED, 0, result.message);
+        if (!result.isCancelled()) { // 检测停止导致的取消不提示
+            notices.postValue("自动登录失败：" + result.message);
+        }
+    }
+
+    //===========================检测中的卡片=============================
+    /**
+     * 调度器为每张检测中的卡片保存的状态（只在调度线程访问）
+     */
+    private static final class Subscriber {
+        int heartbeatCounter;
+
+        Subscriber(int heartbeatCounter) {
+            this.heartbeatCounter = heartbeatCounter;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.srun.campuslogin.core;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 心跳检测的对外状态快照
+ *
+ * <p>
+ * 功能说明：
+ * 1. 由 {@link HeartbeatScheduler} 在调度线程生成并通过 LiveData 发布，界面只观察、不直接访问调度器内部状态。
+ * 2. 对象不可变，可在任意线程读取。
+ * </p>
+ *
+ * <p>
+ * 核心字段说明：
+ * - activeCardIds : 订阅检测结果的卡片 ID，为空表示未在检测
+ * - taskId        : 当前检测循环的任务号（与日志中的任务号一致）
+ * - lastCheckAt   : 最近一次检测完成时间（epoch 毫秒），尚未检测时为 0
+ * - networkOk     : 最近一次检测结果是否为网络正常
+ * - nextCheckAt   : 下一次检测的计划时间（epoch 毫秒），未在检测时为 0
+ * </p>
+ */
+public final class HeartbeatState {
+    public static final HeartbeatState IDLE = new HeartbeatState(Collections.emptySet(), 0, 0, true, 0);
+
+    public final Set<Integer> activeCardIds;
+    public final int taskId;
+    public final long lastCheckAt;
+    public final boolean networkOk;
+    public final long nextCheckAt;
+
+    /**
+     * @param activeCardIds 调用方不再修改的集合
+     */
+    public HeartbeatState(Set<Integer> activeCardIds, int taskId,
+                          long lastCheckAt, boolean networkOk, long nextCheckAt) {
+        this.activeCardIds = Collections.unmodifiableSet(activeCardIds);
+        this.taskId = taskId;
+        this.lastCheckAt = lastCheckAt;
+        this.networkOk = networkOk;
+        this.nextCheckAt = nextCheckAt;
+    }
+
+    public boolean isActive() {
+        return !activeCardIds.isEmpty();
+    }
+
+    public boolean isActive(int cardId) {
+        return activeCardIds.contains(cardId);
+    }
+}
@@ -1,32 +1,173 @@
 package com.srun.campuslogin.core;
 
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import com.srun.campuslogin.utils.probe.LatencyRecorder;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//===========================原生登录桥接=============================
+/**
+ * 功能：调用 Rust 实现的深澜认证登录
+ * 核心职责：
+ * 1. 原生层只提供同步入口，在调用它的 Java 线程上完成登录并返回结果
+ * 2. 异步登录由固定数量的常驻工作线程执行：线程只附加到 JVM 一次，
+ *    每次登录不再创建原生线程与全局引用，并发登录数不超过 MAX_CONCURRENT_LOGINS
+ * 3. 每次登录返回 {@link LoginHandle}：可取消、有截止时间，取消与超时会打断原生的重试循环，
+ *    结果在调用方指定的执行器上回调
+ * 4. 原生层返回结构化的 {@link LoginResult}（服务器响应字段、失败分类与各阶段耗时），
+ *    耗时计入 {@link App#getLatencyRecorder()} 的统计
+ * 5. 预热登录（{@link #prewarm}）：预取 challenge 并保持到认证服务器的连接，该账号下一次登录只需请求 srun_portal，
+ *    由 {@link LoginStandby} 在网络出现异常迹象时周期刷新
+ * 同一账号的重复请求由 {@link LoginCoordinator} 合并，这里不做去重
+ */
 public class LoginBridge {
 
     //=========================== 自定义回调接口 =============================
     public interface LoginCallback {
-        @SuppressWarnings("unused")
-        void onSuccess();
-        @SuppressWarnings("unused")
-        void onFailure(String error);
+        /**
+         * @param result 认证服务器返回的在线 IP、流量等字段与各阶段耗时
+         */
+        void onSuccess(LoginResult result);
+
+        /**
+         * @param result 失败分类与原因（{@link LoginResult#message}），原生登录失败时带有服务器响应字段与耗时
+         */
+        void onFailure(LoginResult result);
     }
 
+    //=========================== 常量定义 =============================
+    private static final String TAG = "LoginBridge";
+    static final int MAX_CONCURRENT_LOGINS = 2; // 多账号互为备份时最多同时登录两个
+
     //=========================== JNI 初始化 =============================
     static {
         System.loadLibrary("campuslogin");
     }
 
-    //=========================== 原生登录接口（主实现）=============================
+    //=========================== 登录线程 =============================
+    private static final ExecutorService loginExecutor;
+
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_CONCURRENT_LOGINS,
+                MAX_CONCURRENT_LOGINS,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "native-login");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true); // 长时间没有登录时回收线程
+        loginExecutor = executor;
+    }
+
+    private static final ScheduledExecutorService deadlineTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "login-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //=========================== 登录接口 =============================
+    /**
+     * 在登录线程执行原生登录
+     * @param username         校园网账号（含运营商后缀）
+     * @param password         校园网密码
+     * @param detectIp         是否自动检测IP地址
+     * @param timeoutMs        从调用起的截止时间（含排队等待），超时以 {@link LoginResult.ErrorCategory#TIMEOUT} 失败；0 表示不限
+     * @param callbackExecutor 执行结果回调的执行器
+     * @param callback         登录结果回调，恰好执行一次
+     * @return 可用于取消的登录句柄
+     */
+    public static LoginHandle login(String username, String password, boolean detectIp, long timeoutMs,
+                                    Executor callbackExecutor, LoginCallback callback) {
+        LoginHandle handle = new LoginHandle(nativeCreateControl(timeoutMs), callbackExecutor, callback);
+        if (timeoutMs > 0) {
+            deadlineTimer.schedule(handle::expire, timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        loginExecutor.execute(() -> {
+            try {
+                long control = handle.begin();
+                if (control == -1) return; // 排队期间已取消或超时，不再发起登录
+                LoginResult result;
+                try {
+                    result = nativeLoginSync(username, password, detectIp, control);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "原生登录异常: " + e.getMessage());
+                    result = LoginResult.failure(LoginResult.ErrorCategory.INTERNAL, "登录异常：" + e.getMessage());
+                }
+                recordTimings(result);
+                handle.complete(result);
+            } finally {
+                handle.release();
+            }
+        });
+        return handle;
+    }
+
+    //=========================== 预热登录 =============================
+    /**
+     * 为账号预取 challenge 并保持连接（阻塞），替换该账号已有的预取结果
+     * 预取结果只能用于一次登录；token 已失效时原生登录自动按完整流程重试
+     * @param account   完整登录名
+     * @param detectIp  须与随后登录时一致
+     * @param timeoutMs 预取的截止时间，0 表示不限
+     * @return token 剩余有效期（毫秒），失败返回 -1
+     */
+    @WorkerThread
+    public static long prewarm(String account, boolean detectIp, long timeoutMs) {
+        return nativePrewarm(account, detectIp, timeoutMs);
+    }
+
     /**
-     * JNI 方式登录
-     * @param username  校园网账号
+     * 丢弃全部预取结果并关闭保持的连接（如网络变化后）
+     */
+    public static void discardPrewarmed() {
+        nativeDiscardPrewarmed();
+    }
+
+    private static void recordTimings(LoginResult result) {
+        LatencyRecorder recorder = App.getLatencyRecorder();
+        if (recorder != null) {
+            result.recordTo(recorder, System.currentTimeMillis());
+        }
+    }
+
+    //=========================== 原生登录接口 =============================
+    /**
+     * JNI 同步登录，阻塞直到登录完成、被取消或超过截止时间
+     * @param username  校园网账号（含运营商后缀）
      * @param password  校园网密码
-     * @param detectIp 是否自动检测IP地址
-     * @param callback  登录结果回调
+     * @param detectIp  是否自动检测IP地址
+     * @param control   {@link #nativeCreateControl} 创建的控制句柄，0 表示不可取消
+     * @return 登录结果，成功与否以 {@link LoginResult#isSuccess()} 为准
      */
-    public static native void nativeLogin(
-            String username,
-            String password,
-            boolean detectIp,
-            LoginCallback callback
-    );
-}
\ No newline at end of file
+    @WorkerThread
+    @NonNull
+    static native LoginResult nativeLoginSync(String username, String password, boolean detectIp, long control);
+
+    /**
+     * 创建原生控制句柄（取消标志与截止时间），须由 {@link #nativeReleaseControl} 释放
+     * @param timeoutMs 截止时间，0 表示不限
+     */
+    static native long nativeCreateControl(long timeoutMs);
+
+    /**
+     * 设置取消标志，原生登录在下一次请求前或重试等待中返回
+     */
+    static native void nativeCancel(long control);
+
+    static native void nativeReleaseControl(long control);
+
+    @WorkerThread
+    static native long nativePrewarm(String username, boolean detectIp, long timeoutMs);
+
+    static native void nativeDiscardPrewarmed();
+}
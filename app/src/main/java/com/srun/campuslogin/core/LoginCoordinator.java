@@ -0,0 +1,344 @@
+package com.srun.campuslogin.core;
+
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//===========================登录协调器=============================
+/**
+ * 功能：同一账号同一时刻只有一次登录，并在失败后冷却一段时间
+ * 核心职责：
+ * 1. 手动登录、心跳自动重连与重复点击对同一账号的请求合并为一次原生登录，结果分发给每个等待者
+ * 2. 登录失败后账号进入冷却期，期间的请求直接以失败回调，不再发起原生登录
+ * 3. 账号状态（登录中 / 冷却中）变化时通知监听者，供界面禁用登录按钮
+ * 4. 每次请求返回 {@link Ticket}：取消只影响该请求，最后一个等待者取消时才取消原生登录；
+ *    原生登录有统一的截止时间，超时按失败处理
+ * 账号以完整登录名（学号 + 运营商后缀）区分；合并的请求使用第一次请求的密码
+ * 线程安全：所有方法可在任意线程调用；结果在每个请求指定的执行器上回调
+ */
+public class LoginCoordinator {
+    //===========================原生登录入口=============================
+    public interface Login {
+        /**
+         * 发起一次原生登录，结果回调可在任意线程执行
+         * @param timeoutMs 截止时间
+         */
+        LoginHandle login(String account, String password, long timeoutMs, LoginBridge.LoginCallback callback);
+    }
+
+    //===========================状态监听=============================
+    public interface Listener {
+        /**
+         * 任一账号的登录状态变化（在任意线程回调，通过 {@link #getStates()} 读取最新状态）
+         */
+        void onLoginStateChanged();
+    }
+
+    public enum LoginState {
+        IDLE,
+        IN_FLIGHT,
+        COOLING_DOWN
+    }
+
+    //===========================参数配置=============================
+    public static final class Config {
+        public static final Config DEFAULT = new Config(10_000, 30_000);
+
+        public final long failureCooldownMs; // 登录失败（含超时）后的冷却时间，0 表示不冷却
+        public final long loginTimeoutMs;    // 一次原生登录的截止时间，0 表示不限
+
+        public Config(long failureCooldownMs, long loginTimeoutMs) {
+            if (failureCooldownMs < 0 || loginTimeoutMs < 0) {
+                throw new IllegalArgumentException("冷却时间与截止时间不能为负数");
+            }
+            this.failureCooldownMs = failureCooldownMs;
+            this.loginTimeoutMs = loginTimeoutMs;
+        }
+    }
+
+    //===========================常量定义=============================
+    private static final String TAG = "LoginCoordinator";
+
+    //===========================成员变量=============================
+    private final Login login;
+    private final Config config;
+    private final HeartbeatIntervalPolicy.Clock clock;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "login-cooldown");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object lock = new Object();
+    private final Map<String, Flight> inFlight = new HashMap<>();   // 受 lock 保护
+    private final Map<String, Long> cooldownUntil = new HashMap<>(); // 受 lock 保护
+
+    public LoginCoordinator(Login login, Config config) {
+        this(login, config, HeartbeatIntervalPolicy.Clock.SYSTEM);
+    }
+
+    public LoginCoordinator(Login login, Config config, HeartbeatIntervalPolicy.Clock clock) {
+        this.login = login;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * 完整登录名，即原生登录使用的账号
+     */
+    public static String accountOf(String username, String operator) {
+        return username + operator;
+    }
+
+    //===========================登录入口=============================
+    /**
+     * 请求登录：账号正在登录时加入等待，冷却中时直接失败，否则发起一次原生登录
+     * @param account  完整登录名
+     * @param password 密码（合并到进行中的登录时忽略）
+     * @param executor 执行结果回调的执行器
+     * @param callback 结果回调，每次请求恰好回调一次（取消时以 {@link LoginResult.ErrorCategory#CANCELLED} 失败，
+     *                 冷却中以 {@link LoginResult.ErrorCategory#COOLING_DOWN} 失败）
+     * @return 可取消本次请求的凭据
+     */
+    public Ticket login(String account, String password, Executor executor, LoginBridge.LoginCallback callback) {
+        Ticket ticket = new Ticket(account, executor, callback);
+        Flight flight = null;
+        long remaining;
+        int merged = 0; // 合并到进行中的登录后的等待数
+        synchronized (lock) {
+            remaining = cooldownRemainingLocked(account, clock.now());
+            if (remaining <= 0) {
+                Flight existing = inFlight.get(account);
+                if (existing != null) {
+                    existing.waiters.add(ticket);
+                    merged = existing.waiters.size();
+                } else {
+                    flight = new Flight(account);
+                    flight.waiters.add(ticket);
+                    inFlight.put(account, flight);
+                }
+            }
+        }
+
+        if (merged > 0) {
+            Log.d(TAG, "合并到进行中的登录：" + account + " 等待数：" + merged); // 不在持锁时输出日志
+            return ticket;
+        }
+        if (flight == null) {
+            ticket.deliverFailure(LoginResult.failure(LoginResult.ErrorCategory.COOLING_DOWN,
+                    "登录失败后冷却中，请 " + (remaining + 999) / 1000 + " 秒后重试"));
+            return ticket;
+        }
+        notifyListeners();
+        LoginHandle handle;
+        try {
+            handle = login.login(account, password, config.loginTimeoutMs, flight);
+        } catch (RuntimeException e) {
+            flight.onFailure(LoginResult.failure(LoginResult.ErrorCategory.INTERNAL, "登录启动失败：" + e.getMessage()));
+            return ticket;
+        }
+        boolean cancelled;
+        synchronized (lock) {
+            flight.handle = handle;
+            cancelled = flight.cancelled; // 发起期间所有等待者都已取消
+        }
+        if (cancelled) handle.cancel();
+        return ticket;
+    }
+
+    /**
+     * 取消一个请求：该请求以取消失败回调；所在的登录没有其他等待者时取消原生登录
+     */
+    private void cancel(Ticket ticket) {
+        LoginHandle handle = null;
+        synchronized (lock) {
+            Flight flight = inFlight.get(ticket.account);
+            if (flight == null || !flight.waiters.remove(ticket)) return; // 已结束或不属于进行中的登录
+            if (flight.waiters.isEmpty()) {
+                flight.cancelled = true;
+                handle = flight.handle;
+            }
+        }
+        ticket.deliverFailure(LoginResult.failure(LoginResult.ErrorCategory.CANCELLED, LoginHandle.CANCELLED_MESSAGE));
+        if (handle != null) handle.cancel();
+    }
+
+    //===========================状态查询=============================
+    public LoginState getState(String account) {
+        synchronized (lock) {
+            if (inFlight.containsKey(account)) return LoginState.IN_FLIGHT;
+            return cooldownRemainingLocked(account, clock.now()) > 0
+                    ? LoginState.COOLING_DOWN : LoginState.IDLE;
+        }
+    }
+
+    /**
+     * @return 非空闲账号的状态快照
+     */
+    public Map<String, LoginState> getStates() {
+        synchronized (lock) {
+            long now = clock.now();
+            Map<String, LoginState> states = new HashMap<>();
+            for (Iterator<Map.Entry<String, Long>> it = cooldownUntil.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Long> entry = it.next();
+                if (entry.getValue() > now) {
+                    states.put(entry.getKey(), LoginState.COOLING_DOWN);
+                } else {
+                    it.remove();
+                }
+            }
+            for (String account : inFlight.keySet()) {
+                states.put(account, LoginState.IN_FLIGHT);
+            }
+            return states;
+        }
+    }
+
+    public long getCooldownRemaining(String account) {
+        synchronized (lock) {
+            return cooldownRemainingLocked(account, clock.now());
+        }
+    }
+
+    private long cooldownRemainingLocked(String account, long now) {
+        Long until = cooldownUntil.get(account);
+        if (until == null) return 0;
+        if (until <= now) {
+            cooldownUntil.remove(account);
+            return 0;
+        }
+        return until - now;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners() {
+        for (Listener listener : listeners) {
+            listener.onLoginStateChanged();
+        }
+    }
+
+    //===========================登录请求=============================
+    /**
+     * 一次登录请求，结果在请求指定的执行器上回调且只回调一次
+     */
+    public final class Ticket {
+        private final String account;
+        private final Executor executor;
+        private final LoginBridge.LoginCallback callback;
+        private boolean delivered; // 受 lock 保护
+
+        private Ticket(String account, Executor executor, LoginBridge.LoginCallback callback) {
+            this.account = account;
+            this.executor = executor;
+            this.callback = callback;
+        }
+
+        /**
+         * 取消本次请求（已有结果时无效）
+         */
+        public void cancel() {
+            LoginCoordinator.this.cancel(this);
+        }
+
+        private boolean markDelivered() {
+            synchronized (lock) {
+                if (delivered) return false;
+                delivered = true;
+                return true;
+            }
+        }
+
+        void deliverSuccess(LoginResult result) {
+            if (markDelivered()) executor.execute(() -> {
+                try {
+                    callback.onSuccess(result);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "登录成功回调异常: " + e.getMessage());
+                }
+            });
+        }
+
+        void deliverFailure(LoginResult result) {
+            if (markDelivered()) executor.execute(() -> {
+                try {
+                    callback.onFailure(result);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "登录失败回调异常: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    //===========================单次登录=============================
+    /**
+     * 一次进行中的原生登录，作为登录回调接收结果并分发给全部等待者
+     */
+    private final class Flight implements LoginBridge.LoginCallback {
+        final String account;
+        final List<Ticket> waiters = new ArrayList<>(); // 受 lock 保护
+        LoginHandle handle;                             // 受 lock 保护，发起后才有值
+        boolean cancelled;                              // 受 lock 保护，所有等待者都已取消
+        boolean done;                                   // 受 lock 保护
+
+        Flight(String account) {
+            this.account = account;
+        }
+
+        @Override
+        public void onSuccess(LoginResult result) {
+            for (Ticket waiter : finish(false)) {
+                waiter.deliverSuccess(result);
+            }
+        }
+
+        @Override
+        public void onFailure(LoginResult result) {
+            for (Ticket waiter : finish(true)) {
+                waiter.deliverFailure(result);
+            }
+        }
+
+        /**
+         * 结束本次登录并取出等待者；重复的结果回调返回空列表
+         * 失败（含超时）后进入冷却，等待者全部取消导致的失败不冷却
+         */
+        private List<Ticket> finish(boolean failed) {
+            List<Ticket> tickets;
+            boolean coolDown;
+            synchronized (lock) {
+                if (done) return new ArrayList<>();
+                done = true;
+                inFlight.remove(account);
+                coolDown = failed && !cancelled && config.failureCooldownMs > 0;
+                if (coolDown) {
+                    cooldownUntil.put(account, clock.now() + config.failureCooldownMs);
+                } else {
+                    cooldownUntil.remove(account);
+                }
+                tickets = new ArrayList<>(waiters);
+            }
+            if (coolDown) {
+                // 冷却结束时再通知一次，界面据此恢复登录按钮
+                timer.schedule(LoginCoordinator.this::notifyListeners,
+                        config.failureCooldownMs, TimeUnit.MILLISECONDS);
+            }
+            notifyListeners();
+            return tickets;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.srun.campuslogin.core;
+
+import java.util.concurrent.Executor;
+
+//===========================登录句柄=============================
+/**
+ * 功能：一次异步登录的句柄，可取消，超过截止时间自动以失败结束
+ * 核心职责：
+ * 1. 保证回调恰好执行一次（成功、失败、超时或取消），并在调用方指定的执行器上执行
+ * 2. 取消与超时会通知原生登录（下一次请求前或重试等待中返回），登录线程随之释放
+ * 3. 持有原生控制句柄，原生登录结束后释放；释放与取消互斥，避免访问已释放的句柄
+ * 线程安全：所有方法可在任意线程调用
+ */
+public final class LoginHandle {
+    //===========================常量定义=============================
+    public static final String CANCELLED_MESSAGE = "登录已取消";
+    public static final String TIMEOUT_MESSAGE = "登录超时";
+
+    private enum State {
+        PENDING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    //===========================成员变量=============================
+    private final Executor callbackExecutor;
+    private final LoginBridge.LoginCallback callback;
+    private long control;          // 原生控制句柄，0 表示没有或已释放（受 this 保护）
+    private State state = State.PENDING; // 受 this 保护
+
+    LoginHandle(long control, Executor callbackExecutor, LoginBridge.LoginCallback callback) {
+        this.control = control;
+        this.callbackExecutor = callbackExecutor;
+        this.callback = callback;
+    }
+
+    //===========================对外接口=============================
+    /**
+     * 取消登录：尚未结束时以 {@link #CANCELLED_MESSAGE} 失败回调，并通知原生登录尽快返回
+     * @return 本次调用是否取消了登录（已结束时返回 false）
+     */
+    public boolean cancel() {
+        return finish(State.CANCELLED, LoginResult.failure(LoginResult.ErrorCategory.CANCELLED, CANCELLED_MESSAGE));
+    }
+
+    public synchronized boolean isDone() {
+        return state != State.PENDING;
+    }
+
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    //===========================内部接口（LoginBridge 调用）=============================
+    /**
+     * 截止时间已到：尚未结束时以 {@link #TIMEOUT_MESSAGE} 失败回调
+     */
+    void expire() {
+        finish(State.FAILED, LoginResult.failure(LoginResult.ErrorCategory.TIMEOUT, TIMEOUT_MESSAGE));
+    }
+
+    /**
+     * 原生登录返回
+     */
+    void complete(LoginResult result) {
+        finish(result.isSuccess() ? State.SUCCEEDED : State.FAILED, result);
+    }
+
+    /**
+     * 原生登录开始前调用
+     * @return 仍可继续时返回原生控制句柄，已结束（取消或超时）时返回 -1
+     */
+    synchronized long begin() {
+        return state == State.PENDING ? control : -1;
+    }
+
+    /**
+     * 原生登录返回（或放弃执行）后释放原生控制句柄
+     */
+    synchronized void release() {
+        if (control != 0) {
+            LoginBridge.nativeReleaseControl(control);
+            control = 0;
+        }
+    }
+
+    private boolean finish(State next, LoginResult result) {
+        synchronized (this) {
+            if (state != State.PENDING) return false;
+            state = next;
+            if (next != State.SUCCEEDED && control != 0) {
+                LoginBridge.nativeCancel(control); // 让仍在运行的原生登录尽快返回
+            }
+        }
+        if (next == State.SUCCEEDED) {
+            callbackExecutor.execute(() -> callback.onSuccess(result));
+        } else {
+            callbackExecutor.execute(() -> callback.onFailure(result));
+        }
+        return true;
+    }
+}
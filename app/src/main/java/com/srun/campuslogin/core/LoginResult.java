@@ -0,0 +1,171 @@
+package com.srun.campuslogin.core;
+
+import androidx.annotation.NonNull;
+import com.srun.campuslogin.utils.probe.LatencyRecorder;
+import com.srun.campuslogin.utils.probe.ProbePhase;
+import java.util.Arrays;
+
+//===========================登录结果=============================
+/**
+ * 一次登录的结果：失败分类、认证服务器 srun_portal 响应字段与各阶段耗时
+ * 原生登录的结果由 JNI 直接构造；取消、超时与冷却等 Java 侧失败通过 {@link #failure} 创建，没有响应字段与耗时
+ * 字符串字段不为 null，服务器未返回时为空串；耗时为 -1 表示未测量
+ */
+public final class LoginResult {
+    //===========================失败分类=============================
+    /**
+     * 顺序与原生层 ErrorCategory 的数值一致，只能在原生分类之后追加
+     */
+    public enum ErrorCategory {
+        NONE,             // 成功
+        CANCELLED,
+        TIMEOUT,
+        NETWORK,          // 连接失败、请求超时或 HTTP 错误
+        CHALLENGE_FAILED, // get_challenge 未返回 token
+        IP_UNDEFINED,     // 没有可用的客户端 IP
+        REJECTED,         // 认证服务器拒绝登录（重试用尽仍未返回 access_token），原因见 ecode 与 errorMsg
+        PROTOCOL,         // 响应格式无法解析
+        INVALID_INPUT,    // 账号或密码为空等，未发起请求
+        INTERNAL,
+        // 以下仅由 Java 侧产生
+        COOLING_DOWN;     // 账号登录失败后冷却中，未发起登录
+
+        static ErrorCategory fromCode(int code) {
+            ErrorCategory[] values = values();
+            return code >= 0 && code < values.length ? values[code] : INTERNAL;
+        }
+    }
+
+    //===========================登录耗时统计端点=============================
+    public static final String ENDPOINT_LOGIN = "srun_login";
+    public static final String ENDPOINT_CHALLENGE = "srun_challenge";
+    public static final String ENDPOINT_PORTAL = "srun_portal";
+
+    //===========================成员变量=============================
+    public final ErrorCategory category;
+    public final String message;       // 失败原因，成功时为空串
+    public final String onlineIp;      // 认证服务器返回的在线 IP
+    public final String ecode;         // 认证服务器错误码，没有错误码时为空串
+    public final String errorMsg;      // 认证服务器错误说明
+    public final String sucMsg;        // 认证服务器成功说明（如 ip_already_online_error）
+    public final long remainFlux;
+    public final long walletBalance;
+    public final int portalAttempts;   // 发出的 srun_portal 请求数
+    public final long challengeMs;     // get_challenge 请求累计耗时
+    public final long portalMs;        // srun_portal 请求累计耗时（含重试）
+    public final long retryWaitMs;     // 重试间隔累计
+    public final long totalMs;         // 整个原生登录流程耗时
+    public final boolean challengePrefetched; // 是否使用了预热时预取的 challenge 与连接（见 {@link LoginStandby}）
+
+    /**
+     * 由原生层构造，参数顺序与签名须与 android.rs 中的 LOGIN_RESULT_CTOR 一致
+     */
+    LoginResult(int category, String message, String onlineIp, String ecode, String errorMsg, String sucMsg,
+                long remainFlux, long walletBalance, int portalAttempts,
+                long challengeMs, long portalMs, long retryWaitMs, long totalMs, boolean challengePrefetched) {
+        this(ErrorCategory.fromCode(category), message, onlineIp, ecode, errorMsg, sucMsg,
+                remainFlux, walletBalance, portalAttempts, challengeMs, portalMs, retryWaitMs, totalMs,
+                challengePrefetched);
+    }
+
+    private LoginResult(ErrorCategory category, String message, String onlineIp, String ecode, String errorMsg,
+                        String sucMsg, long remainFlux, long walletBalance, int portalAttempts,
+                        long challengeMs, long portalMs, long retryWaitMs, long totalMs,
+                        boolean challengePrefetched) {
+        this.category = category;
+        this.message = nonNull(message);
+        this.onlineIp = nonNull(onlineIp);
+        this.ecode = nonNull(ecode);
+        this.errorMsg = nonNull(errorMsg);
+        this.sucMsg = nonNull(sucMsg);
+        this.remainFlux = remainFlux;
+        this.walletBalance = walletBalance;
+        this.portalAttempts = portalAttempts;
+        this.challengeMs = challengeMs;
+        this.portalMs = portalMs;
+        this.retryWaitMs = retryWaitMs;
+        this.totalMs = totalMs;
+        this.challengePrefetched = challengePrefetched;
+    }
+
+    /**
+     * Java 侧产生的失败（取消、超时、冷却、原生调用异常），没有响应字段与耗时
+     */
+    public static LoginResult failure(ErrorCategory category, String message) {
+        return new LoginResult(category, message, "", "", "", "", 0, 0, 0, -1, -1, -1, -1, false);
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    //===========================结果查询=============================
+    public boolean isSuccess() {
+        return category == ErrorCategory.NONE;
+    }
+
+    public boolean isCancelled() {
+        return category == ErrorCategory.CANCELLED;
+    }
+
+    /**
+     * 是否实际发起了网络请求并测得耗时
+     */
+    public boolean hasTimings() {
+        return totalMs >= 0 && category != ErrorCategory.INVALID_INPUT;
+    }
+
+    /**
+     * 耗时摘要，用于日志与卡片记录，如：challenge 32ms, portal 85ms×2, 等待 1000ms, 共 1130ms
+     * 使用预取的 challenge 时为：challenge 已预取, portal 20ms, 共 21ms
+     * 没有测得耗时时返回 null
+     */
+    public String timingSummary() {
+        if (!hasTimings()) return null;
+        StringBuilder out = new StringBuilder(64);
+        if (challengePrefetched && challengeMs == 0) {
+            out.append("challenge 已预取");
+        } else {
+            out.append("challenge ").append(challengeMs).append("ms");
+        }
+        out.append(", portal ").append(portalMs).append("ms");
+        if (portalAttempts > 1) {
+            out.append('×').append(portalAttempts);
+        }
+        if (retryWaitMs > 0) {
+            out.append(", 等待 ").append(retryWaitMs).append("ms");
+        }
+        out.append(", 共 ").append(totalMs).append("ms");
+        return out.toString();
+    }
+
+    /**
+     * 把各阶段耗时计入耗时统计（只有总耗时阶段），按小时摘要与探测耗时一起写入 probe_latency_stats
+     * 整个登录记在 {@link #ENDPOINT_LOGIN}；收到过 srun_portal 响应时另记 challenge 与 portal 两段，
+     * 预取的 challenge 没有请求耗时，不计入 challenge 统计
+     */
+    public void recordTo(LatencyRecorder recorder, long now) {
+        if (!hasTimings()) return;
+        boolean failed = !isSuccess();
+        recorder.record(ENDPOINT_LOGIN, totalOnly(totalMs), failed, now);
+        if (portalAttempts > 0) {
+            if (!challengePrefetched || challengeMs > 0) {
+                recorder.record(ENDPOINT_CHALLENGE, totalOnly(challengeMs), false, now);
+            }
+            recorder.record(ENDPOINT_PORTAL, totalOnly(portalMs), failed, now);
+        }
+    }
+
+    private static long[] totalOnly(long ms) {
+        long[] phaseMs = new long[ProbePhase.values().length];
+        Arrays.fill(phaseMs, -1);
+        phaseMs[ProbePhase.TOTAL.ordinal()] = ms;
+        return phaseMs;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return isSuccess() ? "登录成功 " + onlineIp : category + " " + message;
+    }
+}
@@ -0,0 +1,204 @@
+package com.srun.campuslogin.core;
+
+import android.util.Log;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+//===========================预热登录=============================
+/**
+ * 功能：网络出现异常迹象后，为优先重连的账号保持一份有效的 challenge 与到认证服务器的连接
+ * 核心职责：
+ * 1. 进入预热（{@link #arm}）后立即预取，并在 token 过期前刷新；随后的登录只需请求 srun_portal，
+ *    省去 DNS、建立连接与 get_challenge，缩短强制下线后的断网时间
+ * 2. 最后一次异常迹象后保持 {@link Config#holdMs}，期间没有新的异常迹象则退出预热并关闭连接
+ * 3. 网络变化时丢弃预取结果（IP 与连接都可能已失效），预热中则稍后重新预取
+ * 4. 作为 {@link LoginCoordinator} 的监听者：账号登录中不刷新（新的 challenge 会使进行中登录的 token 失效），
+ *    登录结束（预取结果已被用掉）后立即补充
+ * 预取失败不影响登录：原生登录找不到可用的预取结果时按完整流程进行
+ * 线程安全：公开方法可在任意线程调用，状态与阻塞的预取都在预热线程执行
+ */
+public class LoginStandby implements LoginCoordinator.Listener {
+    //===========================预取入口=============================
+    public interface Prewarmer {
+        /**
+         * 为账号预取 challenge 并保持连接（阻塞），替换已有的预取结果
+         * @return token 剩余有效期（毫秒），失败返回负数
+         */
+        long prewarm(String account, long timeoutMs);
+
+        /**
+         * 丢弃全部预取结果
+         */
+        void discard();
+    }
+
+    //===========================参数配置=============================
+    public static final class Config {
+        public static final Config DEFAULT = new Config(10 * 60_000, 15_000, 5_000, 5_000);
+
+        public final long holdMs;           // 最后一次异常迹象后保持预热的时间
+        public final long failureRetryMs;   // 预取失败后的重试间隔
+        public final long minRefreshMs;     // 两次刷新的最小间隔
+        public final long prewarmTimeoutMs; // 单次预取的截止时间
+
+        public Config(long holdMs, long failureRetryMs, long minRefreshMs, long prewarmTimeoutMs) {
+            if (holdMs <= 0 || failureRetryMs <= 0 || minRefreshMs <= 0 || prewarmTimeoutMs <= 0) {
+                throw new IllegalArgumentException("预热参数必须为正数");
+            }
+            this.holdMs = holdMs;
+            this.failureRetryMs = failureRetryMs;
+            this.minRefreshMs = minRefreshMs;
+            this.prewarmTimeoutMs = prewarmTimeoutMs;
+        }
+    }
+
+    //===========================常量定义=============================
+    private static final String TAG = "LoginStandby";
+    private static final long INVALIDATED_REFRESH_DELAY_MS = 1_000; // 网络变化后等待地址分配再预取
+
+    //===========================成员变量=============================
+    private final Prewarmer prewarmer;
+    private final LoginCoordinator coordinator;
+    private final Config config;
+    private final HeartbeatIntervalPolicy.Clock clock;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "login-standby");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 以下字段只在预热线程访问
+    private String account; // 预热中的账号，null 表示未在预热
+    private long holdUntil;
+    private ScheduledFuture<?> pendingRefresh;
+
+    /**
+     * 创建后须注册为 coordinator 的监听者
+     */
+    public LoginStandby(Prewarmer prewarmer, LoginCoordinator coordinator, Config config) {
+        this(prewarmer, coordinator, config, HeartbeatIntervalPolicy.Clock.SYSTEM);
+    }
+
+    public LoginStandby(Prewarmer prewarmer, LoginCoordinator coordinator, Config config,
+                        HeartbeatIntervalPolicy.Clock clock) {
+        this.prewarmer = prewarmer;
+        this.coordinator = coordinator;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    //===========================对外接口=============================
+    /**
+     * 出现异常迹象：为账号进入（或延长）预热；换账号时丢弃原账号的预取结果
+     * @param account 完整登录名
+     */
+    public void arm(String account) {
+        executor.execute(() -> {
+            holdUntil = clock.now() + config.holdMs;
+            if (account.equals(this.account)) return;
+            if (this.account != null) prewarmer.discard();
+            this.account = account;
+            scheduleRefresh(0);
+            Log.d(TAG, "进入预热：" + account);
+        });
+    }
+
+    /**
+     * 退出预热并丢弃预取结果（如检测循环终止）
+     */
+    public void disarm() {
+        executor.execute(this::stop);
+    }
+
+    /**
+     * 网络变化：丢弃预取结果，预热中则稍后重新预取
+     */
+    public void invalidate() {
+        executor.execute(() -> {
+            prewarmer.discard();
+            if (account != null) scheduleRefresh(INVALIDATED_REFRESH_DELAY_MS);
+        });
+    }
+
+    /**
+     * 预热账号登录中暂停刷新，否则立即补充
+     * 状态在预热线程读取时登录可能已开始并结束，无法判断预取结果是否被用掉，因此不在登录中就刷新一次；
+     * 登录状态变化不频繁，多出的预取只是一次 get_challenge
+     */
+    @Override
+    public void onLoginStateChanged() {
+        executor.execute(() -> {
+            if (account == null) return;
+            if (isLoginInFlight()) {
+                cancelRefresh(); // 登录结束时的状态回调触发下一次刷新
+            } else {
+                scheduleRefresh(0);
+            }
+        });
+    }
+
+    private boolean isLoginInFlight() {
+        return coordinator.getState(account) == LoginCoordinator.LoginState.IN_FLIGHT;
+    }
+
+    /**
+     * 预取成功后到下次刷新的间隔：在剩余有效期的三分之二处刷新，失败时按重试间隔
+     */
+    static long nextRefreshDelay(long validMs, Config config) {
+        if (validMs < 0) return config.failureRetryMs;
+        return Math.max(config.minRefreshMs, validMs * 2 / 3);
+    }
+
+    //===========================刷新=============================
+    private void scheduleRefresh(long delay) {
+        cancelRefresh();
+        pendingRefresh = executor.schedule(this::refresh, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelRefresh() {
+        if (pendingRefresh != null) {
+            pendingRefresh.cancel(false);
+            pendingRefresh = null;
+        }
+    }
+
+    private void refresh() {
+        pendingRefresh = null;
+        if (account == null) return;
+        if (isLoginInFlight()) return; // 登录结束时的状态回调触发下一次刷新
+        if (clock.now() >= holdUntil) {
+            stop();
+            Log.d(TAG, "保持期内没有新的异常迹象，已退出预热");
+            return;
+        }
+        long validMs;
+        String error = null;
+        try {
+            validMs = prewarmer.prewarm(account, config.prewarmTimeoutMs);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            validMs = -1;
+        }
+        scheduleRefresh(nextRefreshDelay(validMs, config));
+        if (error != null) {
+            Log.e(TAG, "预取异常: " + error);
+        }
+        if (validMs < 0) {
+            Log.d(TAG, "预取失败，" + config.failureRetryMs / 1000 + "s 后重试");
+        }
+    }
+
+    /**
+     * 状态变更与调度都在输出日志之前完成，日志失败不会留下未调度的预热
+     */
+    private void stop() {
+        String stopped = account;
+        if (stopped == null) return;
+        account = null;
+        cancelRefresh();
+        prewarmer.discard();
+        Log.d(TAG, "退出预热：" + stopped);
+    }
+}
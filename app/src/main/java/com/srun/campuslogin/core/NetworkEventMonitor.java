@@ -0,0 +1,88 @@
+package com.srun.campuslogin.core;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+//===========================网络事件监听=============================
+/**
+ * 功能：监听默认网络的连接与能力变化，供心跳调度器即时触发检测
+ * 核心职责：
+ * 1. 通过 ConnectivityManager.NetworkCallback 接收网络可用、断开与能力变化
+ * 2. 只上报验证状态（NET_CAPABILITY_VALIDATED）与门户状态（NET_CAPABILITY_CAPTIVE_PORTAL），由调用方判断是否变化
+ * 回调在系统的网络线程执行，监听方应尽快把事件转交到自己的线程
+ */
+public class NetworkEventMonitor {
+    //===========================回调接口=============================
+    public interface Listener {
+        void onNetworkAvailable();
+
+        void onNetworkLost();
+
+        /**
+         * @param validated     系统是否已验证该网络可访问互联网
+         * @param captivePortal 系统是否检测到需要门户认证
+         */
+        void onCapabilitiesChanged(boolean validated, boolean captivePortal);
+    }
+
+    //===========================成员变量=============================
+    private static final String TAG = "NetworkEventMonitor";
+    private final ConnectivityManager connectivityManager;
+    private ConnectivityManager.NetworkCallback callback;
+
+    public NetworkEventMonitor(Context context) {
+        this.connectivityManager = (ConnectivityManager) context.getApplicationContext()
+                .getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    //===========================注册管理=============================
+    /**
+     * 开始监听（已在监听时先注销原回调）
+     * @return 注册成功返回 true；失败时调用方应退回纯轮询
+     */
+    public boolean start(Listener listener) {
+        stop();
+        if (connectivityManager == null) return false;
+        ConnectivityManager.NetworkCallback newCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                listener.onNetworkAvailable();
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                listener.onNetworkLost();
+            }
+
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                listener.onCapabilitiesChanged(
+                        capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED),
+                        capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_CAPTIVE_PORTAL));
+            }
+        };
+        try {
+            connectivityManager.registerDefaultNetworkCallback(newCallback);
+            callback = newCallback;
+            return true;
+        } catch (RuntimeException e) {
+            // 回调数量超出系统上限等情况
+            Log.e(TAG, "注册网络回调失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void stop() {
+        if (callback == null) return;
+        try {
+            connectivityManager.unregisterNetworkCallback(callback);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "注销网络回调失败: " + e.getMessage());
+        }
+        callback = null;
+    }
+}
@@ -1,14 +1,37 @@
 package com.srun.campuslogin.data;
 
 import android.content.Context;
+import android.database.Cursor;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import com.srun.campuslogin.data.dao.CardDao;
-import com.srun.campuslogin.data.model.AtomicIntegerConverter;
+import com.srun.campuslogin.data.dao.CardLogDao;
+import com.srun.campuslogin.data.dao.HistoryBlockDao;
+import com.srun.campuslogin.data.dao.HourlyStatsDao;
+import com.srun.campuslogin.data.dao.LogSearchDao;
+import com.srun.campuslogin.data.dao.ProbeLatencyDao;
+import com.srun.campuslogin.data.history.HistoryCodec;
+import com.srun.campuslogin.data.history.LogTokenizer;
 import com.srun.campuslogin.data.model.CardEntity;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.CardLogFtsEntity;
 import com.srun.campuslogin.data.model.DatabaseConverters;
+import com.srun.campuslogin.data.model.HistoryBlockEntity;
+import com.srun.campuslogin.data.model.HourlyStatsEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import com.srun.campuslogin.data.model.ProbeLatencyEntity;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 //=========================== 数据库核心类 =============================
 /**
@@ -24,12 +47,13 @@ import com.srun.campuslogin.data.model.DatabaseConverters;
  * 3. 数据库操作强制在子线程执行
  */
 @Database(
-        entities = {CardEntity.class}, // 实体类列表
-        version = 3,                   // 更新数据库版本号（因字段变更）
+        entities = {CardEntity.class, CardLogEntity.class, HistoryBlockEntity.class,
+                CardLogFtsEntity.class, HourlyStatsEntity.class, ProbeLatencyEntity.class}, // 实体类列表
+        version = 10,                  // 新增网络调用耗时摘要
         exportSchema = false           // 关闭数据库结构导出
 )
 // 注册所有类型转换器
-@TypeConverters({DatabaseConverters.class, AtomicIntegerConverter.class})
+@TypeConverters({DatabaseConverters.class})
 public abstract class AppDatabase extends RoomDatabase {
 
     //=========================== DAO接口声明 =============================
@@ -38,6 +62,273 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract CardDao cardDao();
 
+    /**
+     * 功能：提供卡片日志的追加与查询接口
+     */
+    public abstract CardLogDao cardLogDao();
+
+    /**
+     * 功能：提供历史日志压缩块的读写接口
+     */
+    public abstract HistoryBlockDao historyBlockDao();
+
+    /**
+     * 功能：提供日志全文索引的维护与检索接口
+     */
+    public abstract LogSearchDao logSearchDao();
+
+    /**
+     * 功能：提供心跳小时聚合的读写接口
+     */
+    public abstract HourlyStatsDao hourlyStatsDao();
+
+    /**
+     * 功能：提供网络调用耗时摘要的读写接口
+     */
+    public abstract ProbeLatencyDao probeLatencyDao();
+
+    //=========================== 数据库迁移 =============================
+    /**
+     * 版本 3 -> 4：将 cards.logs 中的 JSON 日志拆分到 card_logs 表，并移除 logs 列
+     * 旧日志没有独立的时间字段，从日志末尾的 "yyyy-MM-dd HH:mm:ss" 解析，解析失败时沿用相邻日志的时间
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // 1. 读出旧 JSON 日志（旧表删除前完成）
+            List<Object[]> legacyLogs = new ArrayList<>(); // {card_id, timestamp, message}
+            try (Cursor cursor = db.query("SELECT `id`, `logs` FROM `cards`")) {
+                while (cursor.moveToNext()) {
+                    int cardId = cursor.getInt(0);
+                    List<String> logs = DatabaseConverters.stringToList(cursor.getString(1));
+                    long[] timestamps = resolveLegacyTimestamps(logs);
+                    for (int i = 0; i < logs.size(); i++) {
+                        legacyLogs.add(new Object[]{cardId, timestamps[i], logs.get(i)});
+                    }
+                }
+            }
+
+            // 2. 重建 cards 表（去掉 logs 列）
+            db.execSQL("CREATE TABLE IF NOT EXISTS `cards_new` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`student_id` TEXT, `username` TEXT, `operator` TEXT, `password` TEXT, " +
+                    "`last_ip` TEXT, `is_heartbeat_active` INTEGER NOT NULL, " +
+                    "`heartbeat_counter` INTEGER)");
+            db.execSQL("INSERT INTO `cards_new` (`id`, `student_id`, `username`, `operator`, " +
+                    "`password`, `last_ip`, `is_heartbeat_active`, `heartbeat_counter`) " +
+                    "SELECT `id`, `student_id`, `username`, `operator`, `password`, `last_ip`, " +
+                    "`is_heartbeat_active`, `heartbeat_counter` FROM `cards`");
+            db.execSQL("DROP TABLE `cards`");
+            db.execSQL("ALTER TABLE `cards_new` RENAME TO `cards`");
+
+            // 3. 创建日志表（与 CardLogEntity 定义保持一致）
+            db.execSQL("CREATE TABLE IF NOT EXISTS `card_logs` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`card_id` INTEGER NOT NULL, `timestamp` INTEGER NOT NULL, `message` TEXT, " +
+                    "FOREIGN KEY(`card_id`) REFERENCES `cards`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_card_logs_card_id_timestamp` " +
+                    "ON `card_logs` (`card_id`, `timestamp`)");
+
+            // 4. 写入拆分后的日志
+            for (Object[] log : legacyLogs) {
+                db.execSQL("INSERT INTO `card_logs` (`card_id`, `timestamp`, `message`) VALUES (?, ?, ?)", log);
+            }
+        }
+    };
+
+    /**
+     * 版本 4 -> 5：card_logs 由预渲染文本改为事件编码 + 参数
+     * 旧文本保存为 LEGACY_TEXT 事件（编码 0），原文放在 args 中
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `card_logs_new` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`card_id` INTEGER NOT NULL, `timestamp` INTEGER NOT NULL, " +
+                    "`code` INTEGER NOT NULL, `task_id` INTEGER NOT NULL, `args` TEXT, " +
+                    "FOREIGN KEY(`card_id`) REFERENCES `cards`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO `card_logs_new` (`id`, `card_id`, `timestamp`, `code`, `task_id`, `args`) " +
+                    "SELECT `id`, `card_id`, `timestamp`, " + LogEventType.LEGACY_TEXT.getCode() +
+                    ", 0, `message` FROM `card_logs`");
+            db.execSQL("DROP TABLE `card_logs`");
+            db.execSQL("ALTER TABLE `card_logs_new` RENAME TO `card_logs`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_card_logs_card_id_timestamp` " +
+                    "ON `card_logs` (`card_id`, `timestamp`)");
+        }
+    };
+
+    /**
+     * 版本 5 -> 6：新增 card_history_blocks 表，存放封存后的旧日志
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `card_history_blocks` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`card_id` INTEGER NOT NULL, `start_time` INTEGER NOT NULL, " +
+                    "`end_time` INTEGER NOT NULL, `event_count` INTEGER NOT NULL, `data` BLOB, " +
+                    "FOREIGN KEY(`card_id`) REFERENCES `cards`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_card_history_blocks_card_id_start_time` " +
+                    "ON `card_history_blocks` (`card_id`, `start_time`)");
+        }
+    };
+
+    /**
+     * 版本 6 -> 7：heartbeat_counter 由 AtomicInteger 转换列改为非空 int 列，空值按 0 迁移
+     * 迁移期间 Room 尚未开启外键约束（在 onOpen 中开启），删除旧 cards 表不会级联删除日志
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `cards_new` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`student_id` TEXT, `username` TEXT, `operator` TEXT, `password` TEXT, " +
+                    "`last_ip` TEXT, `is_heartbeat_active` INTEGER NOT NULL, " +
+                    "`heartbeat_counter` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `cards_new` (`id`, `student_id`, `username`, `operator`, " +
+                    "`password`, `last_ip`, `is_heartbeat_active`, `heartbeat_counter`) " +
+                    "SELECT `id`, `student_id`, `username`, `operator`, `password`, `last_ip`, " +
+                    "`is_heartbeat_active`, IFNULL(`heartbeat_counter`, 0) FROM `cards`");
+            db.execSQL("DROP TABLE `cards`");
+            db.execSQL("ALTER TABLE `cards_new` RENAME TO `cards`");
+        }
+    };
+
+    /**
+     * 删除卡片时同步删除其全文索引行（虚拟表不支持外键级联）
+     */
+    private static final String CREATE_FTS_CLEANUP_TRIGGER =
+            "CREATE TRIGGER IF NOT EXISTS `card_logs_fts_delete_card` AFTER DELETE ON `cards` " +
+                    "BEGIN DELETE FROM `card_logs_fts` WHERE `card_id` = OLD.`id`; END";
+
+    /**
+     * 新建数据库时创建 Room 不管理的触发器（含破坏性迁移后的重建）
+     */
+    public static final Callback CREATE_TRIGGERS_CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(CREATE_FTS_CLEANUP_TRIGGER);
+        }
+    };
+
+    /**
+     * 版本 7 -> 8：新增 card_logs_fts 全文索引，并为已有明细行与历史块建立索引
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `card_logs_fts` USING FTS4(" +
+                    "`card_id` INTEGER NOT NULL, `timestamp` INTEGER NOT NULL, `code` INTEGER NOT NULL, " +
+                    "`task_id` INTEGER NOT NULL, `args` TEXT, `tokens` TEXT, tokenize=unicode61, " +
+                    "notindexed=`card_id`, notindexed=`timestamp`, notindexed=`code`, " +
+                    "notindexed=`task_id`, notindexed=`args`)");
+            db.execSQL(CREATE_FTS_CLEANUP_TRIGGER);
+
+            // 历史块逐条解码建立索引
+            try (Cursor cursor = db.query("SELECT `card_id`, `data` FROM `card_history_blocks` ORDER BY `id`")) {
+                while (cursor.moveToNext()) {
+                    HistoryCodec.Reader reader = HistoryCodec.open(cursor.getInt(0), cursor.getBlob(1));
+                    while (reader.hasNext()) {
+                        insertFtsRow(db, reader.next());
+                    }
+                }
+            }
+            // 明细行
+            CardLogEntity row = new CardLogEntity();
+            try (Cursor cursor = db.query("SELECT `card_id`, `timestamp`, `code`, `task_id`, `args` " +
+                    "FROM `card_logs` ORDER BY `id`")) {
+                while (cursor.moveToNext()) {
+                    row.setCardId(cursor.getInt(0));
+                    row.setTimestamp(cursor.getLong(1));
+                    row.setCode(cursor.getInt(2));
+                    row.setTaskId(cursor.getInt(3));
+                    row.setArgs(cursor.isNull(4) ? null : cursor.getString(4));
+                    insertFtsRow(db, row);
+                }
+            }
+        }
+
+        private void insertFtsRow(SupportSQLiteDatabase db, CardLogEntity log) {
+            CardLogFtsEntity entry = LogTokenizer.indexEntry(log);
+            db.execSQL("INSERT INTO `card_logs_fts` (`card_id`, `timestamp`, `code`, `task_id`, `args`, `tokens`) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", new Object[]{entry.getCardId(), entry.getTimestamp(),
+                    entry.getCode(), entry.getTaskId(), entry.getArgs(), entry.getTokens()});
+        }
+    };
+
+    /**
+     * 版本 8 -> 9：新增 card_hourly_stats 小时聚合表，历史块新增 downsampled 标记
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `card_hourly_stats` (" +
+                    "`card_id` INTEGER NOT NULL, `hour_start` INTEGER NOT NULL, " +
+                    "`check_count` INTEGER NOT NULL, `ok_count` INTEGER NOT NULL, " +
+                    "`failure_count` INTEGER NOT NULL, `relogin_count` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`card_id`, `hour_start`), " +
+                    "FOREIGN KEY(`card_id`) REFERENCES `cards`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("ALTER TABLE `card_history_blocks` ADD COLUMN `downsampled` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * 版本 9 -> 10：新增 probe_latency_stats 表，按端点、阶段、小时保存网络调用耗时摘要
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `probe_latency_stats` (" +
+                    "`endpoint` TEXT NOT NULL, `phase` TEXT NOT NULL, `period_start` INTEGER NOT NULL, " +
+                    "`sample_count` INTEGER NOT NULL, `failure_count` INTEGER NOT NULL, " +
+                    "`p50_ms` INTEGER NOT NULL, `p95_ms` INTEGER NOT NULL, `p99_ms` INTEGER NOT NULL, " +
+                    "`max_ms` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`endpoint`, `phase`, `period_start`))");
+        }
+    };
+
+    private static final Pattern LEGACY_TIME_PATTERN =
+            Pattern.compile("(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})\\s*$");
+
+    /**
+     * 解析旧日志末尾的时间，缺失时使用前一条（或后一条）已知时间补齐，保证迁移后顺序不变
+     */
+    private static long[] resolveLegacyTimestamps(List<String> logs) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+        long[] timestamps = new long[logs.size()];
+        long last = -1;
+        for (int i = 0; i < logs.size(); i++) {
+            timestamps[i] = -1;
+            String log = logs.get(i);
+            Matcher matcher = LEGACY_TIME_PATTERN.matcher(log != null ? log : "");
+            if (matcher.find()) {
+                try {
+                    timestamps[i] = format.parse(matcher.group(1)).getTime();
+                } catch (ParseException ignored) {
+                    // 保持 -1，由下方补齐
+                }
+            }
+            if (timestamps[i] < 0) {
+                timestamps[i] = last;
+            }
+            last = timestamps[i];
+        }
+        // 开头缺失时间的日志使用第一条已知时间，全部缺失则使用当前时间
+        long next = System.currentTimeMillis();
+        for (int i = timestamps.length - 1; i >= 0; i--) {
+            if (timestamps[i] < 0) {
+                timestamps[i] = next;
+            }
+            next = timestamps[i];
+        }
+        return timestamps;
+    }
+
     //=========================== 单例模式实现 =============================
     private static volatile AppDatabase INSTANCE; // 保证可见性的单例实例
 
@@ -56,11 +347,14 @@ public abstract class AppDatabase extends RoomDatabase {
                                     context.getApplicationContext(), // 使用应用级上下文
                                     AppDatabase.class,               // 数据库类
                                     "campus-login-db"               // 数据库名称
-                            ).fallbackToDestructiveMigration()     // 允许版本升级时清除旧数据（按需保留）
+                            ).addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+                                    MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10) // 保留旧版本日志
+                            .addCallback(CREATE_TRIGGERS_CALLBACK)
+                            .fallbackToDestructiveMigration()     // 允许版本升级时清除旧数据（按需保留）
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,264 @@
+package com.srun.campuslogin.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.srun.campuslogin.data.dao.CardDao;
+import com.srun.campuslogin.data.dao.CardLogDao;
+import com.srun.campuslogin.data.dao.LogSearchDao;
+import com.srun.campuslogin.data.history.HistoryStore;
+import com.srun.campuslogin.data.history.LogTokenizer;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.CardLogFtsEntity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//=========================== 卡片写入合并缓冲区 =============================
+/**
+ * 功能：合并同一卡片在短时间内的多次写入，定时在一个事务中批量落库
+ * 核心职责：
+ * 1. 按卡片合并心跳计数、最近 IP、心跳开关（同一字段只保留最新值）与待追加日志（同时写入全文索引）
+ * 2. 首次写入后延迟 FLUSH_DELAY_MS 提交，一次心跳产生的多次写入只对应一个事务
+ * 3. 页面停止与心跳服务销毁时异步提交；需要读到最新状态时（如服务执行检测命令前）同步等待提交完成
+ * 4. 提交失败时把本批数据合并回缓冲区，由下次提交重试
+ * 5. 提交互斥：从取出批次到事务提交（及随后的封存）持有 flushLock，较早的批次不会晚于较新的批次落库；
+ *    异步提交在自有的单线程执行器中排队，不占用共享数据库线程池，也不会因其队列已满而回落到主线程执行
+ * 线程安全：所有入口均可在任意线程调用
+ */
+public class CardWriteBuffer {
+    //=========================== 常量定义 =============================
+    private static final String TAG = "CardWriteBuffer";
+    public static final long FLUSH_DELAY_MS = 2_000;  // 首次写入到提交的延迟
+    private static final int COMPACT_INTERVAL = 50;   // 每追加多少条日志顺带封存一次旧日志
+
+    //=========================== 批次提交接口 =============================
+    /**
+     * 把合并后的批次写入数据库，测试中替换为内存实现
+     */
+    interface BatchWriter {
+        /**
+         * 在一个事务中提交整批写入，失败时抛出异常且不留下部分写入
+         */
+        void commit(Map<Integer, PendingWrite> batch);
+
+        /**
+         * 封存该卡片超出明细窗口的旧日志
+         */
+        void compact(int cardId);
+    }
+
+    //=========================== 成员变量 =============================
+    private final BatchWriter writer;
+    private final ExecutorService flushExecutor;
+    private final Handler timerHandler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledFlush = this::flushAsync;
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();                 // 串行化提交，见 flushNow
+    private Map<Integer, PendingWrite> pending = new HashMap<>(); // 受 lock 保护
+    private boolean flushScheduled;                                // 受 lock 保护
+    private int appendedSinceCompact;                              // 受 flushLock 保护
+
+    public CardWriteBuffer(AppDatabase database, HistoryStore historyStore) {
+        this(new DatabaseWriter(database, historyStore), Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "card-write");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    CardWriteBuffer(BatchWriter writer, ExecutorService flushExecutor) {
+        this.writer = writer;
+        this.flushExecutor = flushExecutor;
+    }
+
+    //=========================== 写入入口 =============================
+    public void setHeartbeatCounter(int cardId, int value) {
+        synchronized (lock) {
+            obtain(cardId).heartbeatCounter = value;
+            scheduleLocked();
+        }
+    }
+
+    public void setLastIp(int cardId, String lastIp) {
+        synchronized (lock) {
+            obtain(cardId).lastIp = lastIp;
+            scheduleLocked();
+        }
+    }
+
+    public void setHeartbeatActive(int cardId, boolean active) {
+        synchronized (lock) {
+            obtain(cardId).heartbeatActive = active;
+            scheduleLocked();
+        }
+    }
+
+    public void appendLog(CardLogEntity log) {
+        synchronized (lock) {
+            obtain(log.getCardId()).logs.add(log);
+            scheduleLocked();
+        }
+    }
+
+    private PendingWrite obtain(int cardId) {
+        PendingWrite write = pending.get(cardId);
+        if (write == null) {
+            write = new PendingWrite();
+            pending.put(cardId, write);
+        }
+        return write;
+    }
+
+    private void scheduleLocked() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            timerHandler.postDelayed(scheduledFlush, FLUSH_DELAY_MS);
+        }
+    }
+
+    //=========================== 提交入口 =============================
+    /**
+     * 立即在提交线程提交（不等待完成），用于页面停止或需要尽快可见的写入
+     */
+    public void flushAsync() {
+        flushExecutor.execute(this::flushNow);
+    }
+
+    /**
+     * 提交并等待完成，用于读取卡片前须确保写入已落库的场景（不可在主线程调用）
+     * @param timeoutMs 最长等待时间
+     */
+    public void flushBlocking(long timeoutMs) {
+        Future<?> future = flushExecutor.submit(this::flushNow);
+        try {
+            future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.e(TAG, "同步提交未完成: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 在当前线程提交全部待写数据（须在后台线程调用，如导出前确保数据完整）
+     * 取出批次到提交完成期间持有 flushLock：并发的提交按取出批次的顺序落库，后写入的值总是最后生效
+     */
+    public void flushNow() {
+        synchronized (flushLock) {
+            Map<Integer, PendingWrite> batch;
+            synchronized (lock) {
+                timerHandler.removeCallbacks(scheduledFlush);
+                flushScheduled = false;
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new HashMap<>();
+            }
+
+            try {
+                writer.commit(batch);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "批量提交失败，等待重试: " + e.getMessage());
+                requeue(batch);
+                return;
+            }
+
+            appendedSinceCompact += countLogs(batch);
+            if (appendedSinceCompact >= COMPACT_INTERVAL) {
+                appendedSinceCompact = 0;
+                for (Map.Entry<Integer, PendingWrite> entry : batch.entrySet()) {
+                    if (!entry.getValue().logs.isEmpty()) writer.compact(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * 将提交失败的批次合并回缓冲区：字段以缓冲区中更新的值为准，日志保持时间顺序
+     */
+    private void requeue(Map<Integer, PendingWrite> batch) {
+        synchronized (lock) {
+            for (Map.Entry<Integer, PendingWrite> entry : batch.entrySet()) {
+                PendingWrite older = entry.getValue();
+                PendingWrite newer = pending.get(entry.getKey());
+                if (newer != null) {
+                    if (newer.heartbeatCounter == null) newer.heartbeatCounter = older.heartbeatCounter;
+                    if (newer.lastIp == null) newer.lastIp = older.lastIp;
+                    if (newer.heartbeatActive == null) newer.heartbeatActive = older.heartbeatActive;
+                    older.logs.addAll(newer.logs);
+                    newer.logs = older.logs;
+                } else {
+                    pending.put(entry.getKey(), older);
+                }
+            }
+            scheduleLocked();
+        }
+    }
+
+    private static int countLogs(Map<Integer, PendingWrite> batch) {
+        int count = 0;
+        for (PendingWrite write : batch.values()) {
+            count += write.logs.size();
+        }
+        return count;
+    }
+
+    //=========================== 待写数据 =============================
+    /**
+     * 单张卡片合并后的待写数据，null 字段表示无需更新
+     */
+    static final class PendingWrite {
+        Integer heartbeatCounter;
+        String lastIp;
+        Boolean heartbeatActive;
+        List<CardLogEntity> logs = new ArrayList<>();
+    }
+
+    //=========================== 数据库提交 =============================
+    private static final class DatabaseWriter implements BatchWriter {
+        private final AppDatabase database;
+        private final HistoryStore historyStore;
+
+        DatabaseWriter(AppDatabase database, HistoryStore historyStore) {
+            this.database = database;
+            this.historyStore = historyStore;
+        }
+
+        @Override
+        public void commit(Map<Integer, PendingWrite> batch) {
+            database.runInTransaction(() -> {
+                CardDao cardDao = database.cardDao();
+                CardLogDao logDao = database.cardLogDao();
+                LogSearchDao searchDao = database.logSearchDao();
+                for (Map.Entry<Integer, PendingWrite> entry : batch.entrySet()) {
+                    int cardId = entry.getKey();
+                    PendingWrite write = entry.getValue();
+                    if (cardDao.countById(cardId) == 0) continue; // 卡片已删除，丢弃其待写数据
+                    if (write.heartbeatCounter != null) cardDao.updateHeartbeatCounter(cardId, write.heartbeatCounter);
+                    if (write.lastIp != null) cardDao.updateLastIp(cardId, write.lastIp);
+                    if (write.heartbeatActive != null) cardDao.updateHeartbeatActive(cardId, write.heartbeatActive);
+                    if (!write.logs.isEmpty()) {
+                        logDao.insertAll(write.logs);
+                        searchDao.insertAll(indexEntries(write.logs));
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void compact(int cardId) {
+            historyStore.compact(cardId);
+        }
+
+        private static List<CardLogFtsEntity> indexEntries(List<CardLogEntity> logs) {
+            List<CardLogFtsEntity> entries = new ArrayList<>(logs.size());
+            for (CardLogEntity log : logs) {
+                entries.add(LogTokenizer.indexEntry(log));
+            }
+            return entries;
+        }
+    }
+}
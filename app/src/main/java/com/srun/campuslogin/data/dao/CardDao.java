@@ -67,4 +67,47 @@ public interface CardDao {
      */
     @Query("UPDATE cards SET heartbeat_counter = :value WHERE id = :id")
     void updateHeartbeatCounter(int id, int value);
+
+    //======================= 单字段更新 =========================
+    /**
+     * 只更新最近登录 IP，不覆盖其他字段
+     * @param id     卡片主键
+     * @param lastIp 新的 IP
+     */
+    @Query("UPDATE cards SET last_ip = :lastIp WHERE id = :id")
+    void updateLastIp(int id, String lastIp);
+
+    /**
+     * 只更新心跳开关，不覆盖其他字段
+     * @param id     卡片主键
+     * @param active 是否开启断线重连
+     */
+    @Query("UPDATE cards SET is_heartbeat_active = :active WHERE id = :id")
+    void updateHeartbeatActive(int id, boolean active);
+
+    /**
+     * 判断卡片是否存在
+     * @param id 卡片主键
+     * @return 存在返回 1，否则返回 0
+     */
+    @Query("SELECT COUNT(*) FROM cards WHERE id = :id")
+    int countById(int id);
+
+    /**
+     * 获取全部卡片主键（后台维护任务使用，不加载整行）
+     */
+    @Query("SELECT id FROM cards ORDER BY id")
+    List<Integer> getAllIds();
+
+    /**
+     * 按主键获取卡片（后台线程同步读取，不存在时返回 null）
+     */
+    @Query("SELECT * FROM cards WHERE id = :id")
+    CardEntity getById(int id);
+
+    /**
+     * 获取开启断线重连的卡片（心跳服务启动或重建时恢复检测）
+     */
+    @Query("SELECT * FROM cards WHERE is_heartbeat_active = 1 ORDER BY id")
+    List<CardEntity> getHeartbeatActiveCards();
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.srun.campuslogin.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import java.util.List;
+
+//=========================== 日志数据访问接口 =============================
+/**
+ * 卡片日志数据访问对象（DAO）
+ * 功能：提供对 card_logs 表的追加、查询与清理操作
+ * 特性：
+ *   - 追加日志仅插入一行，不触碰 cards 表
+ *   - 按 (card_id, timestamp) 索引查询最近日志
+ *   - 支持取出最旧的明细行，供封存为历史块
+ */
+@Dao
+public interface CardLogDao {
+    //======================= 写入操作 =========================
+    /**
+     * 追加一条日志
+     * @param log 日志实体（cardId 必须指向已存在的卡片）
+     */
+    @Insert
+    void insert(CardLogEntity log);
+
+    /**
+     * 批量追加日志
+     * @param logs 日志实体列表
+     */
+    @Insert
+    void insertAll(List<CardLogEntity> logs);
+
+    //======================= 查询操作 =========================
+    /**
+     * 获取指定卡片最近的日志（按时间正序返回）
+     * @param cardId 卡片主键
+     * @param limit  最多返回条数
+     * @return 最近 limit 条日志，最旧的在前
+     */
+    @Query("SELECT * FROM (SELECT * FROM card_logs WHERE card_id = :cardId " +
+            "ORDER BY timestamp DESC, id DESC LIMIT :limit) ORDER BY timestamp ASC, id ASC")
+    List<CardLogEntity> getRecentLogs(int cardId, int limit);
+
+    /**
+     * 分页加载更早的日志（键集分页，按时间倒序返回）
+     * @param cardId      卡片主键
+     * @param beforeTime  当前已加载最旧日志的时间
+     * @param beforeId    当前已加载最旧日志的主键
+     * @param limit       每页条数
+     * @return 早于 (beforeTime, beforeId) 的日志，最新的在前
+     */
+    @Query("SELECT * FROM card_logs WHERE card_id = :cardId " +
+            "AND (timestamp < :beforeTime OR (timestamp = :beforeTime AND id < :beforeId)) " +
+            "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    List<CardLogEntity> getLogsBefore(int cardId, long beforeTime, long beforeId, int limit);
+
+    /**
+     * 获取主键大于 afterId 的新增日志（按插入顺序返回）
+     * @param cardId  卡片主键
+     * @param afterId 当前已加载最新日志的主键
+     */
+    @Query("SELECT * FROM card_logs WHERE card_id = :cardId AND id > :afterId ORDER BY id ASC")
+    List<CardLogEntity> getLogsAfter(int cardId, long afterId);
+
+    /**
+     * 获取指定卡片的明细日志条数
+     * @param cardId 卡片主键
+     */
+    @Query("SELECT COUNT(*) FROM card_logs WHERE card_id = :cardId")
+    int countLogs(int cardId);
+
+    /**
+     * 获取指定卡片最旧的日志（按时间正序返回），用于封存历史块
+     * @param cardId 卡片主键
+     * @param limit  最多返回条数
+     */
+    @Query("SELECT * FROM card_logs WHERE card_id = :cardId ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    List<CardLogEntity> getOldestLogs(int cardId, int limit);
+
+    /**
+     * 获取 [from, to] 时间区间内的日志（按时间正序返回）
+     * @param cardId 卡片主键
+     * @param from   区间起点（含）
+     * @param to     区间终点（含）
+     */
+    @Query("SELECT * FROM card_logs WHERE card_id = :cardId AND timestamp BETWEEN :from AND :to " +
+            "ORDER BY timestamp ASC, id ASC")
+    List<CardLogEntity> getLogsInRange(int cardId, long from, long to);
+
+    //======================= 删除操作 =========================
+    /**
+     * 清空指定卡片的全部日志
+     * @param cardId 卡片主键
+     */
+    @Query("DELETE FROM card_logs WHERE card_id = :cardId")
+    void deleteLogsForCard(int cardId);
+
+    /**
+     * 按主键删除日志（已封存到历史块的行）
+     * @param ids 日志主键列表
+     */
+    @Query("DELETE FROM card_logs WHERE id IN (:ids)")
+    void deleteLogs(List<Long> ids);
+}
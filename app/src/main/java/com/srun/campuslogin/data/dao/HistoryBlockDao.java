@@ -0,0 +1,82 @@
+package com.srun.campuslogin.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+import com.srun.campuslogin.data.model.HistoryBlockEntity;
+import java.util.List;
+
+//=========================== 历史块数据访问接口 =============================
+/**
+ * 历史日志压缩块数据访问对象（DAO）
+ * 功能：提供对 card_history_blocks 表的写入、区间查询与保留期清理
+ * 特性：
+ *   - 区间查询只返回与时间范围相交的块，由调用方按需解码
+ *   - 分页以块主键为游标，每次只取一个块
+ */
+@Dao
+public interface HistoryBlockDao {
+    //======================= 写入操作 =========================
+    @Insert
+    long insert(HistoryBlockEntity block);
+
+    @Update
+    void update(HistoryBlockEntity block);
+
+    @Query("DELETE FROM card_history_blocks WHERE id = :id")
+    void delete(long id);
+
+    //======================= 查询操作 =========================
+    /**
+     * 获取与 [from, to] 时间区间相交的块（按时间正序返回）
+     * @param cardId 卡片主键
+     * @param from   区间起点（含）
+     * @param to     区间终点（含）
+     */
+    @Query("SELECT * FROM card_history_blocks WHERE card_id = :cardId " +
+            "AND start_time <= :to AND end_time >= :from ORDER BY id ASC")
+    List<HistoryBlockEntity> getBlocksInRange(int cardId, long from, long to);
+
+    /**
+     * 获取主键小于 beforeId 的最新一个块，用于向前翻页
+     * @param cardId   卡片主键
+     * @param beforeId 当前已加载最旧块的主键，首次传 Long.MAX_VALUE
+     * @return 更早的一个块，不存在时返回 null
+     */
+    @Query("SELECT * FROM card_history_blocks WHERE card_id = :cardId AND id < :beforeId " +
+            "ORDER BY id DESC LIMIT 1")
+    HistoryBlockEntity getBlockBefore(int cardId, long beforeId);
+
+    /**
+     * 获取尚未降采样且最晚日志早于 cutoff 的最旧一个块
+     * @return 待降采样的块，不存在时返回 null
+     */
+    @Query("SELECT * FROM card_history_blocks WHERE card_id = :cardId AND downsampled = 0 " +
+            "AND end_time < :cutoff ORDER BY id ASC LIMIT 1")
+    HistoryBlockEntity getNextBlockToDownsample(int cardId, long cutoff);
+
+    @Query("SELECT COUNT(*) FROM card_history_blocks WHERE card_id = :cardId")
+    int countBlocks(int cardId);
+
+    //======================= 删除操作 =========================
+    /**
+     * 清空指定卡片的全部历史块
+     * @param cardId 卡片主键
+     */
+    @Query("DELETE FROM card_history_blocks WHERE card_id = :cardId")
+    void deleteBlocksForCard(int cardId);
+
+    /**
+     * 删除最晚日志早于 cutoff 的块（按保留时长清理）
+     */
+    @Query("DELETE FROM card_history_blocks WHERE card_id = :cardId AND end_time < :cutoff")
+    void deleteBlocksEndingBefore(int cardId, long cutoff);
+
+    /**
+     * 裁剪旧块，仅保留最近 keep 个（按保留块数清理）
+     */
+    @Query("DELETE FROM card_history_blocks WHERE card_id = :cardId AND id NOT IN " +
+            "(SELECT id FROM card_history_blocks WHERE card_id = :cardId ORDER BY id DESC LIMIT :keep)")
+    void trimBlocks(int cardId, int keep);
+}
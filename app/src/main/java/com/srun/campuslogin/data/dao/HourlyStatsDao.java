@@ -0,0 +1,43 @@
+package com.srun.campuslogin.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.srun.campuslogin.data.model.HourlyStatsEntity;
+import java.util.List;
+
+//=========================== 小时聚合数据访问接口 =============================
+/**
+ * 心跳小时聚合数据访问对象（DAO）
+ * 功能：提供对 card_hourly_stats 表的合并写入、区间查询与保留期清理
+ * 特性：
+ *   - 以 (card_id, hour_start) 为主键，合并由调用方先读后写完成（须在同一事务中）
+ */
+@Dao
+public interface HourlyStatsDao {
+    //======================= 写入操作 =========================
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(HourlyStatsEntity stats);
+
+    //======================= 查询操作 =========================
+    @Query("SELECT * FROM card_hourly_stats WHERE card_id = :cardId AND hour_start = :hourStart")
+    HourlyStatsEntity get(int cardId, long hourStart);
+
+    /**
+     * 获取 [from, to] 区间内的聚合行（按时间正序返回）
+     */
+    @Query("SELECT * FROM card_hourly_stats WHERE card_id = :cardId " +
+            "AND hour_start BETWEEN :from AND :to ORDER BY hour_start ASC")
+    List<HourlyStatsEntity> getStatsInRange(int cardId, long from, long to);
+
+    //======================= 删除操作 =========================
+    @Query("DELETE FROM card_hourly_stats WHERE card_id = :cardId")
+    void deleteStatsForCard(int cardId);
+
+    /**
+     * 删除早于 cutoff 的聚合行（全部卡片）
+     */
+    @Query("DELETE FROM card_hourly_stats WHERE hour_start < :cutoff")
+    void deleteStatsBefore(long cutoff);
+}
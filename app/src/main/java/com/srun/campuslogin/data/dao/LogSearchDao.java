@@ -0,0 +1,66 @@
+package com.srun.campuslogin.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import com.srun.campuslogin.data.model.CardLogFtsEntity;
+import com.srun.campuslogin.data.model.LogSearchResult;
+import java.util.List;
+
+//=========================== 日志检索接口 =============================
+/**
+ * 日志全文索引数据访问对象（DAO）
+ * 功能：维护 card_logs_fts 索引并提供分页检索
+ * 特性：
+ *   - MATCH 表达式由 LogTokenizer.toMatchQuery 生成
+ *   - 按 (timestamp, rowid) 倒序键集分页，最新的结果在前
+ */
+@Dao
+public interface LogSearchDao {
+    //======================= 写入操作 =========================
+    @Insert
+    void insertAll(List<CardLogFtsEntity> entries);
+
+    //======================= 检索操作 =========================
+    /**
+     * 分页检索日志
+     * @param match      FTS MATCH 表达式
+     * @param cardId     限定卡片，传负数表示检索全部卡片
+     * @param beforeTime 上一页最后一条的时间，首页传 Long.MAX_VALUE
+     * @param beforeRow  上一页最后一条的 rowid，首页传 Long.MAX_VALUE
+     * @param limit      每页条数
+     */
+    @Query("SELECT card_logs_fts.rowid AS rowid, card_logs_fts.card_id AS card_id, " +
+            "cards.student_id AS student_id, card_logs_fts.timestamp AS timestamp, " +
+            "card_logs_fts.code AS code, card_logs_fts.task_id AS task_id, card_logs_fts.args AS args " +
+            "FROM card_logs_fts LEFT JOIN cards ON cards.id = card_logs_fts.card_id " +
+            "WHERE card_logs_fts MATCH :match " +
+            "AND (:cardId < 0 OR card_logs_fts.card_id = :cardId) " +
+            "AND (card_logs_fts.timestamp < :beforeTime " +
+            "OR (card_logs_fts.timestamp = :beforeTime AND card_logs_fts.rowid < :beforeRow)) " +
+            "ORDER BY card_logs_fts.timestamp DESC, card_logs_fts.rowid DESC LIMIT :limit")
+    List<LogSearchResult> search(String match, int cardId, long beforeTime, long beforeRow, int limit);
+
+    //======================= 删除操作 =========================
+    @Query("DELETE FROM card_logs_fts WHERE card_id = :cardId")
+    void deleteForCard(int cardId);
+
+    /**
+     * 删除早于该卡片最旧留存日志的索引行（历史块按保留策略清理后调用）
+     * 最旧留存日志取历史块与明细行中较早的一条（MIN 忽略 NULL，没有历史块时以明细行为界）；
+     * 两者都为空时该卡片已没有日志，索引行全部删除
+     */
+    @Query("DELETE FROM card_logs_fts WHERE card_id = :cardId AND timestamp < IFNULL((SELECT MIN(oldest) FROM (" +
+            "SELECT MIN(start_time) AS oldest FROM card_history_blocks WHERE card_id = :cardId " +
+            "UNION ALL SELECT MIN(timestamp) FROM card_logs WHERE card_id = :cardId)), " +
+            "9223372036854775807)")
+    void deleteBeyondRetention(int cardId);
+
+    /**
+     * 删除 [from, to] 区间内例行心跳日志的索引行（对应历史块降采样后调用）
+     * @param codes 例行心跳事件编码，见 HistoryDownsampler.ROUTINE_CODES
+     */
+    @Query("DELETE FROM card_logs_fts WHERE card_id = :cardId AND timestamp BETWEEN :from AND :to " +
+            "AND task_id > 0 AND code IN (:codes)")
+    void deleteRoutine(int cardId, long from, long to, List<Integer> codes);
+}
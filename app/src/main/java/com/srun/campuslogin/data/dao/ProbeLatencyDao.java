@@ -0,0 +1,37 @@
+package com.srun.campuslogin.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.srun.campuslogin.data.model.ProbeLatencyEntity;
+import java.util.List;
+
+//=========================== 调用耗时数据访问接口 =============================
+/**
+ * 网络调用耗时摘要数据访问对象（DAO）
+ * 功能：提供对 probe_latency_stats 表的批量写入、区间查询与保留期清理
+ * 特性：
+ *   - 以 (endpoint, phase, period_start) 为主键，同一时段重复写入时以后写入的摘要为准
+ */
+@Dao
+public interface ProbeLatencyDao {
+    //======================= 写入操作 =========================
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<ProbeLatencyEntity> stats);
+
+    //======================= 查询操作 =========================
+    /**
+     * 获取端点在 [from, to] 区间内的摘要（按时段、阶段排序）
+     */
+    @Query("SELECT * FROM probe_latency_stats WHERE endpoint = :endpoint " +
+            "AND period_start BETWEEN :from AND :to ORDER BY period_start ASC, phase ASC")
+    List<ProbeLatencyEntity> getStatsInRange(String endpoint, long from, long to);
+
+    //======================= 删除操作 =========================
+    /**
+     * 删除早于 cutoff 的摘要
+     */
+    @Query("DELETE FROM probe_latency_stats WHERE period_start < :cutoff")
+    void deleteStatsBefore(long cutoff);
+}
@@ -0,0 +1,238 @@
+package com.srun.campuslogin.data.history;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 历史日志紧凑二进制编解码器
+ *
+ * <p>
+ * 块格式（所有整数均为无符号 LEB128 变长编码）：
+ * <pre>
+ * version(1 字节)
+ * eventCount
+ * stringCount, { byteLength, UTF-8 字节 } * stringCount   // 参数字符串表（去重）
+ * firstTimestamp
+ * { timestampDelta, code, taskId, argCount, { argToken } * argCount } * eventCount
+ * </pre>
+ * argToken：0 表示 null；奇数为内联整数 (value &lt;&lt; 1 | 1)；非零偶数为字符串表下标 ((index + 1) &lt;&lt; 1)。
+ * </p>
+ *
+ * <p>
+ * 编码要求事件按时间正序，时间差始终非负；因此读取时可以在越过区间上界后立即停止，
+ * 字符串表也只在被引用时才解码。
+ * </p>
+ */
+public final class HistoryCodec {
+    //========================= 常量定义 =========================
+    public static final int VERSION = 1;
+    private static final int MAX_INLINE_DIGITS = 9; // 9 位十进制以内的参数按整数内联
+
+    private HistoryCodec() {}
+
+    //========================= 编码 =========================
+    /**
+     * 将一组日志编码为二进制块
+     * @param events 按 (timestamp, id) 正序排列的日志，不可为空列表
+     * @return 编码后的字节
+     */
+    public static byte[] encode(List<CardLogEntity> events) {
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("不能编码空的日志块");
+        }
+
+        // 1. 收集参数字符串表
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (CardLogEntity event : events) {
+            int argCount = event.getArgCount();
+            for (int i = 0; i < argCount; i++) {
+                String arg = event.getArg(i);
+                if (arg != null && !isInlineInt(arg) && !stringIndex.containsKey(arg)) {
+                    stringIndex.put(arg, strings.size());
+                    strings.add(arg);
+                }
+            }
+        }
+
+        // 2. 写入头部与字符串表
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + events.size() * 4);
+        out.write(VERSION);
+        writeVarLong(out, events.size());
+        writeVarLong(out, strings.size());
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        // 3. 写入事件（时间差编码）
+        long previous = events.get(0).getTimestamp();
+        writeVarLong(out, previous);
+        for (CardLogEntity event : events) {
+            long delta = event.getTimestamp() - previous;
+            if (delta < 0) {
+                throw new IllegalArgumentException("日志必须按时间正序编码");
+            }
+            previous = event.getTimestamp();
+            writeVarLong(out, delta);
+            writeVarLong(out, event.getCode());
+            writeVarLong(out, event.getTaskId());
+            int argCount = event.getArgCount();
+            writeVarLong(out, argCount);
+            for (int i = 0; i < argCount; i++) {
+                String arg = event.getArg(i);
+                if (arg == null) {
+                    writeVarLong(out, 0);
+                } else if (isInlineInt(arg)) {
+                    writeVarLong(out, (Long.parseLong(arg) << 1) | 1);
+                } else {
+                    writeVarLong(out, ((long) stringIndex.get(arg) + 1) << 1);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isInlineInt(String s) {
+        int len = s.length();
+        if (len == 0 || len > MAX_INLINE_DIGITS) return false;
+        if (len > 1 && s.charAt(0) == '0') return false; // 保留前导零的原文
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    //========================= 解码 =========================
+    /**
+     * 打开一个编码块，仅解析头部，事件按需顺序解码
+     * @param cardId 解码出的日志所属卡片
+     * @param data   编码后的字节
+     */
+    public static Reader open(int cardId, byte[] data) {
+        return new Reader(cardId, data);
+    }
+
+    /**
+     * 顺序读取器：每次 {@link #next()} 只解码一条事件，字符串在首次引用时解码并缓存
+     */
+    public static final class Reader {
+        private final int cardId;
+        private final byte[] data;
+        private final int eventCount;
+        private final int[] stringOffsets;
+        private final int[] stringLengths;
+        private final String[] stringCache;
+        private int position;
+        private int decoded;
+        private long timestamp;
+
+        private Reader(int cardId, byte[] data) {
+            this.cardId = cardId;
+            this.data = data;
+            int version = data[0] & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("不支持的历史块版本: " + version);
+            }
+            position = 1;
+            eventCount = (int) readVarLong();
+            int stringCount = (int) readVarLong();
+            stringOffsets = new int[stringCount];
+            stringLengths = new int[stringCount];
+            stringCache = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                stringLengths[i] = (int) readVarLong();
+                stringOffsets[i] = position;
+                position += stringLengths[i]; // 跳过字节，暂不解码
+            }
+            timestamp = readVarLong();
+        }
+
+        public int size() {
+            return eventCount;
+        }
+
+        public boolean hasNext() {
+            return decoded < eventCount;
+        }
+
+        public CardLogEntity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            decoded++;
+            timestamp += readVarLong();
+            CardLogEntity event = new CardLogEntity();
+            event.setCardId(cardId);
+            event.setTimestamp(timestamp);
+            event.setCode((int) readVarLong());
+            event.setTaskId((int) readVarLong());
+            int argCount = (int) readVarLong();
+            if (argCount > 0) {
+                String[] args = new String[argCount];
+                for (int i = 0; i < argCount; i++) {
+                    args[i] = decodeArg(readVarLong());
+                }
+                event.setArgs(CardLogEntity.packArgs(args));
+            }
+            return event;
+        }
+
+        /**
+         * 依次回调 [from, to] 时间区间内的事件；越过 to 后立即停止，不再解码剩余部分
+         */
+        public void forEachInRange(long from, long to, Consumer<CardLogEntity> consumer) {
+            while (hasNext()) {
+                CardLogEntity event = next();
+                if (event.getTimestamp() > to) {
+                    return;
+                }
+                if (event.getTimestamp() >= from) {
+                    consumer.accept(event);
+                }
+            }
+        }
+
+        private String decodeArg(long token) {
+            if (token == 0) return null;
+            if ((token & 1) == 1) return Long.toString(token >>> 1);
+            int index = (int) (token >>> 1) - 1;
+            String cached = stringCache[index];
+            if (cached == null) {
+                cached = new String(data, stringOffsets[index], stringLengths[index], StandardCharsets.UTF_8);
+                stringCache[index] = cached;
+            }
+            return cached;
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.srun.campuslogin.data.history;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.HourlyStatsEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 历史日志降采样
+ *
+ * <p>
+ * 功能说明：
+ * 1. 例行心跳日志（任务号大于 0 的开始检测、检测计数、网络正常）只汇总为小时计数，不再逐条保留。
+ * 2. 其余日志（失败、重连、开关心跳、登录等）视为异常或操作记录，原样保留并计入对应小时。
+ * 3. 纯计算，不访问数据库，便于单元测试。
+ * </p>
+ */
+public final class HistoryDownsampler {
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /** 例行心跳事件编码，供全文索引按编码清理 */
+    public static final List<Integer> ROUTINE_CODES = Collections.unmodifiableList(Arrays.asList(
+            LogEventType.CHECK_STARTED.getCode(),
+            LogEventType.CHECK_COUNT.getCode(),
+            LogEventType.NETWORK_OK.getCode()));
+
+    private HistoryDownsampler() {}
+
+    /**
+     * 降采样一段按时间正序排列的日志
+     * @param cardId 卡片主键
+     * @param logs   待处理日志
+     * @return 需要保留的日志与按小时汇总的计数
+     */
+    public static Result downsample(int cardId, List<CardLogEntity> logs) {
+        List<CardLogEntity> kept = new ArrayList<>();
+        Map<Long, HourlyStatsEntity> hours = new TreeMap<>();
+        for (CardLogEntity log : logs) {
+            long hourStart = hourStart(log.getTimestamp());
+            HourlyStatsEntity stats = hours.get(hourStart);
+            if (stats == null) {
+                stats = new HourlyStatsEntity(cardId, hourStart);
+                hours.put(hourStart, stats);
+            }
+            count(stats, log);
+            if (!isRoutine(log)) {
+                kept.add(log);
+            }
+        }
+        return new Result(kept, new ArrayList<>(hours.values()));
+    }
+
+    /**
+     * 是否为可汇总丢弃的例行心跳日志
+     */
+    public static boolean isRoutine(CardLogEntity log) {
+        return log.getTaskId() > 0 && ROUTINE_CODES.contains(log.getCode());
+    }
+
+    static long hourStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, HOUR_MILLIS);
+    }
+
+    private static void count(HourlyStatsEntity stats, CardLogEntity log) {
+        switch (LogEventType.fromCode(log.getCode())) {
+            case CHECK_COUNT:
+                stats.setCheckCount(stats.getCheckCount() + 1);
+                break;
+            case NETWORK_OK:
+                stats.setOkCount(stats.getOkCount() + 1);
+                break;
+            case REAUTH_REQUIRED:
+            case LOGIN_FAILED:
+            case IP_FAILED:
+            case AUTO_LOGIN_FAILED:
+                stats.setFailureCount(stats.getFailureCount() + 1);
+                break;
+            case AUTO_LOGIN_SUCCESS:
+                stats.setReloginCount(stats.getReloginCount() + 1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    //========================= 结果 =========================
+    public static final class Result {
+        public final List<CardLogEntity> kept;        // 需保留的日志（按时间正序）
+        public final List<HourlyStatsEntity> hourly;  // 每小时计数（按时间正序）
+
+        Result(List<CardLogEntity> kept, List<HourlyStatsEntity> hourly) {
+            this.kept = kept;
+            this.hourly = hourly;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.srun.campuslogin.data.history;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import com.srun.campuslogin.data.model.StringListCodec;
+import com.srun.campuslogin.utils.DateUtils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 日志导出写入器：逐条把日志编码为 NDJSON 或 CSV 行并写入字节通道
+ *
+ * <p>
+ * 功能说明：
+ * 1. 每行先拼接到复用的 StringBuilder，再经 UTF-8 编码器写入固定大小的直接缓冲区，写满即刷到通道。
+ * 2. 内存占用只与单行长度和缓冲区大小有关，与导出总量无关。
+ * 3. 字段：card_id, student_id, timestamp(epoch 毫秒), time, event, code, task_id, args, message。
+ * </p>
+ */
+public final class HistoryExportWriter implements Closeable {
+    //========================= 导出格式 =========================
+    public enum Format {
+        NDJSON("ndjson", "application/x-ndjson"),
+        CSV("csv", "text/csv");
+
+        public final String extension;
+        public final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+    }
+
+    //========================= 常量定义 =========================
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "card_id,student_id,timestamp,time,event,code,task_id,args,message\n";
+    private static final char CSV_ARG_SEPARATOR = '|';
+
+    //========================= 成员变量 =========================
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder scratch = new StringBuilder(128);
+    private final StringBuilder csvArgs = new StringBuilder(64);
+    private long bytesWritten;
+
+    public HistoryExportWriter(WritableByteChannel channel, Format format) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        if (format == Format.CSV) {
+            line.setLength(0);
+            line.append('\uFEFF').append(CSV_HEADER); // BOM 便于表格软件识别 UTF-8
+            encodeLine();
+        }
+    }
+
+    //========================= 写入 =========================
+    /**
+     * 写入一条日志
+     * @param log       日志
+     * @param studentId 所属卡片的学号（可为 null）
+     */
+    public void write(CardLogEntity log, String studentId) throws IOException {
+        line.setLength(0);
+        scratch.setLength(0);
+        LogEventType.appendMessage(scratch, log);
+        String time = DateUtils.format(log.getTimestamp());
+        String event = LogEventType.fromCode(log.getCode()).name();
+        int argCount = log.getArgCount();
+
+        if (format == Format.NDJSON) {
+            line.append("{\"card_id\":").append(log.getCardId())
+                    .append(",\"student_id\":");
+            appendJsonOrNull(studentId);
+            line.append(",\"timestamp\":").append(log.getTimestamp())
+                    .append(",\"time\":\"").append(time)
+                    .append("\",\"event\":\"").append(event)
+                    .append("\",\"code\":").append(log.getCode())
+                    .append(",\"task_id\":").append(log.getTaskId())
+                    .append(",\"args\":[");
+            for (int i = 0; i < argCount; i++) {
+                if (i > 0) line.append(',');
+                appendJsonOrNull(log.getArg(i));
+            }
+            line.append("],\"message\":");
+            StringListCodec.appendQuoted(line, scratch);
+            line.append("}\n");
+        } else {
+            line.append(log.getCardId()).append(',');
+            appendCsv(studentId);
+            line.append(',').append(log.getTimestamp())
+                    .append(',').append(time)
+                    .append(',').append(event)
+                    .append(',').append(log.getCode())
+                    .append(',').append(log.getTaskId())
+                    .append(',');
+            if (argCount > 0) {
+                csvArgs.setLength(0);
+                for (int i = 0; i < argCount; i++) {
+                    if (i > 0) csvArgs.append(CSV_ARG_SEPARATOR);
+                    String arg = log.getArg(i);
+                    if (arg != null) csvArgs.append(arg);
+                }
+                appendCsv(csvArgs);
+            }
+            line.append(',');
+            appendCsv(scratch);
+            line.append('\n');
+        }
+        encodeLine();
+    }
+
+    private void appendJsonOrNull(String value) {
+        if (value == null) {
+            line.append("null");
+        } else {
+            StringListCodec.appendQuoted(line, value);
+        }
+    }
+
+    /**
+     * 按 RFC 4180 追加 CSV 字段：包含逗号、引号或换行时加引号并双写引号
+     */
+    private void appendCsv(CharSequence value) {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    //========================= 编码与刷新 =========================
+    private void encodeLine() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        encoder.reset();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * @return 已写入通道的字节数（不含缓冲区中尚未刷新的部分）
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
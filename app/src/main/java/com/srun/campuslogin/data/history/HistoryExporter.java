@@ -0,0 +1,207 @@
+package com.srun.campuslogin.data.history;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import com.srun.campuslogin.data.AppDatabase;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+//=========================== 日志导出 =============================
+/**
+ * 功能：把全部卡片的日志（历史块 + 明细行）按卡片、按时间顺序流式导出
+ * 核心职责：
+ * 1. 按页读取（历史块按主键、明细行按 (timestamp, id) 键集翻页），历史块逐条解码，任何时刻只持有一页数据
+ * 2. 不持有读事务，写入输出通道期间不阻塞封存与降采样；导出期间被封存的明细从新块中补出，不漏行也不重复
+ * 3. 通过 CancellationSignal 取消（抛出 OperationCanceledException），按固定步长回调进度
+ */
+public class HistoryExporter {
+    //=========================== 进度回调 =============================
+    public interface ProgressListener {
+        /**
+         * 在导出线程回调
+         * @param exported 已导出条数
+         * @param total    导出开始时统计的总条数
+         */
+        void onProgress(long exported, long total);
+    }
+
+    //=========================== 常量定义 =============================
+    private static final int PROGRESS_STEP = 500;  // 每导出多少条回调一次进度
+    private static final int BLOCKS_PER_PAGE = 4;  // 每页最多读取的历史块数（每块 BLOCK_SIZE 条）
+    private static final int ROWS_PER_PAGE = 500;  // 每页最多读取的明细行数
+    private static final int KIND_BLOCK = 0;
+    private static final int KIND_ROW = 1;
+
+    /**
+     * 一页：主键大于游标的历史块 + 键集游标之后的明细行，列为 (kind, timestamp, id, code, task_id, data|args)
+     * 单条语句读取的是同一时刻的数据，封存（插入块并删除明细）不会在两部分之间交错
+     */
+    private static final String PAGE_SQL =
+            "SELECT " + KIND_BLOCK + ", 0, `id`, 0, 0, `data` FROM (" +
+            "SELECT `id`, `data` FROM `card_history_blocks` WHERE `card_id` = ? AND `id` > ? " +
+            "ORDER BY `id` LIMIT ?) " +
+            "UNION ALL " +
+            "SELECT " + KIND_ROW + ", `timestamp`, `id`, `code`, `task_id`, `args` FROM (" +
+            "SELECT `id`, `timestamp`, `code`, `task_id`, `args` FROM `card_logs` WHERE `card_id` = ? " +
+            "AND (`timestamp` > ? OR (`timestamp` = ? AND `id` > ?)) ORDER BY `timestamp`, `id` LIMIT ?) " +
+            "ORDER BY 1, 2, 3";
+
+    //=========================== 成员变量 =============================
+    private final AppDatabase database;
+
+    public HistoryExporter(AppDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * 导出全部日志
+     * @param channel  输出通道，导出结束后关闭
+     * @param format   导出格式
+     * @param signal   取消信号
+     * @param listener 进度回调（可为 null）
+     * @return 导出的日志条数
+     */
+    @WorkerThread
+    public long export(WritableByteChannel channel, HistoryExportWriter.Format format,
+                       CancellationSignal signal, @Nullable ProgressListener listener) throws IOException {
+        long total = countAll(signal);
+        long[] exported = {0};
+        try (HistoryExportWriter writer = new HistoryExportWriter(channel, format);
+             Cursor cards = query("SELECT `id`, `student_id` FROM `cards` ORDER BY `id`", signal)) {
+            if (listener != null) listener.onProgress(0, total);
+            while (cards.moveToNext()) {
+                int cardId = cards.getInt(0);
+                String studentId = cards.isNull(1) ? null : cards.getString(1);
+                exportCard(writer, cardId, studentId, signal, listener, exported, total);
+            }
+            if (listener != null) listener.onProgress(exported[0], total);
+        }
+        return exported[0];
+    }
+
+    /**
+     * 按页导出一张卡片：先是历史块（按主键即封存顺序），再是明细行（按 (timestamp, id) 键集翻页）
+     * 每页一条查询，同时读取上次之后新出现的块与下一页明细；导出明细期间被封存的行从新块中补出
+     */
+    private void exportCard(HistoryExportWriter writer, int cardId, String studentId,
+                            CancellationSignal signal, @Nullable ProgressListener listener,
+                            long[] exported, long total) throws IOException {
+        RowCursor rows = new RowCursor();
+        CardLogEntity row = new CardLogEntity(); // 明细行复用同一个实体对象
+        row.setCardId(cardId);
+        long lastBlockId = 0;
+        boolean blockPhase = true; // 块未读完时不读取明细
+        boolean more = true;
+        while (more) {
+            int rowLimit = blockPhase ? 0 : ROWS_PER_PAGE;
+            int blockCount = 0;
+            int rowCount = 0;
+            try (Cursor page = query(PAGE_SQL, new Object[]{cardId, lastBlockId, BLOCKS_PER_PAGE,
+                    cardId, rows.time, rows.time, rows.id, rowLimit}, signal)) {
+                while (page.moveToNext()) {
+                    if (page.getInt(0) == KIND_BLOCK) {
+                        lastBlockId = page.getLong(2);
+                        exportBlock(writer, cardId, page.getBlob(5), studentId, rows,
+                                signal, listener, exported, total);
+                        blockCount++;
+                    } else {
+                        if (blockCount == BLOCKS_PER_PAGE) break; // 可能还有更早的新块，下一页再读明细
+                        row.setTimestamp(page.getLong(1));
+                        row.setCode(page.getInt(3));
+                        row.setTaskId(page.getInt(4));
+                        row.setArgs(page.isNull(5) ? null : page.getString(5));
+                        writer.write(row, studentId);
+                        rows.advance(row.getTimestamp(), page.getLong(2));
+                        onRecord(signal, listener, exported, total);
+                        rowCount++;
+                    }
+                }
+            }
+            blockPhase = blockCount == BLOCKS_PER_PAGE;
+            more = blockPhase || rowLimit == 0 || rowCount == rowLimit;
+        }
+    }
+
+    /**
+     * 导出一个历史块，跳过其中已作为明细行导出的日志
+     * 封存总是取最旧的明细行，因此块内已导出的日志在前；一旦越过明细游标，剩余明细都尚未导出，游标归零
+     */
+    private void exportBlock(HistoryExportWriter writer, int cardId, byte[] data, String studentId,
+                             RowCursor rows, CancellationSignal signal, @Nullable ProgressListener listener,
+                             long[] exported, long total) throws IOException {
+        HistoryCodec.Reader reader = HistoryCodec.open(cardId, data);
+        boolean passed = false;
+        while (reader.hasNext()) {
+            CardLogEntity log = reader.next();
+            if (!passed) {
+                if (rows.isExported(log.getTimestamp())) continue;
+                passed = true;
+            }
+            writer.write(log, studentId);
+            onRecord(signal, listener, exported, total);
+        }
+        if (passed) rows.reset();
+    }
+
+    /**
+     * 明细行键集游标：最后导出的 (timestamp, id)，以及同一时间戳已导出、尚未在新块中遇到的条数
+     * 块内日志没有行主键，同一时间戳的日志按条数区分
+     */
+    private static final class RowCursor {
+        long time = Long.MIN_VALUE;
+        long id = Long.MIN_VALUE;
+        int exportedAtTime;
+
+        void advance(long timestamp, long rowId) {
+            exportedAtTime = timestamp == time ? exportedAtTime + 1 : 1;
+            time = timestamp;
+            id = rowId;
+        }
+
+        /**
+         * 按时间顺序判断新块中的一条日志是否已作为明细行导出（同一时间戳的条数随之减少）
+         */
+        boolean isExported(long timestamp) {
+            if (timestamp < time) return true;
+            if (timestamp == time && exportedAtTime > 0) {
+                exportedAtTime--;
+                return true;
+            }
+            return false;
+        }
+
+        void reset() {
+            time = Long.MIN_VALUE;
+            id = Long.MIN_VALUE;
+            exportedAtTime = 0;
+        }
+    }
+
+    private static void onRecord(CancellationSignal signal, @Nullable ProgressListener listener,
+                                 long[] exported, long total) {
+        if (++exported[0] % PROGRESS_STEP == 0) {
+            signal.throwIfCanceled();
+            if (listener != null) listener.onProgress(exported[0], total);
+        }
+    }
+
+    //=========================== 查询辅助 =============================
+    private long countAll(CancellationSignal signal) {
+        try (Cursor cursor = query("SELECT (SELECT COUNT(*) FROM `card_logs`) + " +
+                "(SELECT IFNULL(SUM(`event_count`), 0) FROM `card_history_blocks`)", signal)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private Cursor query(String sql, CancellationSignal signal) {
+        return query(sql, null, signal);
+    }
+
+    private Cursor query(String sql, @Nullable Object[] args, CancellationSignal signal) {
+        return database.query(new SimpleSQLiteQuery(sql, args), signal);
+    }
+}
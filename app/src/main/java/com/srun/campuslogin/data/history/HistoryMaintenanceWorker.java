@@ -0,0 +1,76 @@
+package com.srun.campuslogin.data.history;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.srun.campuslogin.core.App;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//=========================== 历史日志后台维护 =============================
+/**
+ * 功能：由 WorkManager 每天执行一次的历史日志维护任务
+ * 核心职责：
+ * 1. 逐卡片封存明细、清理过期块，并将超过降采样期限的块汇总为小时计数
+ * 2. 清理过期的小时聚合行
+ * 3. 合并全文索引段（空闲页由 SQLite 默认的 FULL auto_vacuum 在提交时回收）
+ * 任务被系统停止时在卡片之间退出，下个周期继续处理剩余的块
+ */
+public class HistoryMaintenanceWorker extends Worker {
+    //=========================== 常量定义 =============================
+    private static final String TAG = "HistoryMaintenance";
+    private static final String WORK_NAME = "history_maintenance";
+    private static final long INTERVAL_HOURS = 24;
+
+    public HistoryMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * 注册周期任务（已注册时保留原有计划）
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresBatteryNotLow(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                HistoryMaintenanceWorker.class, INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    //=========================== 任务执行 =============================
+    @NonNull
+    @Override
+    public Result doWork() {
+        App app = App.getInstance();
+        HistoryStore historyStore = app.getHistoryStore();
+        long now = System.currentTimeMillis();
+        try {
+            List<Integer> cardIds = app.getDatabase().cardDao().getAllIds();
+            int downsampled = 0;
+            for (int cardId : cardIds) {
+                if (isStopped()) return Result.success();
+                historyStore.compact(cardId);
+                downsampled += historyStore.downsample(cardId, now);
+            }
+            historyStore.pruneStats(now);
+            if (!isStopped()) {
+                historyStore.optimizeIndex();
+            }
+            Log.i(TAG, "维护完成，降采样 " + downsampled + " 个块");
+            return Result.success();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "维护失败: " + e.getMessage());
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.srun.campuslogin.data.history;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 历史日志保留策略
+ *
+ * <p>
+ * 封存后的历史块同时受两个上限约束，任一超出即删除最旧的块：
+ * - maxAgeMillis     : 最晚日志早于当前时间该时长的块被删除
+ * - maxBlocksPerCard : 每张卡片最多保留的块数（每块 {@link HistoryStore#BLOCK_SIZE} 条）
+ * 后台维护任务另按以下时长处理：
+ * - downsampleAfterMillis : 早于该时长的块降采样，例行心跳只保留小时计数
+ * - statsMaxAgeMillis     : 小时聚合行的保留时长
+ * </p>
+ */
+public final class HistoryRetention {
+    /**
+     * 默认：7 天后降采样，异常日志保留 180 天，小时聚合保留 1 年
+     * 降采样后的块只剩少量异常日志，1024 个块的上限在保留期内不会先于时长触发
+     */
+    public static final HistoryRetention DEFAULT = new HistoryRetention(
+            TimeUnit.DAYS.toMillis(180), 1024, TimeUnit.DAYS.toMillis(7), TimeUnit.DAYS.toMillis(365));
+
+    private final long maxAgeMillis;
+    private final int maxBlocksPerCard;
+    private final long downsampleAfterMillis;
+    private final long statsMaxAgeMillis;
+
+    public HistoryRetention(long maxAgeMillis, int maxBlocksPerCard,
+                            long downsampleAfterMillis, long statsMaxAgeMillis) {
+        if (maxAgeMillis <= 0 || maxBlocksPerCard <= 0 || downsampleAfterMillis <= 0 || statsMaxAgeMillis <= 0) {
+            throw new IllegalArgumentException("保留时长与块数必须为正数");
+        }
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxBlocksPerCard = maxBlocksPerCard;
+        this.downsampleAfterMillis = downsampleAfterMillis;
+        this.statsMaxAgeMillis = statsMaxAgeMillis;
+    }
+
+    public long getMaxAgeMillis() { return maxAgeMillis; }
+
+    public int getMaxBlocksPerCard() { return maxBlocksPerCard; }
+
+    public long getDownsampleAfterMillis() { return downsampleAfterMillis; }
+
+    public long getStatsMaxAgeMillis() { return statsMaxAgeMillis; }
+}
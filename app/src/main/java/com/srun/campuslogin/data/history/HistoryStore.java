@@ -0,0 +1,231 @@
+package com.srun.campuslogin.data.history;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.srun.campuslogin.data.AppDatabase;
+import com.srun.campuslogin.data.dao.CardLogDao;
+import com.srun.campuslogin.data.dao.HistoryBlockDao;
+import com.srun.campuslogin.data.dao.HourlyStatsDao;
+import com.srun.campuslogin.data.dao.LogSearchDao;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.HistoryBlockEntity;
+import com.srun.campuslogin.data.model.HourlyStatsEntity;
+import java.util.ArrayList;
+import java.util.List;
+
+//=========================== 历史日志存储 =============================
+/**
+ * 功能：管理单张卡片日志的两级存储
+ * 1. card_logs 保留最近的明细行，便于追加与增量展示
+ * 2. 超出明细窗口的旧日志按 BLOCK_SIZE 条封存为二进制块（card_history_blocks）
+ * 3. 按 {@link HistoryRetention} 清理过期块，并清理对应的全文索引行
+ * 4. 后台维护时将超过降采样期限的块汇总为小时计数（见 {@link HistoryDownsampler}），并合并全文索引
+ * 所有方法都会访问数据库，须在数据库线程调用
+ */
+public class HistoryStore {
+    //=========================== 常量定义 =============================
+    public static final int RAW_WINDOW = 500;   // card_logs 中至少保留的明细条数
+    public static final int BLOCK_SIZE = 256;   // 每个历史块封存的日志条数
+
+    //=========================== 成员变量 =============================
+    private final AppDatabase database;
+    private final CardLogDao logDao;
+    private final HistoryBlockDao blockDao;
+    private final LogSearchDao searchDao;
+    private final HourlyStatsDao statsDao;
+    private volatile HistoryRetention retention;
+
+    public HistoryStore(AppDatabase database, HistoryRetention retention) {
+        this.database = database;
+        this.logDao = database.cardLogDao();
+        this.blockDao = database.historyBlockDao();
+        this.searchDao = database.logSearchDao();
+        this.statsDao = database.hourlyStatsDao();
+        this.retention = retention;
+    }
+
+    public HistoryRetention getRetention() {
+        return retention;
+    }
+
+    /**
+     * 修改保留策略，下次压缩时生效
+     */
+    public void setRetention(HistoryRetention retention) {
+        this.retention = retention;
+    }
+
+    //=========================== 封存与清理 =============================
+    /**
+     * 将超出明细窗口的旧日志封存为历史块，并按保留策略清理旧块
+     * 封存与删除明细在同一事务中完成，中途失败不会丢失或重复日志
+     * @param cardId 卡片主键
+     */
+    @WorkerThread
+    public void compact(int cardId) {
+        HistoryRetention policy = retention;
+        database.runInTransaction(() -> {
+            while (logDao.countLogs(cardId) >= RAW_WINDOW + BLOCK_SIZE) {
+                sealOldest(cardId);
+            }
+            blockDao.deleteBlocksEndingBefore(cardId, System.currentTimeMillis() - policy.getMaxAgeMillis());
+            blockDao.trimBlocks(cardId, policy.getMaxBlocksPerCard());
+            searchDao.deleteBeyondRetention(cardId);
+        });
+    }
+
+    private void sealOldest(int cardId) {
+        List<CardLogEntity> oldest = logDao.getOldestLogs(cardId, BLOCK_SIZE);
+        List<Long> ids = new ArrayList<>(oldest.size());
+        for (CardLogEntity log : oldest) {
+            ids.add(log.getId());
+        }
+        blockDao.insert(new HistoryBlockEntity(
+                cardId,
+                oldest.get(0).getTimestamp(),
+                oldest.get(oldest.size() - 1).getTimestamp(),
+                oldest.size(),
+                HistoryCodec.encode(oldest)));
+        logDao.deleteLogs(ids);
+    }
+
+    /**
+     * 清空指定卡片的明细日志、历史块与全文索引
+     */
+    @WorkerThread
+    public void clear(int cardId) {
+        database.runInTransaction(() -> {
+            logDao.deleteLogsForCard(cardId);
+            blockDao.deleteBlocksForCard(cardId);
+            searchDao.deleteForCard(cardId);
+            statsDao.deleteStatsForCard(cardId);
+        });
+    }
+
+    //=========================== 降采样与空间回收 =============================
+    /**
+     * 将该卡片超过降采样期限的块逐个降采样：例行心跳汇总到小时计数，块内只保留其余日志
+     * 每个块在独立事务中处理，避免长时间占用写锁
+     * @param cardId 卡片主键
+     * @param now    当前时间
+     * @return 处理的块数
+     */
+    @WorkerThread
+    public int downsample(int cardId, long now) {
+        long cutoff = now - retention.getDownsampleAfterMillis();
+        int processed = 0;
+        boolean[] more = {true};
+        while (more[0]) {
+            database.runInTransaction(() -> {
+                HistoryBlockEntity block = blockDao.getNextBlockToDownsample(cardId, cutoff);
+                more[0] = block != null;
+                if (block != null) downsampleBlock(block);
+            });
+            if (more[0]) processed++;
+        }
+        return processed;
+    }
+
+    private void downsampleBlock(HistoryBlockEntity block) {
+        int cardId = block.getCardId();
+        HistoryCodec.Reader reader = HistoryCodec.open(cardId, block.getData());
+        List<CardLogEntity> logs = new ArrayList<>(reader.size());
+        while (reader.hasNext()) {
+            logs.add(reader.next());
+        }
+        HistoryDownsampler.Result result = HistoryDownsampler.downsample(cardId, logs);
+
+        // 1. 合并小时计数（同一小时可能跨越相邻的两个块）
+        for (HourlyStatsEntity hour : result.hourly) {
+            HourlyStatsEntity existing = statsDao.get(cardId, hour.getHourStart());
+            if (existing != null) hour.add(existing);
+            statsDao.upsert(hour);
+        }
+
+        // 2. 重写或删除块
+        if (result.kept.isEmpty()) {
+            blockDao.delete(block.getId());
+        } else {
+            block.setStartTime(result.kept.get(0).getTimestamp());
+            block.setEndTime(result.kept.get(result.kept.size() - 1).getTimestamp());
+            block.setEventCount(result.kept.size());
+            block.setData(HistoryCodec.encode(result.kept));
+            block.setDownsampled(true);
+            blockDao.update(block);
+        }
+
+        // 3. 被汇总的日志不再可检索
+        searchDao.deleteRoutine(cardId, logs.get(0).getTimestamp(),
+                logs.get(logs.size() - 1).getTimestamp(), HistoryDownsampler.ROUTINE_CODES);
+    }
+
+    /**
+     * 删除超过保留时长的小时聚合行（全部卡片）与网络调用耗时摘要
+     */
+    @WorkerThread
+    public void pruneStats(long now) {
+        long cutoff = now - retention.getStatsMaxAgeMillis();
+        statsDao.deleteStatsBefore(cutoff);
+        database.probeLatencyDao().deleteStatsBefore(cutoff); // 调用耗时摘要与小时聚合同一保留期
+    }
+
+    /**
+     * 合并全文索引段，减少检索时需要遍历的段数
+     * 不处理数据库空闲页：Android 自带的 SQLite 默认 auto_vacuum=FULL，删除行后空闲页在提交时即归还系统
+     */
+    @WorkerThread
+    public void optimizeIndex() {
+        database.getOpenHelper().getWritableDatabase()
+                .execSQL("INSERT INTO `card_logs_fts`(`card_logs_fts`) VALUES('optimize')");
+    }
+
+    //=========================== 读取 =============================
+    /**
+     * 读取 [from, to] 时间区间内的全部日志（按时间正序）
+     * 只解码与区间相交的块，且在越过区间终点后停止解码
+     * @param cardId 卡片主键
+     * @param from   区间起点（含）
+     * @param to     区间终点（含）
+     */
+    @WorkerThread
+    public List<CardLogEntity> readRange(int cardId, long from, long to) {
+        List<CardLogEntity> result = new ArrayList<>();
+        for (HistoryBlockEntity block : blockDao.getBlocksInRange(cardId, from, to)) {
+            HistoryCodec.open(cardId, block.getData()).forEachInRange(from, to, result::add);
+        }
+        result.addAll(logDao.getLogsInRange(cardId, from, to));
+        return result;
+    }
+
+    /**
+     * 读取主键小于 beforeBlockId 的最新一个历史块，用于日志列表向前翻页
+     * @param cardId        卡片主键
+     * @param beforeBlockId 已加载最旧块的主键，首次传 Long.MAX_VALUE
+     * @return 解码后的块，没有更早的块时返回 null
+     */
+    @WorkerThread
+    @Nullable
+    public DecodedBlock readBlockBefore(int cardId, long beforeBlockId) {
+        HistoryBlockEntity block = blockDao.getBlockBefore(cardId, beforeBlockId);
+        if (block == null) return null;
+        HistoryCodec.Reader reader = HistoryCodec.open(cardId, block.getData());
+        List<CardLogEntity> logs = new ArrayList<>(reader.size());
+        while (reader.hasNext()) {
+            logs.add(reader.next());
+        }
+        return new DecodedBlock(block.getId(), logs);
+    }
+
+    /**
+     * 一个已解码的历史块
+     */
+    public static final class DecodedBlock {
+        public final long blockId;
+        public final List<CardLogEntity> logs; // 按时间正序
+
+        DecodedBlock(long blockId, List<CardLogEntity> logs) {
+            this.blockId = blockId;
+            this.logs = logs;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.srun.campuslogin.data.history;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.CardLogFtsEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全文检索分词辅助
+ *
+ * <p>
+ * FTS4 自带的 simple / unicode61 分词器不会切分连续的中文，"需要重新认证" 会被视为一个词，
+ * 无法按其中的片段检索。入库前把每个 CJK 字符拆成独立的词，查询时再把输入按同样规则拆开并组成短语查询，
+ * 即可用 "重新认证" 命中 "需要重新认证"。拉丁字母与数字仍按 unicode61 的规则成词（不区分大小写）。
+ * </p>
+ */
+public final class LogTokenizer {
+    private LogTokenizer() {}
+
+    //========================= 入库 =========================
+    /**
+     * 将文本转换为入库用的分词文本：CJK 字符两侧插入空格，其余字符原样保留
+     */
+    public static String tokenize(CharSequence text) {
+        StringBuilder out = new StringBuilder(text.length() * 2);
+        appendTokens(out, text);
+        return out.toString();
+    }
+
+    /**
+     * 为一条日志生成全文索引行（索引内容为渲染后的正文，不含任务号与时间）
+     */
+    public static CardLogFtsEntity indexEntry(CardLogEntity log) {
+        StringBuilder message = new StringBuilder(48);
+        LogEventType.appendMessage(message, log);
+        return new CardLogFtsEntity(log, tokenize(message));
+    }
+
+    private static void appendTokens(StringBuilder out, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                out.append(' ').append(c).append(' ');
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    //========================= 查询 =========================
+    /**
+     * 将用户输入转换为 FTS MATCH 表达式：以空白分隔的每个关键词为一个短语，多个短语之间为 AND
+     * @param input 用户输入
+     * @return MATCH 表达式，输入为空时返回 null
+     */
+    public static String toMatchQuery(String input) {
+        List<String> terms = splitTerms(input);
+        if (terms.isEmpty()) return null;
+        StringBuilder query = new StringBuilder();
+        for (String term : terms) {
+            StringBuilder tokens = new StringBuilder();
+            appendTokens(tokens, term);
+            // 去掉 FTS 语法字符，剩余部分作为短语
+            String phrase = tokens.toString().replaceAll("[\"*^():-]", " ").trim().replaceAll("\\s+", " ");
+            if (phrase.isEmpty()) continue;
+            if (query.length() > 0) query.append(' ');
+            query.append('"').append(phrase).append('"');
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    /**
+     * 按空白拆分用户输入，供结果高亮使用
+     */
+    public static List<String> splitTerms(String input) {
+        List<String> terms = new ArrayList<>();
+        if (input == null) return terms;
+        for (String term : input.trim().split("\\s+")) {
+            if (!term.isEmpty()) terms.add(term);
+        }
+        return terms;
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+                || block == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
+                || block == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
+                || block == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS
+                || block == Character.UnicodeBlock.HIRAGANA
+                || block == Character.UnicodeBlock.KATAKANA
+                || block == Character.UnicodeBlock.HANGUL_SYLLABLES;
+    }
+}
@@ -1,18 +1,13 @@
 package com.srun.campuslogin.data.model;
 
-import android.os.Build;
 import android.os.Parcel;
 import android.os.Parcelable;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
-import androidx.room.Ignore;
 import androidx.room.PrimaryKey;
-import androidx.room.TypeConverters;
 import com.srun.campuslogin.core.App;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 校园网登录卡片数据实体类
@@ -21,7 +16,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 功能说明：
  * 1. 存储用户账号信息及网络状态数据，支持通过 Room 数据库持久化。
  * 2. 实现 Parcelable 接口以支持跨组件（如 Activity/Fragment）传递。
- * 3. 内置操作日志记录功能，自动清理旧日志避免内存溢出。
+ * 3. 内置操作日志记录功能，日志逐条追加到 card_logs 表（日志列表直接从该表分页读取）。
  * </p>
  *
  * <p>
@@ -33,8 +28,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * - password    : 加密存储的登录密码
  * - lastIp      : 最近一次成功登录的 IP 地址
  * - isHeartbeatActive : 心跳检测是否激活
- * - logs        : 操作日志列表（最多保留 100 条）
- * - heartbeatCounter : 心跳检测计数器（原子操作）
+ * - heartbeatCounter : 心跳检测计数器（普通 int 列，通过字段更新器原子自增）
  * </p>
  */
 @Entity(tableName = "cards")
@@ -62,13 +56,10 @@ public class CardEntity implements Parcelable {
     @ColumnInfo(name = "is_heartbeat_active")
     private boolean isHeartbeatActive;
 
-    @ColumnInfo(name = "logs")
-    @TypeConverters(DatabaseConverters.class) // 使用 DatabaseConverters 处理 List<String>
-    private List<String> logs = new ArrayList<>();
-
     @ColumnInfo(name = "heartbeat_counter")
-    @TypeConverters(AtomicIntegerConverter.class) // 使用 AtomicIntegerConverter
-    private AtomicInteger heartbeatCounter = new AtomicInteger(0);
+    private volatile int heartbeatCounter; // 直接映射 INTEGER 列，读取每行不再额外分配 AtomicInteger
+    private static final AtomicIntegerFieldUpdater<CardEntity> COUNTER_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(CardEntity.class, "heartbeatCounter");
 
     //========================= 构造方法 =========================
     /**
@@ -85,13 +76,7 @@ public class CardEntity implements Parcelable {
         password = in.readString();
         lastIp = in.readString();
         isHeartbeatActive = in.readByte() != 0;
-        heartbeatCounter.set(in.readInt());
-
-        List<String> tempLogs = new ArrayList<>();
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-            in.readList(tempLogs, String.class.getClassLoader(), String.class);
-        }
-        logs.addAll(tempLogs);
+        heartbeatCounter = in.readInt();
     }
 
     public static final Creator<CardEntity> CREATOR = new Creator<>() {
@@ -120,8 +105,7 @@ public class CardEntity implements Parcelable {
         dest.writeString(password);
         dest.writeString(lastIp);
         dest.writeByte((byte) (isHeartbeatActive ? 1 : 0));
-        dest.writeInt(heartbeatCounter.get());
-        dest.writeList(logs);
+        dest.writeInt(heartbeatCounter);
     }
 
     //========================= Getter/Setter 方法 ==================
@@ -146,45 +130,39 @@ public class CardEntity implements Parcelable {
     public boolean isHeartbeatActive() { return isHeartbeatActive; }
     public void setHeartbeatActive(boolean heartbeatActive) { isHeartbeatActive = heartbeatActive; }
 
-    public List<String> getLogs() { return new ArrayList<>(logs); }
-    public void setLogs(List<String> logs) { this.logs = new ArrayList<>(logs); }
+    public int getHeartbeatCounter() { return heartbeatCounter; }
+    public void setHeartbeatCounter(int value) { this.heartbeatCounter = value; }
 
-    public AtomicInteger getHeartbeatCounter() { return heartbeatCounter; }
-    @SuppressWarnings("unused")
-    public void setHeartbeatCounter(AtomicInteger value) { this.heartbeatCounter = value; }
-
-    //========================= 日志管理方法 ==================
-    public interface OnLogsUpdatedListener {
-        void onLogsUpdated(List<String> logs);
-    }
-
-    @Ignore
-    private OnLogsUpdatedListener logsUpdatedListener;
-
-    public void setOnLogsUpdatedListener(OnLogsUpdatedListener listener) {
-        this.logsUpdatedListener = listener;
+    /**
+     * 原子地将心跳计数加一
+     * @return 自增后的值
+     */
+    public int incrementHeartbeatCounter() {
+        return COUNTER_UPDATER.incrementAndGet(this);
     }
 
-    public void addLog(String log) {
-        if (logs.size() >= 100) {
-            logs.remove(0); // 移除最旧的日志
-        }
-        logs.add(log);
-        if (logsUpdatedListener != null) {
-            logsUpdatedListener.onLogsUpdated(new ArrayList<>(logs));
-        }
+    //========================= 日志管理方法 ==================
+    /**
+     * 记录一条结构化日志（不在此处渲染文本）
+     * @param type   事件类型
+     * @param taskId 心跳任务号，非心跳任务传 0
+     * @param args   事件参数
+     */
+    public void addLog(LogEventType type, int taskId, String... args) {
+        appendLogToDatabase(new CardLogEntity(id, System.currentTimeMillis(), type, taskId, args));
     }
 
-    public void clearLogs() {
-        logs.clear();
+    /**
+     * 交给写入缓冲区，与同一卡片的其他写入合并后批量追加到 card_logs 表
+     */
+    private void appendLogToDatabase(CardLogEntity log) {
+        if (id <= 0) return; // 尚未入库的卡片没有可关联的主键
+        App.getInstance().getCardWriteBuffer().appendLog(log);
     }
 
     //========================= 心跳计数器同步 ==================
     public void syncHeartbeatCounter() {
-        App.getDbExecutor().execute(() -> {
-            // 直接调用 updateHeartbeatCounter，而非 updateCard
-            int value = heartbeatCounter.get();
-            App.getInstance().getDatabase().cardDao().updateHeartbeatCounter(id, value);
-        });
+        // 只更新计数列，与同一心跳内的其他写入合并提交
+        App.getInstance().getCardWriteBuffer().setHeartbeatCounter(id, heartbeatCounter);
     }
 }
\ No newline at end of file
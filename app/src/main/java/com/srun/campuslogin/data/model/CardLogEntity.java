@@ -0,0 +1,140 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 卡片日志数据实体类
+ *
+ * <p>
+ * 功能说明：
+ * 1. 每条日志单独存为一行，追加日志只需插入一行，无需重写整张卡片记录。
+ * 2. 通过 (card_id, timestamp) 索引按卡片、按时间顺序查询。
+ * 3. 卡片删除时通过外键级联删除其全部日志。
+ * 4. 只存事件编码与参数，展示文本由 {@link LogEventType#format(CardLogEntity)} 在读取时渲染。
+ * </p>
+ *
+ * <p>
+ * 核心字段说明：
+ * - id        : 自增主键，同一毫秒内的多条日志依靠它保持插入顺序
+ * - cardId    : 所属卡片 ID（外键关联 cards.id）
+ * - timestamp : 日志产生时间（epoch 毫秒）
+ * - code      : 事件编码（见 LogEventType）
+ * - taskId    : 心跳任务号，0 表示非心跳任务产生
+ * - args      : 事件参数，多个参数以 U+001F 分隔，无参数时为 null
+ * </p>
+ */
+@Entity(
+        tableName = "card_logs",
+        foreignKeys = @ForeignKey(
+                entity = CardEntity.class,
+                parentColumns = "id",
+                childColumns = "card_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index(value = {"card_id", "timestamp"})}
+)
+public class CardLogEntity {
+    //========================= 常量定义 =========================
+    private static final char ARG_SEPARATOR = '\u001F';
+
+    //========================= 数据库字段定义 =========================
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    private long id;
+
+    @ColumnInfo(name = "card_id")
+    private int cardId;
+
+    @ColumnInfo(name = "timestamp")
+    private long timestamp;
+
+    @ColumnInfo(name = "code")
+    private int code;
+
+    @ColumnInfo(name = "task_id")
+    private int taskId;
+
+    @ColumnInfo(name = "args")
+    private String args;
+
+    //========================= 构造方法 =========================
+    /**
+     * Room 框架要求的默认构造方法
+     */
+    public CardLogEntity() {}
+
+    @Ignore
+    public CardLogEntity(int cardId, long timestamp, LogEventType type, int taskId, String... args) {
+        this.cardId = cardId;
+        this.timestamp = timestamp;
+        this.code = type.getCode();
+        this.taskId = taskId;
+        this.args = packArgs(args);
+    }
+
+    //========================= Getter/Setter 方法 ==================
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public int getCardId() { return cardId; }
+    public void setCardId(int cardId) { this.cardId = cardId; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    public int getCode() { return code; }
+    public void setCode(int code) { this.code = code; }
+
+    public int getTaskId() { return taskId; }
+    public void setTaskId(int taskId) { this.taskId = taskId; }
+
+    public String getArgs() { return args; }
+    public void setArgs(String args) { this.args = args; }
+
+    //========================= 参数编解码 ==================
+    /**
+     * 读取第 index 个参数，不存在时返回 null
+     */
+    public String getArg(int index) {
+        if (args == null) return null;
+        int start = 0;
+        for (int i = 0; i < index; i++) {
+            int next = args.indexOf(ARG_SEPARATOR, start);
+            if (next < 0) return null;
+            start = next + 1;
+        }
+        int end = args.indexOf(ARG_SEPARATOR, start);
+        return end < 0 ? args.substring(start) : args.substring(start, end);
+    }
+
+    /**
+     * @return 参数个数，无参数时为 0
+     */
+    public int getArgCount() {
+        if (args == null) return 0;
+        int count = 1;
+        for (int i = 0; i < args.length(); i++) {
+            if (args.charAt(i) == ARG_SEPARATOR) count++;
+        }
+        return count;
+    }
+
+    /**
+     * 将多个参数打包为 args 列的存储格式，单个参数原样保存
+     */
+    public static String packArgs(String... values) {
+        if (values == null || values.length == 0) return null;
+        if (values.length == 1) return values[0];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(ARG_SEPARATOR);
+            if (values[i] != null) sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * 日志全文索引实体类（FTS4 虚拟表）
+ *
+ * <p>
+ * 功能说明：
+ * 1. 每条日志追加到 card_logs 时同步写入一行，封存为历史块后索引行仍保留，可检索整个保留期。
+ * 2. 只有 tokens 列参与索引，其余列用于还原日志并按卡片、时间过滤与分页。
+ * 3. tokens 为渲染后的日志正文经 LogTokenizer 处理后的文本（中文逐字成词）。
+ * 4. 卡片删除时由 cards 表上的触发器删除对应索引行，过期历史块清理时一并清理。
+ * </p>
+ */
+@Fts4(
+        tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+        notIndexed = {"card_id", "timestamp", "code", "task_id", "args"}
+)
+@Entity(tableName = "card_logs_fts")
+public class CardLogFtsEntity {
+    //========================= 数据库字段定义 =========================
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "rowid")
+    private long rowId;
+
+    @ColumnInfo(name = "card_id")
+    private int cardId;
+
+    @ColumnInfo(name = "timestamp")
+    private long timestamp;
+
+    @ColumnInfo(name = "code")
+    private int code;
+
+    @ColumnInfo(name = "task_id")
+    private int taskId;
+
+    @ColumnInfo(name = "args")
+    private String args;
+
+    @ColumnInfo(name = "tokens")
+    private String tokens;
+
+    //========================= 构造方法 =========================
+    /**
+     * Room 框架要求的默认构造方法
+     */
+    public CardLogFtsEntity() {}
+
+    @Ignore
+    public CardLogFtsEntity(CardLogEntity log, String tokens) {
+        this.cardId = log.getCardId();
+        this.timestamp = log.getTimestamp();
+        this.code = log.getCode();
+        this.taskId = log.getTaskId();
+        this.args = log.getArgs();
+        this.tokens = tokens;
+    }
+
+    //========================= Getter/Setter 方法 ==================
+    public long getRowId() { return rowId; }
+    public void setRowId(long rowId) { this.rowId = rowId; }
+
+    public int getCardId() { return cardId; }
+    public void setCardId(int cardId) { this.cardId = cardId; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    public int getCode() { return code; }
+    public void setCode(int code) { this.code = code; }
+
+    public int getTaskId() { return taskId; }
+    public void setTaskId(int taskId) { this.taskId = taskId; }
+
+    public String getArgs() { return args; }
+    public void setArgs(String args) { this.args = args; }
+
+    public String getTokens() { return tokens; }
+    public void setTokens(String tokens) { this.tokens = tokens; }
+}
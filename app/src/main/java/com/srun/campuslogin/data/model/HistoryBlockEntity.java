@@ -0,0 +1,102 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 历史日志压缩块实体类
+ *
+ * <p>
+ * 功能说明：
+ * 1. card_logs 中超出明细窗口的旧日志按固定条数封存为一个二进制块，编码格式见 HistoryCodec。
+ * 2. 块按封存顺序自增编号，同一卡片内编号越大时间越新，可直接作为分页游标。
+ * 3. 卡片删除时通过外键级联删除其全部历史块。
+ * 4. 超过降采样期限后，块内例行心跳日志汇总到 card_hourly_stats，块只保留异常日志并标记 downsampled。
+ * </p>
+ *
+ * <p>
+ * 核心字段说明：
+ * - id         : 自增主键，同一卡片内与时间顺序一致
+ * - cardId     : 所属卡片 ID（外键关联 cards.id）
+ * - startTime  : 块内最早日志时间（epoch 毫秒）
+ * - endTime    : 块内最晚日志时间（epoch 毫秒）
+ * - eventCount : 块内日志条数
+ * - data       : 编码后的字节
+ * - downsampled : 是否已降采样（已降采样的块不再重复处理）
+ * </p>
+ */
+@Entity(
+        tableName = "card_history_blocks",
+        foreignKeys = @ForeignKey(
+                entity = CardEntity.class,
+                parentColumns = "id",
+                childColumns = "card_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index(value = {"card_id", "start_time"})}
+)
+public class HistoryBlockEntity {
+    //========================= 数据库字段定义 =========================
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    private long id;
+
+    @ColumnInfo(name = "card_id")
+    private int cardId;
+
+    @ColumnInfo(name = "start_time")
+    private long startTime;
+
+    @ColumnInfo(name = "end_time")
+    private long endTime;
+
+    @ColumnInfo(name = "event_count")
+    private int eventCount;
+
+    @ColumnInfo(name = "data")
+    private byte[] data;
+
+    @ColumnInfo(name = "downsampled", defaultValue = "0")
+    private boolean downsampled;
+
+    //========================= 构造方法 =========================
+    /**
+     * Room 框架要求的默认构造方法
+     */
+    public HistoryBlockEntity() {}
+
+    @Ignore
+    public HistoryBlockEntity(int cardId, long startTime, long endTime, int eventCount, byte[] data) {
+        this.cardId = cardId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.eventCount = eventCount;
+        this.data = data;
+    }
+
+    //========================= Getter/Setter 方法 ==================
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public int getCardId() { return cardId; }
+    public void setCardId(int cardId) { this.cardId = cardId; }
+
+    public long getStartTime() { return startTime; }
+    public void setStartTime(long startTime) { this.startTime = startTime; }
+
+    public long getEndTime() { return endTime; }
+    public void setEndTime(long endTime) { this.endTime = endTime; }
+
+    public int getEventCount() { return eventCount; }
+    public void setEventCount(int eventCount) { this.eventCount = eventCount; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+
+    public boolean isDownsampled() { return downsampled; }
+    public void setDownsampled(boolean downsampled) { this.downsampled = downsampled; }
+}
@@ -0,0 +1,101 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+
+/**
+ * 心跳小时聚合实体类
+ *
+ * <p>
+ * 功能说明：
+ * 1. 历史块超过降采样期限后，其中的例行心跳日志（开始检测、检测计数、网络正常）不再逐条保存，
+ *    按卡片、按小时汇总为一行计数。
+ * 2. 失败与重连等异常日志仍逐条保留在历史块中，同时计入本表，便于按小时统计。
+ * 3. 卡片删除时通过外键级联删除其全部聚合行。
+ * </p>
+ *
+ * <p>
+ * 核心字段说明：
+ * - cardId       : 所属卡片 ID（外键关联 cards.id）
+ * - hourStart    : 小时起点（epoch 毫秒，按整点对齐）
+ * - checkCount   : 心跳检测次数
+ * - okCount      : 检测结果为网络正常的次数
+ * - failureCount : 需要重新认证、登录失败、IP 获取失败等失败次数
+ * - reloginCount : 自动重连成功次数
+ * </p>
+ */
+@Entity(
+        tableName = "card_hourly_stats",
+        primaryKeys = {"card_id", "hour_start"},
+        foreignKeys = @ForeignKey(
+                entity = CardEntity.class,
+                parentColumns = "id",
+                childColumns = "card_id",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class HourlyStatsEntity {
+    //========================= 数据库字段定义 =========================
+    @ColumnInfo(name = "card_id")
+    private int cardId;
+
+    @ColumnInfo(name = "hour_start")
+    private long hourStart;
+
+    @ColumnInfo(name = "check_count")
+    private int checkCount;
+
+    @ColumnInfo(name = "ok_count")
+    private int okCount;
+
+    @ColumnInfo(name = "failure_count")
+    private int failureCount;
+
+    @ColumnInfo(name = "relogin_count")
+    private int reloginCount;
+
+    //========================= 构造方法 =========================
+    /**
+     * Room 框架要求的默认构造方法
+     */
+    public HourlyStatsEntity() {}
+
+    @Ignore
+    public HourlyStatsEntity(int cardId, long hourStart) {
+        this.cardId = cardId;
+        this.hourStart = hourStart;
+    }
+
+    //========================= 合并 =========================
+    /**
+     * 累加另一行同一小时的计数
+     */
+    public void add(@NonNull HourlyStatsEntity other) {
+        checkCount += other.checkCount;
+        okCount += other.okCount;
+        failureCount += other.failureCount;
+        reloginCount += other.reloginCount;
+    }
+
+    //========================= Getter/Setter 方法 ==================
+    public int getCardId() { return cardId; }
+    public void setCardId(int cardId) { this.cardId = cardId; }
+
+    public long getHourStart() { return hourStart; }
+    public void setHourStart(long hourStart) { this.hourStart = hourStart; }
+
+    public int getCheckCount() { return checkCount; }
+    public void setCheckCount(int checkCount) { this.checkCount = checkCount; }
+
+    public int getOkCount() { return okCount; }
+    public void setOkCount(int okCount) { this.okCount = okCount; }
+
+    public int getFailureCount() { return failureCount; }
+    public void setFailureCount(int failureCount) { this.failureCount = failureCount; }
+
+    public int getReloginCount() { return reloginCount; }
+    public void setReloginCount(int reloginCount) { this.reloginCount = reloginCount; }
+}
@@ -0,0 +1,207 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 固定容量的日志环形缓冲区
+ *
+ * <p>
+ * 功能说明：
+ * 1. 追加为 O(1)，写满后覆盖最旧的一条，不再有 ArrayList.remove(0) 的整体搬移。
+ * 2. 每条日志分配一个递增序号，快照只记录序号区间 [from, to)，创建快照不复制数据。
+ * 3. 快照在读取时校验序号是否仍被保留，被覆盖或清空的条目会抛出 ConcurrentModificationException。
+ * </p>
+ *
+ * <p>
+ * 线程安全：所有读写都在缓冲区自身的锁内完成，可在心跳线程写、主线程读。
+ * </p>
+ *
+ * @param <E> 日志条目类型
+ */
+public final class LogBuffer<E> implements Iterable<E> {
+    //========================= 成员变量 =========================
+    private final Object[] entries;
+    private long firstSeq; // 仍被保留的最旧条目序号
+    private long nextSeq;  // 下一条追加的序号（即累计追加条数）
+
+    //========================= 构造方法 =========================
+    public LogBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于 0: " + capacity);
+        }
+        this.entries = new Object[capacity];
+    }
+
+    //========================= 写入操作 =========================
+    /**
+     * 追加一条日志，缓冲区已满时覆盖最旧的一条
+     * @param entry 日志条目
+     * @return 该条目的序号
+     */
+    public synchronized long add(E entry) {
+        long seq = nextSeq++;
+        entries[slot(seq)] = entry;
+        if (nextSeq - firstSeq > entries.length) {
+            firstSeq = nextSeq - entries.length;
+        }
+        return seq;
+    }
+
+    /**
+     * 批量追加（按顺序）
+     */
+    public synchronized void addAll(Iterable<? extends E> items) {
+        for (E item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * 清空缓冲区；序号继续递增，旧快照随之失效
+     */
+    public synchronized void clear() {
+        for (long seq = firstSeq; seq < nextSeq; seq++) {
+            entries[slot(seq)] = null;
+        }
+        firstSeq = nextSeq;
+    }
+
+    //========================= 查询操作 =========================
+    public int capacity() {
+        return entries.length;
+    }
+
+    public synchronized int size() {
+        return (int) (nextSeq - firstSeq);
+    }
+
+    /**
+     * @return 下一条日志将使用的序号，可作为 {@link #since(long)} 的游标
+     */
+    public synchronized long endSequence() {
+        return nextSeq;
+    }
+
+    /**
+     * 当前全部日志的只读快照（不复制数据）
+     */
+    public synchronized Snapshot<E> snapshot() {
+        return new Snapshot<>(this, firstSeq, nextSeq);
+    }
+
+    /**
+     * 序号 seq 之后追加的日志快照，用于增量刷新
+     * @param seq 上一次读取时的 {@link #endSequence()}
+     */
+    public synchronized Snapshot<E> since(long seq) {
+        return new Snapshot<>(this, Math.max(seq, firstSeq), nextSeq);
+    }
+
+    /**
+     * 复制为普通列表（最旧的在前）
+     */
+    public List<E> toList() {
+        return snapshot().toList();
+    }
+
+    @NonNull
+    @Override
+    public Iterator<E> iterator() {
+        return snapshot().iterator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private E getBySequence(long seq) {
+        synchronized (this) {
+            if (seq < firstSeq || seq >= nextSeq) {
+                throw new ConcurrentModificationException("日志已被覆盖或清空, seq=" + seq);
+            }
+            return (E) entries[slot(seq)];
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % entries.length);
+    }
+
+    //========================= 只读快照 =========================
+    /**
+     * 缓冲区在某一时刻的只读视图，只持有序号区间
+     */
+    public static final class Snapshot<E> implements Iterable<E> {
+        private final LogBuffer<E> buffer;
+        private final long fromSeq;
+        private final long toSeq;
+
+        Snapshot(LogBuffer<E> buffer, long fromSeq, long toSeq) {
+            this.buffer = buffer;
+            this.fromSeq = fromSeq;
+            this.toSeq = toSeq;
+        }
+
+        public int size() {
+            return (int) (toSeq - fromSeq);
+        }
+
+        public boolean isEmpty() {
+            return toSeq == fromSeq;
+        }
+
+        /**
+         * @return 快照末尾序号，下次调用 {@link LogBuffer#since(long)} 时传入
+         */
+        public long endSequence() {
+            return toSeq;
+        }
+
+        /**
+         * 快照中的条目是否已有部分被新日志覆盖
+         */
+        public boolean isStale() {
+            synchronized (buffer) {
+                return fromSeq < buffer.firstSeq;
+            }
+        }
+
+        public E get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("index=" + index + ", size=" + size());
+            }
+            return buffer.getBySequence(fromSeq + index);
+        }
+
+        public List<E> toList() {
+            List<E> list = new ArrayList<>(size());
+            for (E e : this) {
+                list.add(e);
+            }
+            return list;
+        }
+
+        @NonNull
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private long cursor = fromSeq;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < toSeq;
+                }
+
+                @Override
+                public E next() {
+                    if (cursor >= toSeq) {
+                        throw new NoSuchElementException();
+                    }
+                    return buffer.getBySequence(cursor++);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.srun.campuslogin.data.model;
+
+import com.srun.campuslogin.utils.DateUtils;
+
+/**
+ * 日志事件类型
+ *
+ * <p>
+ * 功能说明：
+ * 1. 每种事件对应一个固定的整型编码，入库时只存编码、时间、任务号和少量参数。
+ * 2. 展示文本仅在打开日志时由 {@link #format(CardLogEntity)} 渲染，心跳路径不再拼接字符串和格式化时间。
+ * 3. 编码一旦发布不可修改或复用，新增事件只能追加新编码。
+ * </p>
+ */
+public enum LogEventType {
+    /** 版本 5 之前保存的预渲染文本，args 即原文 */
+    LEGACY_TEXT(0) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            if (log.getArgs() != null) {
+                out.append(log.getArgs());
+            }
+        }
+    },
+    HEARTBEAT_ENABLED(1) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("开启断线重连");
+        }
+    },
+    HEARTBEAT_DISABLED(2) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("关闭断线重连");
+        }
+    },
+    CHECK_STARTED(3) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("🕒 开始周期检测");
+        }
+    },
+    /** 参数 0：累计检测次数 */
+    CHECK_COUNT(4) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("🔄 第 ").append(log.getArg(0)).append(" 次检测");
+        }
+    },
+    /** 任务号为 0 表示登录后的单次检测 */
+    NETWORK_OK(5) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append(log.getTaskId() > 0 ? "✅ 网络正常，无需自动登录" : "✅ 网络正常，无需登录");
+        }
+    },
+    /** 参数 0：错误原因（可缺省） */
+    REAUTH_REQUIRED(6) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("⚠️ 需要重新认证");
+            String error = log.getArg(0);
+            if (error != null) {
+                out.append(" - 错误原因: ").append(error);
+            }
+        }
+    },
+    /** 参数 0：登录各阶段耗时摘要（可缺省） */
+    LOGIN_SUCCESS(7) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("✅ 登录成功");
+            appendTiming(out, log);
+        }
+    },
+    /** 参数 0：错误信息 */
+    LOGIN_FAILED(8) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("登录失败: ").append(log.getArg(0));
+        }
+    },
+    /** 参数 0：错误信息 */
+    IP_FAILED(9) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("⚠️ IP获取失败: ").append(log.getArg(0));
+        }
+    },
+    AUTO_LOGIN_STARTED(10) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("⏳ 发起自动重连");
+        }
+    },
+    /** 参数 0：登录各阶段耗时摘要（可缺省） */
+    AUTO_LOGIN_SUCCESS(11) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("✅ 自动登录成功");
+            appendTiming(out, log);
+        }
+    },
+    /** 参数 0：错误信息 */
+    AUTO_LOGIN_FAILED(12) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("❌ 自动登录失败: ").append(log.getArg(0));
+        }
+    },
+    /** 探测策略结论不足以判定（超时、异常或未达到 quorum），不触发重新登录；参数 0：探测摘要 */
+    PROBE_INCONCLUSIVE(13) {
+        @Override
+        void appendBody(StringBuilder out, CardLogEntity log) {
+            out.append("❔ 网络状态无法判断，稍后复查: ").append(log.getArg(0));
+        }
+    };
+
+    //========================= 编码映射 =========================
+    private static final LogEventType[] BY_CODE;
+
+    static {
+        int max = 0;
+        for (LogEventType type : values()) {
+            max = Math.max(max, type.code);
+        }
+        BY_CODE = new LogEventType[max + 1];
+        for (LogEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    LogEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 根据编码查找事件类型，未知编码（如新版本写入后降级）按原始文本处理
+     */
+    public static LogEventType fromCode(int code) {
+        if (code >= 0 && code < BY_CODE.length && BY_CODE[code] != null) {
+            return BY_CODE[code];
+        }
+        return LEGACY_TEXT;
+    }
+
+    //========================= 文本渲染 =========================
+    abstract void appendBody(StringBuilder out, CardLogEntity log);
+
+    private static void appendTiming(StringBuilder out, CardLogEntity log) {
+        String timing = log.getArg(0);
+        if (timing != null) {
+            out.append(" (").append(timing).append(')');
+        }
+    }
+
+    /**
+     * 仅渲染日志正文（不含任务号与时间），直接追加到 out，供导出等批量场景复用缓冲区
+     */
+    public static void appendMessage(StringBuilder out, CardLogEntity log) {
+        fromCode(log.getCode()).appendBody(out, log);
+    }
+
+    /**
+     * 将一条日志渲染为展示文本：正文 + [任务#n] + 时间
+     * @param log 日志行
+     * @return 展示文本
+     */
+    public static String format(CardLogEntity log) {
+        LogEventType type = fromCode(log.getCode());
+        StringBuilder out = new StringBuilder(48);
+        type.appendBody(out, log);
+        if (type != LEGACY_TEXT) {
+            if (log.getTaskId() > 0) {
+                out.append(" [任务#").append(log.getTaskId()).append(']');
+            }
+            out.append(" - ").append(DateUtils.format(log.getTimestamp()));
+        }
+        return out.toString();
+    }
+}
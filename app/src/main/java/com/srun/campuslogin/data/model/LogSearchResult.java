@@ -0,0 +1,42 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * 日志检索结果（card_logs_fts 关联 cards 的查询投影）
+ */
+public class LogSearchResult {
+    @ColumnInfo(name = "rowid")
+    public long rowId;
+
+    @ColumnInfo(name = "card_id")
+    public int cardId;
+
+    @ColumnInfo(name = "student_id")
+    public String studentId;
+
+    @ColumnInfo(name = "timestamp")
+    public long timestamp;
+
+    @ColumnInfo(name = "code")
+    public int code;
+
+    @ColumnInfo(name = "task_id")
+    public int taskId;
+
+    @ColumnInfo(name = "args")
+    public String args;
+
+    /**
+     * 还原为日志实体，以便复用 LogEventType 的渲染
+     */
+    public CardLogEntity toLog() {
+        CardLogEntity log = new CardLogEntity();
+        log.setCardId(cardId);
+        log.setTimestamp(timestamp);
+        log.setCode(code);
+        log.setTaskId(taskId);
+        log.setArgs(args);
+        return log;
+    }
+}
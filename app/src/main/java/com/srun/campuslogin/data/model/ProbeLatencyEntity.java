@@ -0,0 +1,112 @@
+package com.srun.campuslogin.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import com.srun.campuslogin.utils.probe.LatencyRecorder;
+
+/**
+ * 网络调用耗时摘要实体类
+ *
+ * <p>
+ * 功能说明：
+ * 1. 每个端点（探测策略名或主机名）、每个阶段、每个时段一行，由 {@link LatencyRecorder} 在时段结束后生成。
+ * 2. 与卡片无关：所有卡片共享同一次探测，统计按端点区分。
+ * 3. 对比分位耗时与失败次数可区分“慢门户”（耗时高、失败少）与“不可达”（失败多）。
+ * </p>
+ *
+ * <p>
+ * 核心字段说明：
+ * - endpoint     : 端点名
+ * - phase        : 阶段（ProbePhase 名称：DNS/CONNECT/TLS/TTFB/TOTAL）
+ * - periodStart  : 时段起点（epoch 毫秒，按整点对齐）
+ * - sampleCount  : 该阶段的样本数（复用连接时没有 DNS、连接与 TLS 样本）
+ * - failureCount : 端点在该时段的失败调用数（同一时段各阶段相同）
+ * - p50/p95/p99/max : 耗时分位与最大值（毫秒）
+ * </p>
+ */
+@Entity(
+        tableName = "probe_latency_stats",
+        primaryKeys = {"endpoint", "phase", "period_start"}
+)
+public class ProbeLatencyEntity {
+    //========================= 数据库字段定义 =========================
+    @NonNull
+    @ColumnInfo(name = "endpoint")
+    private String endpoint = "";
+
+    @NonNull
+    @ColumnInfo(name = "phase")
+    private String phase = "";
+
+    @ColumnInfo(name = "period_start")
+    private long periodStart;
+
+    @ColumnInfo(name = "sample_count")
+    private long sampleCount;
+
+    @ColumnInfo(name = "failure_count")
+    private int failureCount;
+
+    @ColumnInfo(name = "p50_ms")
+    private long p50Ms;
+
+    @ColumnInfo(name = "p95_ms")
+    private long p95Ms;
+
+    @ColumnInfo(name = "p99_ms")
+    private long p99Ms;
+
+    @ColumnInfo(name = "max_ms")
+    private long maxMs;
+
+    //========================= 构造方法 =========================
+    /**
+     * Room 框架要求的默认构造方法
+     */
+    public ProbeLatencyEntity() {}
+
+    @Ignore
+    public ProbeLatencyEntity(@NonNull LatencyRecorder.Summary summary) {
+        this.endpoint = summary.endpoint;
+        this.phase = summary.phase.name();
+        this.periodStart = summary.periodStart;
+        this.sampleCount = summary.count;
+        this.failureCount = summary.failures;
+        this.p50Ms = summary.p50;
+        this.p95Ms = summary.p95;
+        this.p99Ms = summary.p99;
+        this.maxMs = summary.max;
+    }
+
+    //========================= Getter/Setter 方法 ==================
+    @NonNull
+    public String getEndpoint() { return endpoint; }
+    public void setEndpoint(@NonNull String endpoint) { this.endpoint = endpoint; }
+
+    @NonNull
+    public String getPhase() { return phase; }
+    public void setPhase(@NonNull String phase) { this.phase = phase; }
+
+    public long getPeriodStart() { return periodStart; }
+    public void setPeriodStart(long periodStart) { this.periodStart = periodStart; }
+
+    public long getSampleCount() { return sampleCount; }
+    public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+
+    public int getFailureCount() { return failureCount; }
+    public void setFailureCount(int failureCount) { this.failureCount = failureCount; }
+
+    public long getP50Ms() { return p50Ms; }
+    public void setP50Ms(long p50Ms) { this.p50Ms = p50Ms; }
+
+    public long getP95Ms() { return p95Ms; }
+    public void setP95Ms(long p95Ms) { this.p95Ms = p95Ms; }
+
+    public long getP99Ms() { return p99Ms; }
+    public void setP99Ms(long p99Ms) { this.p99Ms = p99Ms; }
+
+    public long getMaxMs() { return maxMs; }
+    public void setMaxMs(long maxMs) { this.maxMs = maxMs; }
+}
@@ -0,0 +1,203 @@
+package com.srun.campuslogin.data.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List&lt;String&gt; 与 JSON 数组文本的流式编解码器
+ *
+ * <p>
+ * 功能说明：
+ * 1. 手写扫描 JSON 字符串数组，不经过 Gson 反射与 TypeToken，也不创建 Reader 对象。
+ * 2. 每个线程复用一个 StringBuilder 作为编码/反转义缓冲区，每行只分配结果字符串与列表本身。
+ * 3. 输出为标准 JSON，可读取 Gson 写入的旧数据（含 \\uXXXX 转义与 null 元素）。
+ * </p>
+ */
+public final class StringListCodec {
+    //========================= 常量定义 =========================
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024; // 超过该容量的缓冲区不再复用，避免长期占用内存
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private StringListCodec() {}
+
+    //========================= 编码 =========================
+    /**
+     * 编码为 JSON 数组文本
+     * @param list 字符串列表，元素可以为 null
+     */
+    public static String encode(List<String> list) {
+        StringBuilder sb = obtainBuffer();
+        sb.append('[');
+        for (int i = 0, n = list.size(); i < n; i++) {
+            if (i > 0) sb.append(',');
+            String value = list.get(i);
+            if (value == null) {
+                sb.append("null");
+            } else {
+                appendQuoted(sb, value);
+            }
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    /**
+     * 以 JSON 字符串字面量形式（含两侧引号）追加到 sb，供其他流式 JSON 输出复用
+     */
+    public static void appendQuoted(StringBuilder sb, CharSequence value) {
+        sb.append('"');
+        int start = 0;
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            sb.append(value, start, i); // 批量复制无需转义的片段
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    sb.append("\\u").append(HEX[(c >> 12) & 0xF]).append(HEX[(c >> 8) & 0xF])
+                            .append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        sb.append(value, start, len).append('"');
+    }
+
+    //========================= 解码 =========================
+    /**
+     * 解析 JSON 字符串数组
+     * @param json JSON 数组文本
+     * @return 解析出的列表（可修改）
+     * @throws IllegalArgumentException 文本不是字符串数组时抛出
+     */
+    public static List<String> decode(String json) {
+        Parser parser = new Parser(json);
+        List<String> result = new ArrayList<>();
+        parser.skipWhitespace();
+        parser.expect('[');
+        parser.skipWhitespace();
+        if (parser.peek() == ']') {
+            parser.pos++;
+        } else {
+            while (true) {
+                result.add(parser.readValue());
+                parser.skipWhitespace();
+                char c = parser.next();
+                if (c == ']') break;
+                if (c != ',') throw parser.error("应为 ',' 或 ']'");
+                parser.skipWhitespace();
+            }
+        }
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw parser.error("数组后存在多余内容");
+        }
+        return result;
+    }
+
+    private static StringBuilder obtainBuffer() {
+        StringBuilder sb = BUFFER.get();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            sb = new StringBuilder(256);
+            BUFFER.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+
+    /**
+     * 单次解析的游标状态（仅持有输入引用与位置）
+     */
+    private static final class Parser {
+        private final String in;
+        private int pos;
+
+        Parser(String in) {
+            this.in = in;
+        }
+
+        char peek() {
+            if (pos >= in.length()) throw error("意外的结尾");
+            return in.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) throw error("应为 '" + c + "'");
+        }
+
+        void skipWhitespace() {
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return;
+                pos++;
+            }
+        }
+
+        String readValue() {
+            if (in.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            expect('"');
+            // 快速路径：无转义时直接截取子串
+            int start = pos;
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (c == '"') {
+                    return in.substring(start, pos++);
+                }
+                if (c == '\\') break;
+                pos++;
+            }
+            StringBuilder sb = obtainBuffer();
+            sb.append(in, start, pos);
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"': case '\\': case '/': sb.append(escaped); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > in.length()) throw error("不完整的 \\u 转义");
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(in.charAt(pos++), 16);
+                            if (digit < 0) throw error("非法的 \\u 转义");
+                            code = (code << 4) | digit;
+                        }
+                        sb.append((char) code);
+                        break;
+                    default:
+                        throw error("非法的转义字符");
+                }
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + "（位置 " + pos + "）");
+        }
+    }
+}
@@ -1,20 +1,14 @@
 package com.srun.campuslogin.ui;
 
 import android.content.Context;
-import android.content.Intent;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
 import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Button;
-import android.widget.ScrollView;
-import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -26,21 +20,23 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.srun.campuslogin.R;
 import com.srun.campuslogin.core.App;
 import com.srun.campuslogin.core.LoginBridge;
-import com.srun.campuslogin.data.AppDatabase;
+import com.srun.campuslogin.core.LoginCoordinator;
+import com.srun.campuslogin.core.LoginResult;
+import com.srun.campuslogin.data.CardWriteBuffer;
 import com.srun.campuslogin.data.model.CardEntity;
+import com.srun.campuslogin.data.model.LogEventType;
 import com.srun.campuslogin.databinding.ItemCardBinding;
+import com.srun.campuslogin.ui.fragments.CardLogsDialogFragment;
 import com.srun.campuslogin.ui.fragments.EditCardDialogFragment;
-import com.srun.campuslogin.utils.DateUtils;
 import com.srun.campuslogin.utils.HeartbeatService;
 import com.srun.campuslogin.utils.NetworkUtils;
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import android.os.Looper;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 //===========================卡片适配器（RecyclerView）核心类=============================
@@ -50,12 +46,13 @@ import android.os.Looper;
  * 包含登录操作、删除功能、卡片编辑、IP显示更新等核心功能
  */
 public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder> {
+    //===========================常量定义=============================
+    private static final String PAYLOAD_LOGIN_STATE = "LOGIN_STATE_CHANGED";
+
     //===========================成员变量=============================
-    private final Map<Integer, HeartbeatTask> heartbeatTasks = new HashMap<>();
-    private final Set<Integer> disabledPositions = new HashSet<>();
+    private Map<String, LoginCoordinator.LoginState> loginStates = Collections.emptyMap(); // 登录中或冷却中的账号
+    private final Set<LoginCoordinator.Ticket> pendingLogins = ConcurrentHashMap.newKeySet(); // 本页面发起、尚无结果的登录
     private final WeakReference<Context> contextRef;
-    private int activeCardId = -1;
-    private static final Object HEARTBEAT_LOCK = new Object();
     private static final DiffUtil.ItemCallback<CardEntity> DIFF_CALLBACK = new DiffUtil.ItemCallback<>() {
         @Override
         public boolean areItemsTheSame(@NonNull CardEntity oldItem, @NonNull CardEntity newItem) {
@@ -122,16 +119,6 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
                     RecyclerView.Adapter<?> adapter = getBindingAdapter();
                     if (adapter instanceof CardAdapter) {
                         CardEntity card = ((CardAdapter) adapter).getItem(position);
-
-                        // 新增点击拦截逻辑
-                        if (((CardAdapter) adapter).activeCardId != -1
-                                && ((CardAdapter) adapter).activeCardId != card.getId()) {
-                            Toast.makeText(v.getContext(),
-                                    "请关闭其他卡片的断线重连",
-                                    Toast.LENGTH_SHORT).show();
-                            return;
-                        }
-
                         ((CardAdapter) adapter).toggleHeartbeatState(card, position);
                     }
                 }
@@ -228,28 +215,6 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
                         card.isHeartbeatActive() ? R.color.red : R.color.blue
                 ))
         );
-
-        //------------------ 新增互斥逻辑 -----------------
-        boolean isOtherActive = activeCardId != -1 && activeCardId != card.getId();
-        if (isOtherActive) {
-            // 禁用其他卡片按钮
-            holder.binding.btnHeartbeat.setEnabled(false);
-            holder.binding.btnHeartbeat.setBackgroundTintList(
-                    ColorStateList.valueOf(ContextCompat.getColor(
-                            holder.itemView.getContext(),
-                            R.color.gray
-                    ))
-            );
-        } else {
-            // 恢复当前卡片状态
-            holder.binding.btnHeartbeat.setEnabled(true);
-            holder.binding.btnHeartbeat.setBackgroundTintList(
-                    ColorStateList.valueOf(ContextCompat.getColor(
-                            holder.itemView.getContext(),
-                            card.isHeartbeatActive() ? R.color.red : R.color.blue
-                    ))
-            );
-        }
     }
 
     @Override
@@ -257,7 +222,6 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
         if (payloads.isEmpty()) {
             super.onBindViewHolder(holder, position, payloads);
         } else {
-            CardEntity card = getItem(position);
             for (Object payload : payloads) {
                 if (payload instanceof Bundle) {
                     Bundle bundle = (Bundle) payload;
@@ -280,17 +244,8 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
                         holder.bindHeartbeat(isActive);
                     }
 
-                    boolean isOtherActive = activeCardId != -1 && activeCardId != card.getId();
-                    if (isOtherActive) {
-                        holder.binding.btnHeartbeat.setEnabled(false);
-                        holder.binding.btnHeartbeat.setBackgroundTintList(
-                                ColorStateList.valueOf(ContextCompat.getColor(
-                                        holder.itemView.getContext(),
-                                        R.color.gray
-                                ))
-                        );
-                    } else {
-                        holder.binding.btnHeartbeat.setEnabled(true);
+                    if (bundle.containsKey(PAYLOAD_LOGIN_STATE)) {
+                        updateLoginButtonState(holder);
                     }
                 }
             }
@@ -298,301 +253,93 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
     }
 
     //===========================登录功能处理=============================
+    /**
+     * 登录经协调器发起：同一账号已在登录时合并结果，重复点击不会再启动原生登录
+     * 结果在网络线程池回调（服务器未返回在线 IP 时会枚举本机网卡）
+     */
     private void handleLoginClick(int position) {
         CardEntity card = getItem(position);
         if (!validateCardInfo(card)) return;
 
-        LoginBridge.nativeLogin(
-                card.getUsername() + card.getOperator(),
+        LoginCoordinator.Ticket[] ticket = new LoginCoordinator.Ticket[1];
+        ticket[0] = App.getInstance().getLoginCoordinator().login(
+                LoginCoordinator.accountOf(card.getUsername(), card.getOperator()),
                 card.getPassword(),
-                true,
+                App.getNetworkExecutor(),
                 new LoginBridge.LoginCallback() {
                     @Override
-                    public void onSuccess() {
-                        processLoginSuccess(card, position);
+                    public void onSuccess(LoginResult result) {
+                        forgetLogin(ticket[0]);
+                        processLoginSuccess(card, result);
                     }
 
                     @Override
-                    public void onFailure(String error) {
-                        processLoginFailure(card, error);
+                    public void onFailure(LoginResult result) {
+                        forgetLogin(ticket[0]);
+                        processLoginFailure(card, result.message);
                     }
                 }
         );
+        pendingLogins.add(ticket[0]);
     }
 
-    //===========================心跳功能处理=============================
-    private void toggleHeartbeatState(CardEntity card, int position) {
-        synchronized (HEARTBEAT_LOCK) {
-            if (card.isHeartbeatActive()) {
-                activeCardId = -1;
-            } else {
-                if (activeCardId != -1 && activeCardId != card.getId()) {
-                    showToast("请关闭其他卡片的断线重连");
-                    return;
-                }
-                activeCardId = card.getId();
-            }
-
-            boolean newState = !card.isHeartbeatActive();
-            card.setHeartbeatActive(newState);
-
-            App.getDbExecutor().execute(() -> {
-                try {
-                    CardEntity newCard = new CardEntity();
-                    newCard.setId(card.getId());
-                    newCard.setHeartbeatActive(newState);
-                    newCard.setLastIp(card.getLastIp());
-                    newCard.setStudentId(card.getStudentId());
-                    newCard.setOperator(card.getOperator());
-                    newCard.setPassword(card.getPassword());
-                    newCard.setLogs(card.getLogs());
-                    newCard.getHeartbeatCounter().set(card.getHeartbeatCounter().get());
-
-                    AppDatabase.getDatabase(contextRef.get()).cardDao().updateCard(newCard);
-
-                    new Handler(Looper.getMainLooper()).post(() -> notifyItemChanged(position));
-
-                } catch (Exception e) {
-                    Log.e("Heartbeat", "数据库更新失败: " + e.getMessage());
-                    new Handler(Looper.getMainLooper()).post(() ->
-                            showToast("状态更新失败")
-                    );
-                }
-            });
-
-            Context context = contextRef.get();
-            if (context == null) {
-                Log.e("Heartbeat", "上下文不可用");
-                return;
-            }
-
-            if (newState) {
-                card.addLog("开启断线重连 - " + DateUtils.getCurrentTime());
-                showToast("开启断线检测");
-                startHeartbeatCheck(card);
-
-                // 启动并绑定服务
-                Intent serviceIntent = new Intent(context, HeartbeatService.class);
-                try {
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                        context.startForegroundService(serviceIntent);
-                    } else {
-                        context.startService(serviceIntent);
-                    }
-
-                    // 获取当前任务实例并绑定服务
-                    HeartbeatTask task = heartbeatTasks.get(card.getId());
-                    if (task != null) {
-                        HeartbeatService service = ((HeartbeatService) context.getApplicationContext());
-                        task.bindToService(service);
-                        service.updateNotification(task.getCardId());
-                    }
-                } catch (Exception e) {
-                    Log.e("Heartbeat", "服务启动失败: " + e.getMessage());
-                }
-
-            } else {
-                card.addLog("关闭断线重连 - " + DateUtils.getCurrentTime());
-                showToast("关闭断线重连");
-                stopHeartbeatCheck(card.getId());
-
-                Intent serviceIntent = new Intent(context, HeartbeatService.class);
-                try {
-                    context.stopService(serviceIntent);
-                } catch (Exception e) {
-                    Log.e("Heartbeat", "服务停止失败: " + e.getMessage());
-                }
-            }
-            notifyAllCardsStateChange();
-        }
+    private void forgetLogin(LoginCoordinator.Ticket ticket) {
+        if (ticket != null) pendingLogins.remove(ticket); // 回调可能早于凭据返回（如冷却中直接失败）
     }
 
-    private void startHeartbeatCheck(CardEntity card) {
-        Log.d("Heartbeat", "启动心跳检测，卡片ID：" + card.getId());
-
-        // 清理旧任务
-        HeartbeatTask oldTask = heartbeatTasks.get(card.getId());
-        if (oldTask != null) {
-            oldTask.stop();
-            heartbeatTasks.remove(card.getId());
+    /**
+     * 取消本页面发起的登录（退出页面时调用），不影响心跳自动登录合并到同一账号的请求
+     */
+    public void cancelPendingLogins() {
+        for (LoginCoordinator.Ticket ticket : pendingLogins) {
+            ticket.cancel();
         }
-
-        // 创建新任务
-        Handler handler = new Handler(Looper.getMainLooper());
-        HeartbeatTask task = new HeartbeatTask(this, card, handler);
-
-        // 存储任务实例
-        heartbeatTasks.put(card.getId(), task);
-
-        // 启动任务
-        handler.post(task);
+        pendingLogins.clear();
     }
 
-    public void startHeartbeatForActiveCards() {
-        for (CardEntity card : getCurrentList()) {
-            if (card.isHeartbeatActive()) {
-                startHeartbeatCheck(card);
-            }
-        }
-    }
+    //===========================心跳功能处理=============================
+    private void toggleHeartbeatState(CardEntity card, int position) {
+        boolean newState = !card.isHeartbeatActive();
+        card.setHeartbeatActive(newState);
 
-    private void stopHeartbeatCheck(int cardId) {
-        synchronized (HEARTBEAT_LOCK) {
-            HeartbeatTask task = heartbeatTasks.get(cardId);
-            if (task != null) {
-                task.stop();
-                heartbeatTasks.remove(cardId);
-            }
-        }
-    }
+        // 只更新心跳开关列，并立即提交，避免列表刷新时读到旧状态
+        CardWriteBuffer writeBuffer = App.getInstance().getCardWriteBuffer();
+        writeBuffer.setHeartbeatActive(card.getId(), newState);
+        writeBuffer.flushAsync();
+        notifyItemChanged(position);
 
-    public void stopAllHeartbeatChecks() {
-        for (Integer cardId : heartbeatTasks.keySet()) {
-            HeartbeatTask task = heartbeatTasks.get(cardId);
-            if (task != null) {
-                task.stop();
-            }
+        Context context = contextRef.get();
+        if (context == null) {
+            Log.e("Heartbeat", "上下文不可用");
+            return;
         }
-        heartbeatTasks.clear();
-    }
 
-    private void notifyAllCardsStateChange() {
-        for (int i = 0; i < getItemCount(); i++) {
-            notifyItemChanged(i);
+        // 检测引擎由前台服务持有，界面只发送卡片 ID，关闭页面后检测继续
+        if (newState) {
+            card.addLog(LogEventType.HEARTBEAT_ENABLED, 0);
+            showToast("开启断线检测");
+            HeartbeatService.start(context, card.getId());
+        } else {
+            card.addLog(LogEventType.HEARTBEAT_DISABLED, 0);
+            showToast("关闭断线重连");
+            HeartbeatService.stop(context, card.getId()); // 没有其他卡片在检测时服务自行停止
         }
     }
 
-    // =========================== 新增静态心跳任务类 ===========================
-    public static class HeartbeatTask implements Runnable {
-        private final WeakReference<CardAdapter> adapterRef;
-        private final WeakReference<CardEntity> cardRef;
-        private final Handler associatedHandler;
-        private volatile boolean isStopped = false;
-
-        // 任务标识字段
-        private final int taskId;
-        private static int taskCounter = 0;
-
-        HeartbeatTask(CardAdapter adapter, CardEntity card, Handler handler) {
-            this.adapterRef = new WeakReference<>(adapter);
-            this.cardRef = new WeakReference<>(card);
-            this.associatedHandler = handler;
-            this.taskId = ++taskCounter;
-        }
-
-        // 服务绑定方法（实际调用处）
-        public void bindToService(HeartbeatService service) {
-            service.setCurrentTask(this);
-            Log.d("Heartbeat", "服务已绑定到卡片ID: " + getCardId());
-        }
-
-        // 获取卡片ID（实际调用处）
-        public int getCardId() {
-            CardEntity card = cardRef.get();
-            return card != null ? card.getId() : -1;
-        }
-
-        // 增强停止方法
-        public void stop() {
-            isStopped = true;
-            associatedHandler.removeCallbacks(this);
-
-            CardAdapter adapter = adapterRef.get();
-            if (adapter != null && adapter.activeCardId == getCardId()) {
-                adapter.activeCardId = -1;
-                adapter.notifyAllCardsStateChange();
-            }
-
-            Log.d("Heartbeat", "终止检测任务 ID: " + taskId);
-        }
-
-        // 运行状态检查（实际调用处）
-        public boolean isRunning() {
-            return !isStopped && adapterRef.get() != null && cardRef.get() != null;
-        }
-
-        @Override
-        public void run() {
-            synchronized (CardAdapter.HEARTBEAT_LOCK) {
-                if (isStopped) {
-                    Log.w("Heartbeat", "任务已终止，跳过执行");
-                    return;
-                }
-
-                final CardAdapter adapter = adapterRef.get();
-                final CardEntity card = cardRef.get();
-                if (adapter == null || card == null) {
-                    Log.w("Heartbeat", "适配器或卡片已回收");
-                    return;
-                }
-
-                // 记录检测开始（带任务ID）
-                card.addLog("🕒 开始周期检测 [任务#" + taskId + "] - " + DateUtils.getCurrentTime());
-
-                // 在后台线程执行网络检测
-                App.getDbExecutor().execute(() -> {
-                    NetworkUtils.ReauthResult result = NetworkUtils.isReauthenticationRequired();
-
-                    // 主线程更新 UI 和日志
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        // 二次校验任务状态
-                        if (isStopped || adapter.isDestroyed()) {
-                            Log.w("Heartbeat", "任务已终止，跳过更新");
-                            return;
-                        }
-
-                        // 动态获取卡片位置
-                        int currentPosition = adapter.getCurrentList().indexOf(card);
-                        if (currentPosition == RecyclerView.NO_POSITION) {
-                            Log.w("Heartbeat", "卡片不存在于当前列表");
-                            return;
-                        }
-
-                        // 更新检测计数
-                        int count = card.getHeartbeatCounter().incrementAndGet();
-                        card.syncHeartbeatCounter();
-                        card.addLog("🔄 第 " + count + " 次检测 [任务#" + taskId + "] - " + DateUtils.getCurrentTime());
-
-                        StringBuilder log = getStringBuilder(result);
-                        card.addLog(log.toString());
-
-                        // 更新数据库和 UI
-                        adapter.executeDatabaseUpdate(card);
-                        adapter.notifyItemChanged(currentPosition, "HEARTBEAT_CHANGED");
-
-                        // 触发重新认证
-                        if (result.needReauth) {
-                            adapter.autoRelogin(card, currentPosition);
-                        }
-
-                        // 智能调度下次检测（正确位置）
-                        if (!isStopped && !adapter.isDestroyed()) {
-                            long interval = result.needReauth ? 30_000 : 60_000;
-                            associatedHandler.postDelayed(this, interval);
-                            Log.d("Heartbeat", String.format(
-                                    "已调度下次检测，卡片ID：%d 间隔：%ds",
-                                    card.getId(),
-                                    interval / 1000
-                            ));
-                        }
-                    });
-                });
-            }
+    private boolean hasActiveCards() {
+        for (CardEntity item : getCurrentList()) {
+            if (item.isHeartbeatActive()) return true;
         }
+        return false;
+    }
 
-        @NonNull
-        private StringBuilder getStringBuilder(NetworkUtils.ReauthResult result) {
-            StringBuilder log = new StringBuilder();
-            if (result.needReauth) {
-                log.append("⚠️ 需要重新认证");
-                if (result.error != null) {
-                    log.append(" - 错误原因: ").append(result.error);
-                }
-            } else {
-                log.append("✅ 网络正常，无需自动登录");
-            }
-            log.append(" [任务#").append(taskId).append("] - ").append(DateUtils.getCurrentTime());
-            return log;
+    /**
+     * 恢复数据库中标记为开启的心跳检测（服务对正在检测的卡片不会重复启动）
+     */
+    public void startHeartbeatForActiveCards() {
+        Context context = contextRef.get();
+        if (context != null && hasActiveCards()) {
+            HeartbeatService.sync(context);
         }
     }
 
@@ -613,55 +360,85 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
         return true;
     }
 
-    private void processLoginSuccess(CardEntity card, int position) {
-        NetworkUtils.IpResult ipResult = NetworkUtils.getCurrentIPv4Address();
-        card.setLastIp(ipResult.ip != null ? ipResult.ip : "未获取");
-        if (ipResult.error != null) {
-            card.addLog("⚠️ IP获取失败: " + ipResult.error);
+    /**
+     * 认证服务器已返回 access_token，登录结果即可确认在线，不再额外探测网络状态
+     * 在线 IP 取自服务器响应，服务器未返回时才枚举本机网卡
+     */
+    private void processLoginSuccess(CardEntity card, LoginResult result) {
+        String ip = result.onlineIp;
+        if (ip.isEmpty()) {
+            NetworkUtils.IpResult ipResult = NetworkUtils.getCurrentIPv4Address();
+            ip = ipResult.ip;
+            if (ipResult.error != null) {
+                card.addLog(LogEventType.IP_FAILED, 0, ipResult.error);
+            }
+        }
+        card.setLastIp(ip != null ? ip : "未获取");
+        String timing = result.timingSummary();
+        if (timing != null) {
+            card.addLog(LogEventType.LOGIN_SUCCESS, 0, timing);
+        } else {
+            card.addLog(LogEventType.LOGIN_SUCCESS, 0);
         }
-        card.addLog("✅ 登录成功 - " + DateUtils.getCurrentTime());
         showToast("登录成功");
 
-        // 使用新的 Java 原生网络检测
-        NetworkUtils.ReauthResult initialCheck = NetworkUtils.isReauthenticationRequired();
-        card.addLog(buildNetworkLogMessage(initialCheck));
-
         executeDatabaseUpdate(card);
-        updateUIAfterLogin(position, ipResult.ip);
+        updateUIAfterLogin(card.getId(), ip);
     }
 
-    private void updateUIAfterLogin(int position, String newIp) {
+    private void updateUIAfterLogin(int cardId, String newIp) {
         Context context = contextRef.get();
         if (context instanceof AppCompatActivity) {
             ((AppCompatActivity) context).runOnUiThread(() -> {
-                updateCardIp(position, newIp);
-                disabledPositions.add(position);
-                notifyItemChanged(position);
-                new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                    disabledPositions.remove(position);
-                    notifyItemChanged(position);
-                }, 5000);
+                // 登录期间列表可能已变化，按卡片 ID 重新定位
+                List<CardEntity> cards = getCurrentList();
+                for (int i = 0; i < cards.size(); i++) {
+                    if (cards.get(i).getId() == cardId) {
+                        updateCardIp(i, newIp);
+                        break;
+                    }
+                }
             });
         }
     }
 
     private void processLoginFailure(CardEntity card, String error) {
-        card.addLog("登录失败 - " + error);
+        card.addLog(LogEventType.LOGIN_FAILED, 0, error);
         executeDatabaseUpdate(card);
         showToast("失败：" + error);
     }
 
+    /**
+     * 登录流程只会改变 IP，交给写入缓冲区与同一卡片的其他写入合并提交
+     * （检测计数由心跳服务维护，列表中的卡片对象可能已过时，不在此写回）
+     */
     private void executeDatabaseUpdate(CardEntity card) {
-        App.getDbExecutor().execute(() -> {
-            try {
-                AppDatabase.getDatabase(contextRef.get()).cardDao().updateCard(card);
-            } catch (Exception e) {
-                showToast("更新失败");
-            }
-        });
+        App.getInstance().getCardWriteBuffer().setLastIp(card.getId(), card.getLastIp());
     }
 
     //===========================UI状态更新模块=============================
+    /**
+     * 更新登录状态（主线程调用），只刷新账号状态有变化的卡片的登录按钮
+     * @param states 登录中或冷却中的账号
+     */
+    public void setLoginStates(Map<String, LoginCoordinator.LoginState> states) {
+        Map<String, LoginCoordinator.LoginState> previous = loginStates;
+        loginStates = states;
+        List<CardEntity> cards = getCurrentList();
+        for (int i = 0; i < cards.size(); i++) {
+            String account = accountOf(cards.get(i));
+            if (!Objects.equals(previous.get(account), states.get(account))) {
+                Bundle payload = new Bundle();
+                payload.putBoolean(PAYLOAD_LOGIN_STATE, true);
+                notifyItemChanged(i, payload);
+            }
+        }
+    }
+
+    private static String accountOf(CardEntity card) {
+        return LoginCoordinator.accountOf(card.getUsername(), card.getOperator());
+    }
+
     private void updateLoginButtonState(ViewHolder holder) {
         int position = holder.getBindingAdapterPosition();
 
@@ -675,8 +452,8 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
             return;
         }
 
-        // 更新按钮状态
-        boolean isDisabled = disabledPositions.contains(position);
+        // 登录中或冷却中的账号禁用登录按钮
+        boolean isDisabled = loginStates.containsKey(accountOf(getItem(position)));
         holder.binding.btnLogin.setEnabled(!isDisabled);
 
         // 动态设置按钮背景色
@@ -690,84 +467,7 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
         }
     }
 
-    //===========================网络检测模块=============================
-    private String buildNetworkLogMessage(NetworkUtils.ReauthResult result) {
-        StringBuilder log = new StringBuilder();
-        if (result.needReauth) {
-            log.append("⚠️ 需要重新认证");
-            if (result.error != null) {
-                log.append(" - 错误原因: ").append(result.error);
-            }
-        } else {
-            log.append("✅ 网络正常，无需登录");
-        }
-        log.append(" - ").append(DateUtils.getCurrentTime());
-        return log.toString();
-    }
-
-    //===========================自动重连模块=============================
-    private void autoRelogin(CardEntity card, int position) {
-        LoginBridge.nativeLogin(
-                card.getUsername() + card.getOperator(),
-                card.getPassword(),
-                true,
-                new LoginBridge.LoginCallback() {
-                    @Override
-                    public void onSuccess() {
-                        updateAfterAutoLogin(card, position);
-                    }
-
-                    @Override
-                    public void onFailure(String error) {
-                        handleAutoLoginFailure(card, error);
-                    }
-                }
-        );
-
-        // 记录日志
-        card.addLog("⏳ 发起自动重连 - " + DateUtils.getCurrentTime());
-        executeDatabaseUpdate(card);
-    }
-
-    private void updateAfterAutoLogin(CardEntity card, int position) {
-        NetworkUtils.IpResult ipResult = NetworkUtils.getCurrentIPv4Address();
-        card.setLastIp((ipResult.ip == null || ipResult.ip.isEmpty()) ? "未获取" : ipResult.ip);
-        card.addLog("✅ 自动登录成功 - " + DateUtils.getCurrentTime()); // 添加成功标记
-        executeDatabaseUpdate(card);
-        updateUIAfterAutoLogin(position, card.getLastIp());
-    }
-
-    private void updateUIAfterAutoLogin(int position, String ip) {
-        Context context = contextRef.get();
-        if (context instanceof AppCompatActivity) {
-            ((AppCompatActivity) context).runOnUiThread(() -> {
-                updateCardIp(position, ip);
-                notifyItemChanged(position);
-                showToast("自动登录成功");
-            });
-        }
-    }
-
-    private void handleAutoLoginFailure(CardEntity card, String error) {
-        card.addLog("❌ 自动登录失败: " + error);
-        executeDatabaseUpdate(card);
-        showToast("自动登录失败：" + error);
-    }
-
     //===========================其他核心方法=============================
-    @Override
-    public void onViewRecycled(@NonNull ViewHolder holder) {
-        super.onViewRecycled(holder);
-        int position = holder.getBindingAdapterPosition();
-
-        if (position != RecyclerView.NO_POSITION) {
-            stopHeartbeatCheck(position);
-
-        } else {
-            Log.w("CardAdapter", "回收视图时获取到无效位置");
-        }
-    }
-
     private void showToast(String msg) {
         Context context = contextRef.get();
         if (context instanceof AppCompatActivity) {
@@ -791,8 +491,10 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
     }
 
     private void deleteCard(CardEntity card) {
-        card.clearLogs();
         Context context = contextRef.get();
+        if (context != null && card.isHeartbeatActive()) {
+            HeartbeatService.stop(context, card.getId());
+        }
         if (context instanceof HistoryActivity) {
             ((HistoryActivity) context).getViewModel().deleteCard(card);
         }
@@ -802,46 +504,13 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
         Context context = contextRef.get();
         if (context instanceof AppCompatActivity) {
             AppCompatActivity activity = (AppCompatActivity) context;
-            AlertDialog.Builder builder = new AlertDialog.Builder(activity);
-            View dialogView = LayoutInflater.from(activity).inflate(R.layout.dialog_logs, null);
-
-            TextView tvLogs = dialogView.findViewById(R.id.tv_logs);
-            ScrollView scrollView = dialogView.findViewById(R.id.scrollView);
-            Button btnClear = dialogView.findViewById(R.id.btn_clear_logs);
-
-            // 初始化日志内容
-            updateLogsText(tvLogs, card.getLogs());
-
-            // 设置日志更新监听器
-            card.setOnLogsUpdatedListener(newLogs ->
-                    activity.runOnUiThread(() -> {
-                        updateLogsText(tvLogs, newLogs);
-                        scrollView.post(() -> scrollView.fullScroll(ScrollView.FOCUS_DOWN));
-                    })
-            );
-
-            // 清空日志按钮事件
-            btnClear.setOnClickListener(v -> clearCardLogs(card, tvLogs));
-
-            // 对话框关闭时移除监听器
-            builder.setView(dialogView)
-                    .setTitle("网络状态日志")
-                    .setNegativeButton("关闭", null)
-                    .show();
+            if (activity.getSupportFragmentManager().findFragmentByTag("logs") == null) {
+                CardLogsDialogFragment.newInstance(card.getId())
+                        .show(activity.getSupportFragmentManager(), "logs");
+            }
         }
     }
 
-    private void clearCardLogs(CardEntity card, TextView logView) {
-        App.getDbExecutor().execute(() -> {
-            card.clearLogs();
-            // 主线程更新UI
-            ((AppCompatActivity) contextRef.get()).runOnUiThread(() ->
-                    logView.setText("")
-            );
-            executeDatabaseUpdate(card);
-        });
-    }
-
     private void showEditDialog(CardEntity card, int position) {
         Bundle args = new Bundle();
         args.putParcelable("card", card);
@@ -896,8 +565,4 @@ public class CardAdapter extends ListAdapter<CardEntity, CardAdapter.ViewHolder>
                 return operator;
         }
     }
-
-    private void updateLogsText(TextView tvLogs, List<String> logs) {
-        tvLogs.setText(TextUtils.join("\n", logs));
-    }
 }
\ No newline at end of file
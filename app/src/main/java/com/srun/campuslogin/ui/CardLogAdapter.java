@@ -0,0 +1,106 @@
+package com.srun.campuslogin.ui;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.srun.campuslogin.R;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import java.util.ArrayList;
+import java.util.List;
+
+//===========================日志列表适配器=============================
+/**
+ * 功能：按行展示卡片日志，支持在头部插入更早的分页、在尾部追加新日志
+ * 所有方法须在主线程调用
+ */
+public class CardLogAdapter extends RecyclerView.Adapter<CardLogAdapter.ViewHolder> {
+    //===========================成员变量=============================
+    private final List<CardLogEntity> logs = new ArrayList<>();
+    private long newestId; // 已加载日志中的最大主键（AUTOINCREMENT 保证清空后也不会回退）
+
+    //===========================视图容器管理=============================
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvLog;
+
+        ViewHolder(TextView itemView) {
+            super(itemView);
+            this.tvLog = itemView;
+        }
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        TextView view = (TextView) LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_log, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.tvLog.setText(LogEventType.format(logs.get(position))); // 仅在展示时渲染文本
+    }
+
+    @Override
+    public int getItemCount() {
+        return logs.size();
+    }
+
+    //===========================数据更新=============================
+    /**
+     * 在头部插入更早的一页日志
+     * @param older 按时间正序排列的日志
+     */
+    public void prepend(List<CardLogEntity> older) {
+        if (older.isEmpty()) return;
+        for (CardLogEntity log : older) {
+            newestId = Math.max(newestId, log.getId());
+        }
+        logs.addAll(0, older);
+        notifyItemRangeInserted(0, older.size());
+    }
+
+    /**
+     * 在尾部追加新日志，已存在的条目（主键不大于当前最新）会被跳过
+     * @param newer 按插入顺序排列的日志
+     * @return 实际追加的条数
+     */
+    public int append(List<CardLogEntity> newer) {
+        int start = logs.size();
+        for (CardLogEntity log : newer) {
+            if (log.getId() > newestId) {
+                logs.add(log);
+                newestId = log.getId();
+            }
+        }
+        int added = logs.size() - start;
+        if (added > 0) {
+            notifyItemRangeInserted(start, added);
+        }
+        return added;
+    }
+
+    public void clear() {
+        int size = logs.size();
+        logs.clear();
+        notifyItemRangeRemoved(0, size);
+    }
+
+    //===========================游标访问=============================
+    /**
+     * @return 已加载的最旧日志，列表为空时返回 null
+     */
+    public CardLogEntity getOldest() {
+        return logs.isEmpty() ? null : logs.get(0);
+    }
+
+    /**
+     * @return 已加载过的日志中的最大主键，从未加载时返回 0
+     */
+    public long getNewestId() {
+        return newestId;
+    }
+}
@@ -1,10 +1,13 @@
 package com.srun.campuslogin.ui;
 
+import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.ViewCompat;
@@ -14,8 +17,13 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.srun.campuslogin.R;
+import com.srun.campuslogin.core.App;
+import com.srun.campuslogin.core.HeartbeatScheduler;
+import com.srun.campuslogin.data.history.HistoryExportWriter;
 import com.srun.campuslogin.databinding.ActivityHistoryBinding;
 import com.srun.campuslogin.ui.fragments.EditCardDialogFragment;
+import com.srun.campuslogin.ui.fragments.ExportLogsDialogFragment;
+import com.srun.campuslogin.utils.DateUtils;
 import com.srun.campuslogin.utils.VersionChecker;
 import com.srun.campuslogin.viewmodel.CardViewModel;
 import java.util.Collections;
@@ -35,6 +43,14 @@ public class HistoryActivity extends AppCompatActivity {
     private CardViewModel viewModel;          // 数据管理ViewModel
     private CardAdapter adapter;              // RecyclerView适配器
 
+    // 导出文件选择（每种格式的 MIME 类型不同，各注册一个）
+    private final ActivityResultLauncher<String> exportNdjsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(HistoryExportWriter.Format.NDJSON.mimeType),
+            uri -> onExportTargetChosen(uri, HistoryExportWriter.Format.NDJSON));
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(HistoryExportWriter.Format.CSV.mimeType),
+            uri -> onExportTargetChosen(uri, HistoryExportWriter.Format.CSV));
+
     //===========================生命周期方法=============================
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -93,6 +109,21 @@ public class HistoryActivity extends AppCompatActivity {
             }
         });
 
+        // 观察账号登录状态（登录中或冷却中时禁用对应卡片的登录按钮）
+        viewModel.getLoginStates().observe(this, states -> {
+            if (states != null && adapter != null) {
+                adapter.setLoginStates(states);
+            }
+        });
+
+        // 观察心跳调度器发布的提示（调度在独立线程，界面只接收结果）
+        HeartbeatScheduler scheduler = App.getInstance().getHeartbeatScheduler();
+        scheduler.getNotices().observe(this, notice -> {
+            if (notice != null) {
+                Toast.makeText(this, notice, Toast.LENGTH_SHORT).show();
+            }
+        });
+
         viewModel.getAllCards().observe(this, cards ->
                 adapter.submitList(cards, () ->
                         binding.rvHistory.post(() -> {
@@ -148,6 +179,9 @@ public class HistoryActivity extends AppCompatActivity {
                 showClearCacheConfirmationDialog()
         );
 
+        // 导出日志按钮
+        binding.fabExport.setOnClickListener(v -> showExportFormatDialog());
+
         // 联系按钮
         binding.fabContact.setOnClickListener(v -> showContactDialog());
     }
@@ -172,6 +206,35 @@ public class HistoryActivity extends AppCompatActivity {
                 .show();
     }
 
+    //===========================日志导出模块=============================
+    /**
+     * 功能：选择导出格式后由系统文件选择器创建目标文件
+     */
+    private void showExportFormatDialog() {
+        String[] formats = {"NDJSON（每行一条 JSON）", "CSV（表格）"};
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.export_logs)
+                .setItems(formats, (dialog, which) -> {
+                    HistoryExportWriter.Format format = which == 0
+                            ? HistoryExportWriter.Format.NDJSON : HistoryExportWriter.Format.CSV;
+                    String fileName = "campus-login-logs-"
+                            + DateUtils.getCurrentTime().replace(' ', '_').replace(':', '-')
+                            + "." + format.extension;
+                    (format == HistoryExportWriter.Format.NDJSON ? exportNdjsonLauncher : exportCsvLauncher)
+                            .launch(fileName);
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void onExportTargetChosen(Uri uri, HistoryExportWriter.Format format) {
+        if (uri == null) return; // 用户取消了文件选择
+        if (getSupportFragmentManager().findFragmentByTag("export") == null) {
+            ExportLogsDialogFragment.newInstance(uri, format)
+                    .show(getSupportFragmentManager(), "export");
+        }
+    }
+
     //===========================对外接口模块=============================
     /**
      * 功能：提供ViewModel实例供其他组件调用
@@ -181,11 +244,19 @@ public class HistoryActivity extends AppCompatActivity {
         return viewModel;
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // 页面不可见时提交缓冲中的卡片写入，避免进程被回收时丢失
+        App.getInstance().getCardWriteBuffer().flushAsync();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (adapter != null) {
-            adapter.stopAllHeartbeatChecks();
+        // 退出页面时取消手动登录，配置变更重建时保留
+        if (adapter != null && isFinishing()) {
+            adapter.cancelPendingLogins();
         }
     }
 
@@ -0,0 +1,102 @@
+package com.srun.campuslogin.ui;
+
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.style.BackgroundColorSpan;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
+import com.srun.campuslogin.R;
+import com.srun.campuslogin.data.model.LogEventType;
+import com.srun.campuslogin.data.model.LogSearchResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//===========================日志检索结果适配器=============================
+/**
+ * 功能：按时间倒序展示检索结果，高亮命中的关键词，滚动到底部时追加下一页
+ * 所有方法须在主线程调用
+ */
+public class LogSearchAdapter extends RecyclerView.Adapter<CardLogAdapter.ViewHolder> {
+    //===========================成员变量=============================
+    private final List<LogSearchResult> results = new ArrayList<>();
+    private List<String> terms = new ArrayList<>();
+    private boolean showCard; // 跨卡片检索时在行首标注学号
+
+    //===========================视图容器管理=============================
+    @NonNull
+    @Override
+    public CardLogAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        TextView view = (TextView) LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_log, parent, false);
+        return new CardLogAdapter.ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CardLogAdapter.ViewHolder holder, int position) {
+        LogSearchResult result = results.get(position);
+        String text = LogEventType.format(result.toLog());
+        if (showCard) {
+            text = "[" + (result.studentId != null ? result.studentId : "#" + result.cardId) + "] " + text;
+        }
+        int color = ContextCompat.getColor(holder.tvLog.getContext(), R.color.search_highlight);
+        holder.tvLog.setText(highlight(text, terms, color));
+    }
+
+    @Override
+    public int getItemCount() {
+        return results.size();
+    }
+
+    //===========================数据更新=============================
+    /**
+     * 开始新的检索，清空旧结果
+     * @param terms    需要高亮的关键词
+     * @param showCard 是否在行首标注所属卡片
+     */
+    public void reset(List<String> terms, boolean showCard) {
+        this.terms = terms;
+        this.showCard = showCard;
+        int size = results.size();
+        results.clear();
+        notifyItemRangeRemoved(0, size);
+    }
+
+    /**
+     * 在尾部追加一页（更早的）结果
+     */
+    public void appendPage(List<LogSearchResult> page) {
+        int start = results.size();
+        results.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    /**
+     * @return 已加载的最后一条（最旧）结果，列表为空时返回 null
+     */
+    public LogSearchResult getLast() {
+        return results.isEmpty() ? null : results.get(results.size() - 1);
+    }
+
+    //===========================关键词高亮=============================
+    private static CharSequence highlight(String text, List<String> terms, int color) {
+        if (terms.isEmpty()) return text;
+        SpannableString spannable = new SpannableString(text);
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            String needle = term.toLowerCase(Locale.ROOT);
+            int from = 0;
+            int index;
+            while ((index = lower.indexOf(needle, from)) >= 0) {
+                spannable.setSpan(new BackgroundColorSpan(color), index, index + needle.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                from = index + needle.length();
+            }
+        }
+        return spannable;
+    }
+}
@@ -0,0 +1,318 @@
+package com.srun.campuslogin.ui.fragments;
+
+import android.app.Dialog;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.DialogFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.room.InvalidationTracker;
+import com.srun.campuslogin.R;
+import com.srun.campuslogin.core.App;
+import com.srun.campuslogin.data.AppDatabase;
+import com.srun.campuslogin.data.dao.CardLogDao;
+import com.srun.campuslogin.data.dao.LogSearchDao;
+import com.srun.campuslogin.data.history.HistoryStore;
+import com.srun.campuslogin.data.history.LogTokenizer;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogSearchResult;
+import com.srun.campuslogin.ui.CardLogAdapter;
+import com.srun.campuslogin.ui.LogSearchAdapter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+//===========================卡片日志对话框核心类=============================
+/**
+ * 功能：分页展示单张卡片的网络状态日志
+ * 核心职责：
+ * 1. 打开时只加载最近一页日志，滚动到顶部时按键集分页加载更早的日志，
+ *    明细行加载完后继续逐块加载已封存的历史块
+ * 2. 监听 card_logs 表变化，只追加新增的行
+ * 3. 对话框销毁时注销表监听，不持有任何卡片实例
+ * 4. 输入关键词后切换为全文检索结果（可选检索全部卡片），结果分页加载并高亮
+ */
+public class CardLogsDialogFragment extends DialogFragment {
+    //===========================常量定义=============================
+    private static final String ARG_CARD_ID = "card_id";
+    private static final int PAGE_SIZE = 50;
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+
+    //===========================成员变量=============================
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int cardId;
+    private AppDatabase database;
+    private CardLogDao logDao;
+    private HistoryStore historyStore;
+    private CardLogAdapter logAdapter;
+    private RecyclerView rvLogs;
+    private InvalidationTracker.Observer logsObserver;
+    private LogSearchDao searchDao;
+    private LogSearchAdapter searchAdapter;
+    private RecyclerView rvSearchResults;
+    private EditText etSearch;
+    private CheckBox cbSearchAll;
+    private String searchMatch;        // 当前检索的 MATCH 表达式，null 表示未在检索（主线程访问）
+    private int searchGeneration;      // 每次新检索递增，丢弃过期的分页结果（主线程访问）
+    private boolean loadingSearch;     // 是否正在加载检索分页（主线程访问）
+    private boolean searchExhausted;   // 检索结果是否已全部加载（主线程访问）
+    private final Runnable searchRunnable = this::startSearch;
+    private boolean initialLoaded;   // 首屏是否已加载（主线程访问）
+    private boolean loadingOlder;    // 是否正在加载更早的分页（主线程访问）
+    private boolean reachedOldestRaw; // 明细行是否已加载完，之后改为加载历史块（主线程访问）
+    private boolean reachedOldest;   // 是否已加载到最早的日志（主线程访问）
+    private long oldestBlockId = Long.MAX_VALUE; // 已加载最旧历史块的主键（主线程访问）
+
+    //===========================实例创建=============================
+    public static CardLogsDialogFragment newInstance(int cardId) {
+        Bundle args = new Bundle();
+        args.putInt(ARG_CARD_ID, cardId);
+        CardLogsDialogFragment fragment = new CardLogsDialogFragment();
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    //===========================对话框生命周期管理=============================
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(Bundle savedInstanceState) {
+        cardId = requireArguments().getInt(ARG_CARD_ID, -1);
+        database = App.getInstance().getDatabase();
+        logDao = database.cardLogDao();
+        historyStore = App.getInstance().getHistoryStore();
+        searchDao = database.logSearchDao();
+
+        View view = LayoutInflater.from(requireActivity()).inflate(R.layout.dialog_logs, null);
+        rvLogs = view.findViewById(R.id.rv_logs);
+        Button btnClear = view.findViewById(R.id.btn_clear_logs);
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireActivity());
+        layoutManager.setStackFromEnd(true);
+        logAdapter = new CardLogAdapter();
+        rvLogs.setLayoutManager(layoutManager);
+        rvLogs.setAdapter(logAdapter);
+
+        // 滚动到顶部时加载更早的日志
+        rvLogs.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy < 0 && !recyclerView.canScrollVertically(-1)) {
+                    loadOlderPage();
+                }
+            }
+        });
+
+        btnClear.setOnClickListener(v -> clearLogs());
+
+        setupSearch(view);
+
+        loadLatestPage();
+        subscribeNewLogs();
+
+        return new AlertDialog.Builder(requireActivity())
+                .setView(view)
+                .setTitle("网络状态日志")
+                .setNegativeButton("关闭", null)
+                .create();
+    }
+
+    @Override
+    public void onDestroy() {
+        unsubscribeNewLogs();
+        mainHandler.removeCallbacksAndMessages(null);
+        super.onDestroy();
+    }
+
+    //===========================分页加载模块=============================
+    private void loadLatestPage() {
+        App.getDbExecutor().execute(() -> {
+            List<CardLogEntity> page = logDao.getRecentLogs(cardId, PAGE_SIZE);
+            mainHandler.post(() -> {
+                if (!isAdded()) return;
+                logAdapter.prepend(page);
+                reachedOldestRaw = page.size() < PAGE_SIZE;
+                initialLoaded = true;
+                scrollToBottom();
+                // 首屏查询与监听注册之间可能有新日志写入，补拉一次
+                fetchNewLogs();
+            });
+        });
+    }
+
+    private void loadOlderPage() {
+        if (!initialLoaded || loadingOlder || reachedOldest) return;
+        if (reachedOldestRaw) {
+            loadOlderBlock();
+            return;
+        }
+        CardLogEntity oldest = logAdapter.getOldest();
+        if (oldest == null) return;
+
+        loadingOlder = true;
+        long beforeTime = oldest.getTimestamp();
+        long beforeId = oldest.getId();
+        App.getDbExecutor().execute(() -> {
+            List<CardLogEntity> page = logDao.getLogsBefore(cardId, beforeTime, beforeId, PAGE_SIZE);
+            Collections.reverse(page); // 查询结果为倒序，转为正序后插入头部
+            mainHandler.post(() -> {
+                loadingOlder = false;
+                if (!isAdded()) return;
+                reachedOldestRaw = page.size() < PAGE_SIZE;
+                logAdapter.prepend(page);
+            });
+        });
+    }
+
+    /**
+     * 明细行加载完后，每次向前解码一个历史块
+     */
+    private void loadOlderBlock() {
+        loadingOlder = true;
+        long beforeBlockId = oldestBlockId;
+        App.getDbExecutor().execute(() -> {
+            HistoryStore.DecodedBlock block = historyStore.readBlockBefore(cardId, beforeBlockId);
+            mainHandler.post(() -> {
+                loadingOlder = false;
+                if (!isAdded()) return;
+                if (block == null) {
+                    reachedOldest = true;
+                    return;
+                }
+                oldestBlockId = block.blockId;
+                logAdapter.prepend(block.logs);
+            });
+        });
+    }
+
+    //===========================增量更新模块=============================
+    private void subscribeNewLogs() {
+        logsObserver = new InvalidationTracker.Observer("card_logs") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                mainHandler.post(() -> fetchNewLogs());
+            }
+        };
+        database.getInvalidationTracker().addObserver(logsObserver);
+    }
+
+    private void unsubscribeNewLogs() {
+        if (logsObserver != null) {
+            database.getInvalidationTracker().removeObserver(logsObserver);
+            logsObserver = null;
+        }
+    }
+
+    private void fetchNewLogs() {
+        if (!initialLoaded || !isAdded()) return;
+        long afterId = logAdapter.getNewestId();
+        App.getDbExecutor().execute(() -> {
+            List<CardLogEntity> newer = logDao.getLogsAfter(cardId, afterId);
+            if (newer.isEmpty()) return;
+            mainHandler.post(() -> {
+                if (!isAdded()) return;
+                boolean atBottom = !rvLogs.canScrollVertically(1);
+                if (logAdapter.append(newer) > 0 && atBottom) {
+                    scrollToBottom();
+                }
+            });
+        });
+    }
+
+    //===========================全文检索模块=============================
+    private void setupSearch(View view) {
+        etSearch = view.findViewById(R.id.et_search_logs);
+        cbSearchAll = view.findViewById(R.id.cb_search_all_cards);
+        rvSearchResults = view.findViewById(R.id.rv_search_results);
+        searchAdapter = new LogSearchAdapter();
+        rvSearchResults.setLayoutManager(new LinearLayoutManager(requireActivity()));
+        rvSearchResults.setAdapter(searchAdapter);
+
+        // 滚动到底部时加载更早的检索结果
+        rvSearchResults.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && !recyclerView.canScrollVertically(1)) {
+                    loadSearchPage();
+                }
+            }
+        });
+
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                mainHandler.removeCallbacks(searchRunnable);
+                mainHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
+            }
+        });
+        cbSearchAll.setOnCheckedChangeListener((button, checked) -> startSearch());
+    }
+
+    private void startSearch() {
+        mainHandler.removeCallbacks(searchRunnable);
+        String input = etSearch.getText().toString();
+        searchMatch = LogTokenizer.toMatchQuery(input);
+        searchGeneration++;
+        loadingSearch = false;
+        searchExhausted = false;
+
+        boolean searching = searchMatch != null;
+        rvLogs.setVisibility(searching ? View.GONE : View.VISIBLE);
+        rvSearchResults.setVisibility(searching ? View.VISIBLE : View.GONE);
+        searchAdapter.reset(LogTokenizer.splitTerms(input), cbSearchAll.isChecked());
+        if (searching) {
+            loadSearchPage();
+        }
+    }
+
+    private void loadSearchPage() {
+        if (searchMatch == null || loadingSearch || searchExhausted) return;
+        LogSearchResult last = searchAdapter.getLast();
+        long beforeTime = last != null ? last.timestamp : Long.MAX_VALUE;
+        long beforeRow = last != null ? last.rowId : Long.MAX_VALUE;
+        String match = searchMatch;
+        int scope = cbSearchAll.isChecked() ? -1 : cardId;
+        int generation = searchGeneration;
+
+        loadingSearch = true;
+        App.getDbExecutor().execute(() -> {
+            List<LogSearchResult> page = searchDao.search(match, scope, beforeTime, beforeRow, PAGE_SIZE);
+            mainHandler.post(() -> {
+                if (!isAdded() || generation != searchGeneration) return; // 已开始新的检索
+                loadingSearch = false;
+                searchExhausted = page.size() < PAGE_SIZE;
+                searchAdapter.appendPage(page);
+            });
+        });
+    }
+
+    //===========================日志清理模块=============================
+    private void clearLogs() {
+        logAdapter.clear();
+        reachedOldestRaw = true;
+        reachedOldest = true;
+        App.getDbExecutor().execute(() -> historyStore.clear(cardId));
+    }
+
+    private void scrollToBottom() {
+        int count = logAdapter.getItemCount();
+        if (count > 0) {
+            rvLogs.scrollToPosition(count - 1);
+        }
+    }
+}
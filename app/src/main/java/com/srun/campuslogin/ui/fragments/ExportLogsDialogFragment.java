@@ -0,0 +1,143 @@
+package com.srun.campuslogin.ui.fragments;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.os.ParcelFileDescriptor;
+import android.provider.DocumentsContract;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.DialogFragment;
+import com.srun.campuslogin.R;
+import com.srun.campuslogin.core.App;
+import com.srun.campuslogin.data.history.HistoryExportWriter;
+import com.srun.campuslogin.data.history.HistoryExporter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+//===========================日志导出对话框核心类=============================
+/**
+ * 功能：将全部卡片日志导出到用户选择的文件，并展示进度
+ * 核心职责：
+ * 1. 在数据库线程先提交缓冲写入，再流式导出到 SAF 文档
+ * 2. 进度按固定步长回调，主线程只更新进度条
+ * 3. 点击取消或对话框销毁时取消导出，并删除未写完的文件
+ */
+public class ExportLogsDialogFragment extends DialogFragment {
+    //===========================常量定义=============================
+    private static final String TAG = "ExportLogs";
+    private static final String ARG_URI = "uri";
+    private static final String ARG_FORMAT = "format";
+
+    //===========================成员变量=============================
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CancellationSignal cancellationSignal = new CancellationSignal();
+    private ProgressBar progressBar;
+    private TextView tvProgress;
+
+    //===========================实例创建=============================
+    public static ExportLogsDialogFragment newInstance(Uri uri, HistoryExportWriter.Format format) {
+        Bundle args = new Bundle();
+        args.putParcelable(ARG_URI, uri);
+        args.putString(ARG_FORMAT, format.name());
+        ExportLogsDialogFragment fragment = new ExportLogsDialogFragment();
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    //===========================对话框生命周期管理=============================
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(Bundle savedInstanceState) {
+        View view = LayoutInflater.from(requireActivity()).inflate(R.layout.dialog_export, null);
+        progressBar = view.findViewById(R.id.progress_export);
+        tvProgress = view.findViewById(R.id.tv_export_progress);
+        setCancelable(false);
+
+        if (savedInstanceState == null) {
+            Uri uri = requireArguments().getParcelable(ARG_URI);
+            HistoryExportWriter.Format format =
+                    HistoryExportWriter.Format.valueOf(requireArguments().getString(ARG_FORMAT));
+            startExport(requireContext().getApplicationContext(), uri, format);
+        } else {
+            // 重建后原导出已随旧实例取消，直接关闭
+            mainHandler.post(this::dismissAllowingStateLoss);
+        }
+
+        return new AlertDialog.Builder(requireActivity())
+                .setView(view)
+                .setTitle(R.string.export_logs)
+                .setNegativeButton("取消", (dialog, which) -> cancellationSignal.cancel())
+                .create();
+    }
+
+    @Override
+    public void onDestroy() {
+        cancellationSignal.cancel();
+        mainHandler.removeCallbacksAndMessages(null);
+        super.onDestroy();
+    }
+
+    //===========================导出执行模块=============================
+    private void startExport(Context appContext, Uri uri, HistoryExportWriter.Format format) {
+        App.getDbExecutor().execute(() -> {
+            String message;
+            try {
+                App.getInstance().getCardWriteBuffer().flushNow();
+                long count = exportTo(appContext, uri, format);
+                message = appContext.getString(R.string.export_success, count);
+            } catch (OperationCanceledException e) {
+                deleteQuietly(appContext, uri);
+                message = appContext.getString(R.string.export_cancelled);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "导出失败", e);
+                deleteQuietly(appContext, uri);
+                message = appContext.getString(R.string.export_failure, e.getMessage());
+            }
+            String result = message;
+            mainHandler.post(() -> {
+                Toast.makeText(appContext, result, Toast.LENGTH_SHORT).show();
+                if (isAdded()) dismissAllowingStateLoss();
+            });
+        });
+    }
+
+    private long exportTo(Context appContext, Uri uri, HistoryExportWriter.Format format) throws IOException {
+        ParcelFileDescriptor pfd = appContext.getContentResolver().openFileDescriptor(uri, "wt");
+        if (pfd == null) {
+            throw new FileNotFoundException(uri.toString());
+        }
+        // AutoCloseOutputStream 的通道关闭时一并关闭文件描述符
+        return new HistoryExporter(App.getInstance().getDatabase()).export(
+                new ParcelFileDescriptor.AutoCloseOutputStream(pfd).getChannel(),
+                format,
+                cancellationSignal,
+                (exported, total) -> mainHandler.post(() -> updateProgress(exported, total)));
+    }
+
+    private void updateProgress(long exported, long total) {
+        if (!isAdded() || total <= 0) return;
+        progressBar.setIndeterminate(false);
+        progressBar.setProgress((int) (exported * progressBar.getMax() / total));
+        tvProgress.setText(getString(R.string.export_progress, exported, total));
+    }
+
+    private static void deleteQuietly(Context appContext, Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(appContext.getContentResolver(), uri);
+        } catch (Exception e) {
+            Log.w(TAG, "未写完的导出文件删除失败: " + e.getMessage());
+        }
+    }
+}
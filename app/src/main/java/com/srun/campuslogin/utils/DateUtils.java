@@ -26,4 +26,17 @@ public class DateUtils {
         );
         return formatter.format(new Date());
     }
+
+    /**
+     * 格式化指定时间（线程安全）
+     * @param epochMillis epoch 毫秒
+     * @return 格式：yyyy-MM-dd HH:mm:ss
+     */
+    public static String format(long epochMillis) {
+        SimpleDateFormat formatter = Objects.requireNonNull(
+                THREAD_LOCAL_FORMATTER.get(),
+                "SimpleDateFormat 实例未正确初始化"
+        );
+        return formatter.format(new Date(epochMillis));
+    }
 }
\ No newline at end of file
@@ -4,37 +4,116 @@ import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.os.IBinder;
+import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.core.app.NotificationCompat;
+import androidx.lifecycle.Observer;
 import com.srun.campuslogin.R;
-import com.srun.campuslogin.ui.CardAdapter;
+import com.srun.campuslogin.core.App;
+import com.srun.campuslogin.core.HeartbeatScheduler;
+import com.srun.campuslogin.core.HeartbeatState;
+import com.srun.campuslogin.data.dao.CardDao;
+import com.srun.campuslogin.data.model.CardEntity;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+//===========================断线检测服务=============================
+/**
+ * 功能：持有心跳检测引擎的前台服务，界面关闭后检测按原节奏继续
+ * 核心职责：
+ * 1. 通过启动命令（开启 / 关闭 / 同步）驱动 {@link HeartbeatScheduler}，命令只携带卡片 ID，数据从数据库读取
+ * 2. 命令在单独的命令线程按到达顺序执行；没有卡片在检测时停止自身
+ * 3. 被系统回收后以空 Intent 重启（START_STICKY），按数据库中的心跳开关恢复检测
+ * 4. 通知随检测状态更新；销毁时停止检测并立即提交缓冲写入（在数据库线程执行，不阻塞主线程）
+ */
 public class HeartbeatService extends Service {
+    //===========================常量定义=============================
+    private static final String TAG = "HeartbeatService";
     private static final String CHANNEL_ID = "HeartbeatChannel";
-    private CardAdapter.HeartbeatTask currentTask;
+    private static final String ACTION_START = "com.srun.campuslogin.action.HEARTBEAT_START";
+    private static final String ACTION_STOP = "com.srun.campuslogin.action.HEARTBEAT_STOP";
+    private static final String ACTION_SYNC = "com.srun.campuslogin.action.HEARTBEAT_SYNC";
+    private static final String EXTRA_CARD_ID = "card_id";
+    private static final long FLUSH_TIMEOUT_MS = 3_000; // 命令线程读取卡片前等待缓冲写入落库的最长时间
+
+    //===========================成员变量=============================
+    private final Observer<HeartbeatState> stateObserver = this::updateNotification;
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(r ->
+            new Thread(r, "heartbeat-command"));
+    private HeartbeatScheduler scheduler;
+    private CardDao cardDao;
+
+    //===========================启动入口=============================
+    /**
+     * 开启指定卡片的断线检测（服务未运行时启动）
+     */
+    public static void start(Context context, int cardId) {
+        send(context, new Intent(context, HeartbeatService.class)
+                .setAction(ACTION_START)
+                .putExtra(EXTRA_CARD_ID, cardId));
+    }
+
+    /**
+     * 关闭指定卡片的断线检测，没有其他卡片时服务随之停止
+     */
+    public static void stop(Context context, int cardId) {
+        send(context, new Intent(context, HeartbeatService.class)
+                .setAction(ACTION_STOP)
+                .putExtra(EXTRA_CARD_ID, cardId));
+    }
+
+    /**
+     * 按数据库中的心跳开关恢复检测（已在检测的卡片不受影响）
+     */
+    public static void sync(Context context) {
+        send(context, new Intent(context, HeartbeatService.class).setAction(ACTION_SYNC));
+    }
+
+    private static void send(Context context, Intent intent) {
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                context.startForegroundService(intent);
+            } else {
+                context.startService(intent);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "服务启动失败: " + e.getMessage());
+        }
+    }
 
     @Override
     public void onCreate() {
         super.onCreate();
+        scheduler = App.getInstance().getHeartbeatScheduler();
+        cardDao = App.getInstance().getDatabase().cardDao();
         // 初始化通知渠道（Android O+）
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             createNotificationChannel();
         }
-        updateNotification(-1); // 默认显示通用信息
+        updateNotification(HeartbeatState.IDLE); // 默认显示通用信息
+        // 通知随共享检测循环的状态更新（LiveData 回调在主线程）
+        scheduler.getState().observeForever(stateObserver);
     }
 
     //=========================== 通知管理 ===========================
-    public void updateNotification(int cardId) {
-        String contentTitle = cardId == -1 ?
-                "校园网断线检测" : "检测卡片 #" + cardId;
+    private void updateNotification(HeartbeatState state) {
+        String contentTitle = state.isActive() ?
+                "正在检测 " + state.activeCardIds.size() + " 张卡片" : "校园网断线检测";
+        String contentText = state.lastCheckAt > 0 ?
+                "最后检测时间：" + DateUtils.format(state.lastCheckAt) + (state.networkOk ? "（正常）" : "（需要认证）")
+                : "等待首次检测";
 
         Notification notification = buildBaseNotification()
                 .setContentTitle(contentTitle)
-                .setContentText("最后检测时间：" + System.currentTimeMillis())
+                .setContentText(contentText)
                 .build();
 
         startForeground(1, notification);
@@ -58,31 +137,71 @@ public class HeartbeatService extends Service {
         getSystemService(NotificationManager.class).createNotificationChannel(channel);
     }
 
-    //=========================== 任务管理 ===========================
-    public void setCurrentTask(CardAdapter.HeartbeatTask task) {
-        if (this.currentTask != null && this.currentTask.isRunning()) {
-            this.currentTask.stop();
-        }
-        this.currentTask = task;
-        if (task != null) {
-            updateNotification(task.getCardId());
-        }
-    }
-
+    //=========================== 服务销毁 ===========================
+    /**
+     * 服务是检测引擎的唯一驱动者，销毁即停止全部检测
+     */
     @Override
     public void onDestroy() {
-        if (currentTask != null && currentTask.isRunning()) {
-            currentTask.stop();
-        }
+        commandExecutor.shutdownNow();
+        scheduler.stopAll();
+        scheduler.getState().removeObserver(stateObserver);
+        // 服务销毁后进程随时可能被回收，立即把缓冲中的计数与日志及本小时的调用耗时摘要交给数据库线程落库；
+        // 不在主线程等待写入完成，进程通常不会在几十毫秒内被回收
+        App.getLatencyRecorder().flush();
+        App.getInstance().getCardWriteBuffer().flushAsync();
         super.onDestroy();
     }
 
     //=========================== 服务生命周期 ========================
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
+        String action = intent != null ? intent.getAction() : null;
+        int cardId = intent != null ? intent.getIntExtra(EXTRA_CARD_ID, -1) : -1;
+        commandExecutor.execute(() -> handleCommand(action, cardId, startId));
         return START_STICKY;
     }
 
+    /**
+     * 在命令线程执行（可读数据库并等待调度器完成），之后检测卡片为空则停止服务
+     * @param startId 本次命令的启动 ID，只有它是最新命令时 stopSelf 才会生效
+     */
+    private void handleCommand(@Nullable String action, int cardId, int startId) {
+        Future<Integer> result;
+        if (!ACTION_STOP.equals(action)) {
+            // 心跳开关经写入缓冲区提交，读取前先落库，保证读到的是最新状态
+            App.getInstance().getCardWriteBuffer().flushBlocking(FLUSH_TIMEOUT_MS);
+        }
+        if (ACTION_START.equals(action)) {
+            CardEntity card = cardDao.getById(cardId);
+            if (card == null || !card.isHeartbeatActive()) {
+                result = scheduler.stop(cardId); // 卡片已删除或开关已关闭
+            } else {
+                result = scheduler.start(cardId, card.getHeartbeatCounter());
+            }
+        } else if (ACTION_STOP.equals(action)) {
+            result = scheduler.stop(cardId);
+        } else {
+            // ACTION_SYNC 或系统重启服务（空 Intent）
+            Map<Integer, Integer> counters = new LinkedHashMap<>();
+            for (CardEntity card : cardDao.getHeartbeatActiveCards()) {
+                counters.put(card.getId(), card.getHeartbeatCounter());
+            }
+            result = scheduler.sync(counters);
+        }
+
+        try {
+            if (result.get() == 0) {
+                Log.d(TAG, "没有卡片在检测，停止服务");
+                stopSelf(startId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "检测命令执行失败: " + e.getMessage());
+        }
+    }
+
     @Nullable
     @Override
     public IBinder onBind(Intent intent) {
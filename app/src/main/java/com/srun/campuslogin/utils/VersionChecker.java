@@ -66,11 +66,11 @@ public class VersionChecker {
         ExecutorService networkExecutor = App.getNetworkExecutor();
         networkExecutor.execute(() -> {
             try {
-                OkHttpClient client = new OkHttpClient.Builder()
+                OkHttpClient client = App.getHttpClient().newBuilder()
                         .connectTimeout(15, TimeUnit.SECONDS)
                         .readTimeout(15, TimeUnit.SECONDS)
                         .build();
-                Request request = new Request.Builder().url(GITEE_API_URL).build();
+                Request request = new Request.Builder().url(GITEE_API_URL).tag(String.class, "version").build();
 
                 try (Response response = client.newCall(request).execute()) {
                     processApiResponse(context, response);
@@ -0,0 +1,73 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+//===========================204 探测策略=============================
+/**
+ * 请求返回 204 的连通性检测地址：
+ * 1. 204 视为在线（重定向头指向登录页时除外）
+ * 2. 3xx 视为被门户劫持；200 时用 {@link KeywordScanner} 流式扫描响应体开头，命中认证页关键字视为被劫持
+ * 3. 其余响应码与网络异常无法判断
+ * 正常情况下响应无内容，连接随即归还连接池，下次探测复用同一连接
+ */
+public class HttpStatusStrategy implements ProbeStrategy {
+    //===========================成员变量=============================
+    private final OkHttpClient client;
+    private final String name;
+    private final Request request;
+    private final KeywordScanner portalKeywords;
+    private final int scanLimitBytes;
+
+    /**
+     * @param client         不跟随重定向的探测客户端，见 {@link PortalProbe#newProbeClient(OkHttpClient, int)}
+     * @param portalKeywords 认证页关键字
+     * @param scanLimitBytes 响应体最多扫描的字节数
+     */
+    public HttpStatusStrategy(OkHttpClient client, String name, String url,
+                              KeywordScanner portalKeywords, int scanLimitBytes) {
+        this.client = client;
+        this.name = name;
+        this.request = new Request.Builder().url(url).tag(String.class, name).build(); // 标签用于耗时统计
+        this.portalKeywords = portalKeywords;
+        this.scanLimitBytes = scanLimitBytes;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ProbeOutcome probe(int timeoutMs) throws IOException {
+        Call call = client.newCall(request);
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+        try (Response response = call.execute()) {
+            int responseCode = response.code();
+            String location = response.header("Location");
+            if (responseCode == 204) {
+                if (location != null && location.contains("login")) {
+                    return ProbeOutcome.needAuth("检测到登录重定向: " + location);
+                }
+                return ProbeOutcome.online(null);
+            }
+            if (responseCode >= 300 && responseCode < 400) {
+                return ProbeOutcome.needAuth("重定向 " + responseCode + (location != null ? ": " + location : ""));
+            }
+            if (responseCode == 200) {
+                ResponseBody body = response.body();
+                int hit = body != null ? portalKeywords.scan(body.byteStream(), scanLimitBytes) : -1;
+                if (hit >= 0) {
+                    return ProbeOutcome.needAuth("检测到认证页面: " + portalKeywords.getKeywords().get(hit));
+                }
+                return ProbeOutcome.inconclusive("响应内容异常");
+            }
+            return ProbeOutcome.inconclusive("响应码异常: " + responseCode);
+        }
+    }
+}
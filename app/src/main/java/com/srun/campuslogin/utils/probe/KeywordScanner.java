@@ -0,0 +1,204 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+//===========================关键字扫描器=============================
+/**
+ * 功能：在字节流中同时查找多个关键字（Aho–Corasick 自动机），用于识别认证页面
+ * 核心职责：
+ * 1. 关键字按指定字符集编码为字节后建表，扫描时不解码响应体，每个字节只做一次查表
+ * 2. 同一关键字可按多个字符集编码（如 UTF-8 与 GBK 页面）；纯 ASCII 关键字可忽略大小写，
+ *    其余关键字按字节精确匹配，避免 GBK 尾字节落在字母区间时误判
+ * 3. 流式读取，找到第一个关键字或读满上限即停止，内存占用与页面大小无关
+ * 线程安全：构建后只读，可在多个线程同时扫描；每次扫描使用独立的 {@link Cursor}
+ */
+public final class KeywordScanner {
+    //===========================常量定义=============================
+    private static final int ALPHABET = 256;
+    private static final int READ_BUFFER_SIZE = 2048;
+
+    //===========================成员变量=============================
+    private final List<String> keywords;
+    private final int[] transitions; // 完整状态转移表：transitions[state * 256 + byte]
+    private final int[] matches;     // 每个状态命中的关键字下标（取最小者），-1 表示无
+
+    /**
+     * @param keywords        关键字（非空）
+     * @param ignoreAsciiCase 纯 ASCII 关键字是否忽略大小写
+     * @param charsets        关键字的编码字符集，至少一个
+     */
+    public KeywordScanner(List<String> keywords, boolean ignoreAsciiCase, Charset... charsets) {
+        if (keywords.isEmpty() || charsets.length == 0) {
+            throw new IllegalArgumentException("关键字与字符集都不能为空");
+        }
+        this.keywords = Collections.unmodifiableList(new ArrayList<>(keywords));
+
+        // 1. 构建字典树（每个关键字在每个字符集下各一条路径）
+        List<int[]> children = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        children.add(newRow());
+        outputs.add(-1);
+        for (int index = 0; index < keywords.size(); index++) {
+            String keyword = keywords.get(index);
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("关键字不能为空字符串");
+            }
+            for (Charset charset : charsets) {
+                byte[] bytes = keyword.getBytes(charset);
+                boolean foldCase = ignoreAsciiCase && isAscii(bytes);
+                int state = 0;
+                for (byte b : bytes) {
+                    int c = foldCase ? toLower(b & 0xff) : b & 0xff;
+                    int next = children.get(state)[c];
+                    if (next < 0) {
+                        next = children.size();
+                        children.get(state)[c] = next;
+                        children.add(newRow());
+                        outputs.add(-1);
+                    }
+                    if (foldCase && c >= 'a' && c <= 'z') {
+                        children.get(state)[c - ('a' - 'A')] = next; // 大写字母指向同一状态
+                    }
+                    state = next;
+                }
+                if (outputs.get(state) < 0 || outputs.get(state) > index) {
+                    outputs.set(state, index);
+                }
+            }
+        }
+
+        // 2. 按层次遍历计算失配链接，同时补全为完整转移表
+        int stateCount = children.size();
+        transitions = new int[stateCount * ALPHABET];
+        matches = new int[stateCount];
+        int[] fail = new int[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            matches[i] = outputs.get(i);
+        }
+        boolean[] queued = new boolean[stateCount]; // 忽略大小写时一个状态有两条入边
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = children.get(0)[c];
+            if (child < 0) {
+                transitions[c] = 0;
+            } else {
+                transitions[c] = child;
+                if (!queued[child]) {
+                    queued[child] = true;
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matches[state] = earlier(matches[state], matches[fail[state]]);
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = children.get(state)[c];
+                if (child < 0) {
+                    transitions[state * ALPHABET + c] = transitions[fail[state] * ALPHABET + c];
+                } else {
+                    transitions[state * ALPHABET + c] = child;
+                    if (!queued[child]) {
+                        queued[child] = true;
+                        fail[child] = transitions[fail[state] * ALPHABET + c];
+                        queue.add(child);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) return false;
+        }
+        return true;
+    }
+
+    private static int toLower(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static int earlier(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return Math.min(a, b);
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    //===========================扫描接口=============================
+    /**
+     * 从流中读取至多 maxBytes 字节，找到第一个关键字即停止（不关闭流）
+     * @return 命中的关键字下标，未命中返回 -1
+     */
+    public int scan(InputStream in, int maxBytes) throws IOException {
+        Cursor cursor = newCursor();
+        byte[] buffer = new byte[Math.min(READ_BUFFER_SIZE, Math.max(maxBytes, 1))];
+        int remaining = maxBytes;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+            if (read < 0) break;
+            int hit = cursor.feed(buffer, 0, read);
+            if (hit >= 0) return hit;
+            remaining -= read;
+        }
+        return -1;
+    }
+
+    /**
+     * 在字节数组中查找
+     * @return 命中的关键字下标，未命中返回 -1
+     */
+    public int scan(byte[] data, int offset, int length) {
+        return newCursor().feed(data, offset, length);
+    }
+
+    public Cursor newCursor() {
+        return new Cursor();
+    }
+
+    //===========================扫描游标=============================
+    /**
+     * 单次扫描的状态，可分块喂入数据，跨块的关键字同样能被识别
+     */
+    public final class Cursor {
+        private int state;
+
+        private Cursor() {
+        }
+
+        /**
+         * @return 本块中命中的第一个关键字下标，未命中返回 -1
+         */
+        public int feed(byte[] data, int offset, int length) {
+            int s = state;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                s = transitions[s * ALPHABET + (data[i] & 0xff)];
+                if (matches[s] >= 0) {
+                    state = s;
+                    return matches[s];
+                }
+            }
+            state = s;
+            return -1;
+        }
+    }
+}
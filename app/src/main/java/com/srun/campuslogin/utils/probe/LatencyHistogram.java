@@ -0,0 +1,83 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.util.Arrays;
+
+//===========================耗时直方图=============================
+/**
+ * 功能：以固定内存记录耗时分布并估算分位数
+ * 核心职责：
+ * 1. 对数分桶：8 毫秒以内每毫秒一个桶，之后每个 2 的幂区间再均分 8 个桶，相对误差不超过 12.5%
+ * 2. 分位数返回所在桶的上界（不超过实际最大值）
+ * 线程安全：非线程安全，由 {@link LatencyRecorder} 加锁访问
+ */
+public final class LatencyHistogram {
+    //===========================常量定义=============================
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 20; // 上限约 17 分钟，超出的值计入最后一个桶
+    public static final long MAX_VALUE_MS = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    //===========================成员变量=============================
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maxValue;
+
+    /**
+     * 记录一个耗时（负数按 0 计）
+     */
+    public void record(long valueMs) {
+        long value = Math.max(0, Math.min(valueMs, MAX_VALUE_MS));
+        counts[indexOf(value)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * @param quantile 分位（0, 1]，如 0.95
+     * @return 估算的分位耗时；没有样本时返回 0
+     */
+    public long getPercentile(double quantile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    //===========================分桶计算=============================
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS | sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,174 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//===========================探测耗时统计=============================
+/**
+ * 功能：按端点与阶段汇总 HTTP 调用耗时，支持分位数查询并定期输出时段摘要
+ * 核心职责：
+ * 1. 每个端点（探测策略名或主机名）每个阶段各一个累计直方图，供 {@link #getPercentile} 查询
+ * 2. 另按时段（默认整点小时）各记一份直方图与失败次数，时段结束后的首次记录把上一时段摘要交给 {@link Sink} 持久化
+ * 3. 失败次数单独统计：耗时高但成功的是慢门户，失败多的是不可达
+ * 线程安全：所有方法可在任意线程调用
+ */
+public class LatencyRecorder {
+    //===========================持久化接口=============================
+    public interface Sink {
+        /**
+         * 在记录线程回调，实现方应转交后台线程写入
+         * @param summaries 一个时段内各端点、各阶段的摘要
+         */
+        void persist(List<Summary> summaries);
+    }
+
+    //===========================时段摘要=============================
+    public static final class Summary {
+        public final String endpoint;
+        public final ProbePhase phase;
+        public final long periodStart;
+        public final long count;
+        public final int failures; // 端点在该时段的失败调用数（各阶段相同）
+        public final long p50;
+        public final long p95;
+        public final long p99;
+        public final long max;
+
+        Summary(String endpoint, ProbePhase phase, long periodStart, LatencyHistogram histogram, int failures) {
+            this.endpoint = endpoint;
+            this.phase = phase;
+            this.periodStart = periodStart;
+            this.count = histogram.getCount();
+            this.failures = failures;
+            this.p50 = histogram.getPercentile(0.50);
+            this.p95 = histogram.getPercentile(0.95);
+            this.p99 = histogram.getPercentile(0.99);
+            this.max = histogram.getMax();
+        }
+    }
+
+    //===========================成员变量=============================
+    private final long periodMs;
+    private final Sink sink;
+    private final Map<String, EndpointStats> endpoints = new LinkedHashMap<>(); // 受 this 保护
+    private long periodStart = -1;                                           // 受 this 保护
+
+    /**
+     * @param periodMs 摘要时段长度，时段按 epoch 对齐
+     * @param sink     时段摘要的去向
+     */
+    public LatencyRecorder(long periodMs, Sink sink) {
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("时段长度必须为正数");
+        }
+        this.periodMs = periodMs;
+        this.sink = sink;
+    }
+
+    //===========================记录=============================
+    /**
+     * 记录一次调用
+     * @param endpoint 端点名
+     * @param phaseMs  按 {@link ProbePhase} 顺序的各阶段耗时，未发生的阶段为负数
+     * @param failed   调用是否失败
+     * @param now      调用结束时间（epoch 毫秒）
+     */
+    public void record(String endpoint, long[] phaseMs, boolean failed, long now) {
+        List<Summary> completed;
+        synchronized (this) {
+            completed = rotateLocked(now);
+            EndpointStats stats = endpoints.get(endpoint);
+            if (stats == null) {
+                stats = new EndpointStats();
+                endpoints.put(endpoint, stats);
+            }
+            for (ProbePhase phase : ProbePhase.values()) {
+                long value = phaseMs[phase.ordinal()];
+                if (value < 0) continue;
+                stats.total[phase.ordinal()].record(value);
+                stats.period[phase.ordinal()].record(value);
+            }
+            if (failed) {
+                stats.totalFailures++;
+                stats.periodFailures++;
+            }
+        }
+        if (completed != null && !completed.isEmpty()) {
+            sink.persist(completed);
+        }
+    }
+
+    /**
+     * 立即输出当前时段到目前为止的摘要（如服务销毁前），不结束时段
+     * 时段结束时输出的完整摘要主键相同，会覆盖这次的部分摘要
+     */
+    public void flush() {
+        List<Summary> partial;
+        synchronized (this) {
+            partial = summarizePeriodLocked(false);
+        }
+        if (!partial.isEmpty()) {
+            sink.persist(partial);
+        }
+    }
+
+    private List<Summary> rotateLocked(long now) {
+        long start = now - now % periodMs;
+        if (periodStart == start) return null;
+        List<Summary> completed = periodStart < 0 ? null : summarizePeriodLocked(true);
+        periodStart = start;
+        return completed;
+    }
+
+    private List<Summary> summarizePeriodLocked(boolean reset) {
+        List<Summary> summaries = new ArrayList<>();
+        if (periodStart < 0) return summaries;
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            for (ProbePhase phase : ProbePhase.values()) {
+                LatencyHistogram histogram = stats.period[phase.ordinal()];
+                if (histogram.getCount() == 0) continue;
+                summaries.add(new Summary(entry.getKey(), phase, periodStart, histogram, stats.periodFailures));
+                if (reset) histogram.reset();
+            }
+            if (reset) stats.periodFailures = 0;
+        }
+        return summaries;
+    }
+
+    //===========================查询=============================
+    /**
+     * @return 端点某阶段自启动以来的分位耗时，无样本时返回 -1
+     */
+    public synchronized long getPercentile(String endpoint, ProbePhase phase, double quantile) {
+        EndpointStats stats = endpoints.get(endpoint);
+        if (stats == null || stats.total[phase.ordinal()].getCount() == 0) return -1;
+        return stats.total[phase.ordinal()].getPercentile(quantile);
+    }
+
+    /**
+     * @return 端点自启动以来的失败调用数
+     */
+    public synchronized int getFailures(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null ? 0 : stats.totalFailures;
+    }
+
+    //===========================端点统计=============================
+    private static final class EndpointStats {
+        final LatencyHistogram[] total = newHistograms();
+        final LatencyHistogram[] period = newHistograms();
+        int totalFailures;
+        int periodFailures;
+
+        private static LatencyHistogram[] newHistograms() {
+            LatencyHistogram[] histograms = new LatencyHistogram[ProbePhase.values().length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+            return histograms;
+        }
+    }
+}
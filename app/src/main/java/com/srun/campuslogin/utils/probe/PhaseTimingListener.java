@@ -0,0 +1,126 @@
+package com.srun.campuslogin.utils.probe;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+//===========================调用阶段计时=============================
+/**
+ * 功能：记录单次 OkHttp 调用的 DNS、连接、TLS、首字节与总耗时，调用结束时交给 {@link LatencyRecorder}
+ * 核心职责：
+ * 1. 每次调用一个实例（通过 {@link Factory} 创建），事件在调用线程依次回调，无需同步
+ * 2. 端点名取请求的 String 标签（探测策略名），未设置时取主机名
+ * 3. 连接重试多个地址时，连接阶段从第一次开始计到最后一次结束
+ */
+public final class PhaseTimingListener extends EventListener {
+    //===========================工厂=============================
+    public static final class Factory implements EventListener.Factory {
+        private final LatencyRecorder recorder;
+
+        public Factory(LatencyRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @NonNull
+        @Override
+        public EventListener create(@NonNull Call call) {
+            return new PhaseTimingListener(recorder);
+        }
+    }
+
+    //===========================成员变量=============================
+    private final LatencyRecorder recorder;
+    private final long[] starts = new long[ProbePhase.values().length];
+    private final long[] phaseMs = new long[ProbePhase.values().length];
+
+    private PhaseTimingListener(LatencyRecorder recorder) {
+        this.recorder = recorder;
+        Arrays.fill(starts, -1);
+        Arrays.fill(phaseMs, -1);
+    }
+
+    //===========================阶段事件=============================
+    @Override
+    public void callStart(@NonNull Call call) {
+        long now = System.nanoTime();
+        starts[ProbePhase.TTFB.ordinal()] = now;
+        starts[ProbePhase.TOTAL.ordinal()] = now;
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        begin(ProbePhase.DNS);
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> addresses) {
+        end(ProbePhase.DNS);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+        if (starts[ProbePhase.CONNECT.ordinal()] < 0) begin(ProbePhase.CONNECT);
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        begin(ProbePhase.TLS);
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        end(ProbePhase.TLS);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy,
+                           @Nullable Protocol protocol) {
+        end(ProbePhase.CONNECT);
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        if (phaseMs[ProbePhase.TTFB.ordinal()] < 0) end(ProbePhase.TTFB);
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        finish(call, false);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        finish(call, true);
+    }
+
+    //===========================计时辅助=============================
+    private void begin(ProbePhase phase) {
+        starts[phase.ordinal()] = System.nanoTime();
+    }
+
+    private void end(ProbePhase phase) {
+        long start = starts[phase.ordinal()];
+        if (start >= 0) {
+            phaseMs[phase.ordinal()] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    private void finish(Call call, boolean failed) {
+        end(ProbePhase.TOTAL);
+        String endpoint = call.request().tag(String.class);
+        if (endpoint == null) {
+            endpoint = call.request().url().host();
+        }
+        recorder.record(endpoint, phaseMs, failed, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,196 @@
+package com.srun.campuslogin.utils.probe;
+
+import android.util.Log;
+import androidx.annotation.WorkerThread;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+
+//===========================网络探测引擎=============================
+/**
+ * 功能：并发执行多种探测策略，综合判断是否需要重新认证
+ * 核心职责：
+ * 1. 所有策略同时发起，任一能确认在线的策略返回在线即立即返回（竞速，延迟取决于最快的结论）；
+ *    只能作参考的在线结论（如 TCP 连通，见 {@link ProbeStrategy#confirmsOnline}）只记入报告，不结束竞速
+ * 2. 判定需要认证须有 quorum 个策略一致确认，单个策略超时或异常不会触发重新登录
+ * 3. 得出结论后取消其余策略；超过整体期限仍无结论时返回 {@link ProbeVerdict#INCONCLUSIVE}
+ * 4. 每次探测生成 {@link ProbeReport}，包含各策略的结论与耗时
+ * 线程安全：{@link #run()} 可在多个线程同时调用，调用线程阻塞至得出结论
+ */
+public class PortalProbe {
+    //===========================常量定义=============================
+    private static final String TAG = "PortalProbe";
+    public static final String PORTAL_SERVER = "http://172.16.130.31";
+    public static final String MIUI_GENERATE_204 = "http://connect.rom.miui.com/generate_204";
+    public static final String GSTATIC_GENERATE_204 = "https://www.gstatic.com/generate_204";
+    /** 默认策略访问的 HTTP 地址，明文地址的主机须在 network_security_config 中放行 */
+    public static final List<String> DEFAULT_HTTP_ENDPOINTS =
+            Collections.unmodifiableList(Arrays.asList(MIUI_GENERATE_204, GSTATIC_GENERATE_204, PORTAL_SERVER));
+    public static final int DEFAULT_QUORUM = 2;
+    public static final int DEFAULT_STRATEGY_TIMEOUT_MS = 5_000;
+    public static final long DEFAULT_DEADLINE_MS = 8_000;
+    public static final int DEFAULT_SCAN_LIMIT_BYTES = 8 * 1024;
+    /** 认证页关键字，按 UTF-8 与 GBK 两种编码匹配（部分门户页面仍为 GBK） */
+    public static final List<String> PORTAL_PAGE_KEYWORDS =
+            Collections.unmodifiableList(Arrays.asList("用户登录", "上网认证平台", "portal", "login"));
+
+    //===========================成员变量=============================
+    private final List<ProbeStrategy> strategies;
+    private final int quorum;
+    private final int strategyTimeoutMs;
+    private final long deadlineMs;
+    private final ExecutorService executor;
+
+    /**
+     * @param strategies        探测策略（不可为空）
+     * @param quorum            判定需要认证所需的一致策略数，超过策略总数时按总数计
+     * @param strategyTimeoutMs 单个策略的连接与读取超时
+     * @param deadlineMs        整体等待期限
+     * @param executor          执行策略的线程池，须能同时运行全部策略
+     */
+    public PortalProbe(List<ProbeStrategy> strategies, int quorum, int strategyTimeoutMs,
+                       long deadlineMs, ExecutorService executor) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个探测策略");
+        }
+        if (quorum < 1) {
+            throw new IllegalArgumentException("quorum 须不小于 1");
+        }
+        this.strategies = Collections.unmodifiableList(new ArrayList<>(strategies));
+        this.quorum = Math.min(quorum, strategies.size());
+        this.strategyTimeoutMs = strategyTimeoutMs;
+        this.deadlineMs = deadlineMs;
+        this.executor = executor;
+    }
+
+    /**
+     * 默认配置：两个 204 地址、本地门户状态与一个外网 TCP 连接，两个策略确认才判定需要认证
+     * TCP 连接的目标是门户常放行的公共 DNS，连通只作参考，在线须由 HTTP 策略确认
+     * @param httpClient 应用共享的 HTTP 客户端，探测与其共用连接池与耗时统计
+     * @param recorder   TCP 策略的耗时统计（HTTP 策略由客户端的 {@link PhaseTimingListener} 记录）
+     */
+    public static PortalProbe createDefault(OkHttpClient httpClient, LatencyRecorder recorder) {
+        OkHttpClient probeClient = newProbeClient(httpClient, DEFAULT_STRATEGY_TIMEOUT_MS);
+        KeywordScanner portalKeywords = newPortalPageScanner(PORTAL_PAGE_KEYWORDS);
+        List<ProbeStrategy> strategies = Arrays.asList(
+                new HttpStatusStrategy(probeClient, "miui", MIUI_GENERATE_204,
+                        portalKeywords, DEFAULT_SCAN_LIMIT_BYTES),
+                new HttpStatusStrategy(probeClient, "gstatic", GSTATIC_GENERATE_204,
+                        portalKeywords, DEFAULT_SCAN_LIMIT_BYTES),
+                new PortalStatusStrategy(probeClient, PORTAL_SERVER),
+                new TcpConnectStrategy("223.5.5.5", 443, recorder));
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "portal-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new PortalProbe(strategies, DEFAULT_QUORUM, DEFAULT_STRATEGY_TIMEOUT_MS,
+                DEFAULT_DEADLINE_MS, executor);
+    }
+
+    /**
+     * 基于共享客户端派生探测客户端：共用连接池与线程，只改变本客户端的行为
+     * 1. 不跟随重定向（重定向本身就是被门户劫持的证据）
+     * 2. 连接失败不自动重试，超时交给探测结论处理
+     * 3. 连接与读取超时取单个策略的超时
+     */
+    public static OkHttpClient newProbeClient(OkHttpClient httpClient, int timeoutMs) {
+        return httpClient.newBuilder()
+                .followRedirects(false)
+                .followSslRedirects(false)
+                .retryOnConnectionFailure(false)
+                .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 认证页关键字扫描器：按 UTF-8 与 GBK 编码，ASCII 关键字忽略大小写
+     */
+    public static KeywordScanner newPortalPageScanner(List<String> keywords) {
+        return new KeywordScanner(keywords, true, StandardCharsets.UTF_8, Charset.forName("GBK"));
+    }
+
+    public int getQuorum() {
+        return quorum;
+    }
+
+    //===========================探测执行=============================
+    @WorkerThread
+    public ProbeReport run() {
+        long start = System.nanoTime();
+        ExecutorCompletionService<ProbeReport.Entry> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<ProbeReport.Entry>, ProbeStrategy> futures = new HashMap<>();
+        for (ProbeStrategy strategy : strategies) {
+            futures.put(completion.submit(() -> runStrategy(strategy)), strategy);
+        }
+
+        List<ProbeReport.Entry> entries = new ArrayList<>(strategies.size());
+        ProbeVerdict verdict = ProbeVerdict.INCONCLUSIVE;
+        int needAuth = 0;
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        try {
+            while (entries.size() < strategies.size()) {
+                long remaining = deadline - System.nanoTime();
+                Future<ProbeReport.Entry> done = remaining > 0
+                        ? completion.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (done == null) break; // 超过整体期限
+                ProbeStrategy strategy = futures.remove(done);
+                ProbeReport.Entry entry = getEntry(done);
+                entries.add(entry);
+                if (entry.verdict == ProbeVerdict.ONLINE && strategy.confirmsOnline()) {
+                    verdict = ProbeVerdict.ONLINE;
+                    break;
+                }
+                if (entry.verdict == ProbeVerdict.NEED_AUTH && ++needAuth >= quorum) {
+                    verdict = ProbeVerdict.NEED_AUTH;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<ProbeReport.Entry> future : futures.keySet()) {
+                future.cancel(true);
+            }
+        }
+
+        ProbeReport report = new ProbeReport(verdict, entries, futures.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        Log.d(TAG, report.summary());
+        return report;
+    }
+
+    private ProbeReport.Entry runStrategy(ProbeStrategy strategy) {
+        long begin = System.nanoTime();
+        ProbeOutcome outcome;
+        try {
+            outcome = strategy.probe(strategyTimeoutMs);
+        } catch (Exception e) {
+            outcome = ProbeOutcome.inconclusive("异常: " + e.getMessage());
+        }
+        return new ProbeReport.Entry(strategy.getName(), outcome.verdict, outcome.detail,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+    }
+
+    private static ProbeReport.Entry getEntry(Future<ProbeReport.Entry> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // runStrategy 已捕获策略异常，这里只会是 Error 等意外情况
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
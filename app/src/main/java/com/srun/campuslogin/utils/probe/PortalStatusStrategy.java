@@ -0,0 +1,60 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+//===========================门户状态探测策略=============================
+/**
+ * 直接询问本地认证门户当前设备是否在线（srun 的 rad_user_info 接口）
+ * 门户在内网，未认证时也可访问，因此能给出明确的“未在线”结论；门户不可达时无法判断
+ */
+public class PortalStatusStrategy implements ProbeStrategy {
+    //===========================常量定义=============================
+    private static final String PATH_USER_INFO = "/cgi-bin/rad_user_info?callback=probe";
+    private static final int MAX_BODY_BYTES = 2048;
+    private static final int NOT_ONLINE = 0;
+    private static final KeywordScanner STATUS_KEYWORDS = new KeywordScanner(
+            Arrays.asList("not_online_error", "\"error\":\"ok\""), false, StandardCharsets.UTF_8);
+
+    //===========================成员变量=============================
+    private final OkHttpClient client;
+    private final Request request;
+
+    /**
+     * @param client 不跟随重定向的探测客户端
+     * @param server 门户地址，如 http://172.16.130.31（不含结尾斜杠）
+     */
+    public PortalStatusStrategy(OkHttpClient client, String server) {
+        this.client = client;
+        this.request = new Request.Builder().url(server + PATH_USER_INFO).tag(String.class, getName()).build();
+    }
+
+    @Override
+    public String getName() {
+        return "portal";
+    }
+
+    @Override
+    public ProbeOutcome probe(int timeoutMs) throws IOException {
+        Call call = client.newCall(request);
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+        try (Response response = call.execute()) {
+            if (response.code() != 200) {
+                return ProbeOutcome.inconclusive("门户响应码异常: " + response.code());
+            }
+            ResponseBody body = response.body();
+            int hit = body != null ? STATUS_KEYWORDS.scan(body.byteStream(), MAX_BODY_BYTES) : -1;
+            if (hit < 0) {
+                return ProbeOutcome.inconclusive("门户响应无法识别");
+            }
+            return hit == NOT_ONLINE ? ProbeOutcome.needAuth("门户确认未在线") : ProbeOutcome.online(null);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.srun.campuslogin.utils.probe;
+
+/**
+ * 单个探测策略的结论与说明（不含耗时，耗时由引擎统一测量）
+ */
+public final class ProbeOutcome {
+    public final ProbeVerdict verdict;
+    public final String detail; // 可为 null
+
+    private ProbeOutcome(ProbeVerdict verdict, String detail) {
+        this.verdict = verdict;
+        this.detail = detail;
+    }
+
+    public static ProbeOutcome online(String detail) {
+        return new ProbeOutcome(ProbeVerdict.ONLINE, detail);
+    }
+
+    public static ProbeOutcome needAuth(String detail) {
+        return new ProbeOutcome(ProbeVerdict.NEED_AUTH, detail);
+    }
+
+    public static ProbeOutcome inconclusive(String detail) {
+        return new ProbeOutcome(ProbeVerdict.INCONCLUSIVE, detail);
+    }
+}
@@ -0,0 +1,13 @@
+package com.srun.campuslogin.utils.probe;
+
+/**
+ * 单次 HTTP 调用的耗时阶段
+ * 复用连接池中的连接时没有 DNS、连接与 TLS 阶段，只记录首字节与总耗时
+ */
+public enum ProbePhase {
+    DNS,
+    CONNECT, // TCP 连接（含 TLS 握手）
+    TLS,
+    TTFB,    // 调用开始到收到响应头
+    TOTAL    // 调用开始到结束（含失败的调用）
+}
@@ -0,0 +1,65 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.util.Collections;
+import java.util.List;
+
+//===========================探测报告=============================
+/**
+ * 一次探测的综合结论与各策略的结果
+ * 已得出结论时仍未返回的策略会被取消，不出现在 entries 中，只计入 pending
+ */
+public final class ProbeReport {
+    //===========================单个策略结果=============================
+    public static final class Entry {
+        public final String strategy;
+        public final ProbeVerdict verdict;
+        public final String detail; // 可为 null
+        public final long latencyMs;
+
+        public Entry(String strategy, ProbeVerdict verdict, String detail, long latencyMs) {
+            this.strategy = strategy;
+            this.verdict = verdict;
+            this.detail = detail;
+            this.latencyMs = latencyMs;
+        }
+    }
+
+    //===========================成员变量=============================
+    public final ProbeVerdict verdict;
+    public final List<Entry> entries; // 按返回顺序
+    public final int pending;         // 未返回即被取消的策略数
+    public final long elapsedMs;
+
+    public ProbeReport(ProbeVerdict verdict, List<Entry> entries, int pending, long elapsedMs) {
+        this.verdict = verdict;
+        this.entries = Collections.unmodifiableList(entries);
+        this.pending = pending;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public boolean needReauth() {
+        return verdict == ProbeVerdict.NEED_AUTH;
+    }
+
+    /**
+     * 单行摘要，用于日志与卡片记录，如：
+     * 需要认证(85ms) portal=需要认证 32ms; miui=需要认证 85ms (未完成 2)
+     */
+    public String summary() {
+        StringBuilder out = new StringBuilder(96);
+        out.append(verdict.label).append('(').append(elapsedMs).append("ms)");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            out.append(i == 0 ? " " : "; ")
+                    .append(entry.strategy).append('=').append(entry.verdict.label)
+                    .append(' ').append(entry.latencyMs).append("ms");
+            if (entry.detail != null) {
+                out.append(' ').append(entry.detail);
+            }
+        }
+        if (pending > 0) {
+            out.append(" (未完成 ").append(pending).append(')');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.srun.campuslogin.utils.probe;
+
+/**
+ * 网络探测策略：每种策略用一种独立的方式判断当前是否需要门户认证
+ * 实现须在 timeoutMs 内返回（连接与读取都应设置超时），可在任意线程并发调用
+ */
+public interface ProbeStrategy {
+    /**
+     * @return 出现在探测报告中的简短名称
+     */
+    String getName();
+
+    /**
+     * 执行一次探测；抛出异常等同于 {@link ProbeVerdict#INCONCLUSIVE}
+     * @param timeoutMs 单次连接与读取的超时
+     */
+    ProbeOutcome probe(int timeoutMs) throws Exception;
+
+    /**
+     * 本策略的在线结论能否单独确认在线；返回 false 时在线结论只记入报告，须由其他策略确认
+     */
+    default boolean confirmsOnline() {
+        return true;
+    }
+}
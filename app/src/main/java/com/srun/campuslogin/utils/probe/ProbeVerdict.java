@@ -0,0 +1,19 @@
+package com.srun.campuslogin.utils.probe;
+
+/**
+ * 网络探测结论
+ */
+public enum ProbeVerdict {
+    /** 已能访问外网或门户确认在线 */
+    ONLINE("网络正常"),
+    /** 被重定向到认证页或门户确认未在线 */
+    NEED_AUTH("需要认证"),
+    /** 超时、异常或响应无法判断，不能作为重新登录的依据 */
+    INCONCLUSIVE("无法判断");
+
+    public final String label;
+
+    ProbeVerdict(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,56 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+//===========================TCP 探测策略=============================
+/**
+ * 直接连接外网地址的端口（使用 IP，不依赖 DNS）
+ * 门户未认证时常放行公共 DNS 等地址，连接成功只说明该地址可达，不能单独确认在线（见 {@link #confirmsOnline}）；
+ * 连接失败可能只是该地址不可达，同样无法判断
+ * 不经过 OkHttp，连接耗时直接计入 {@link LatencyRecorder}
+ */
+public class TcpConnectStrategy implements ProbeStrategy {
+    private final String host;
+    private final int port;
+    private final LatencyRecorder recorder;
+
+    public TcpConnectStrategy(String host, int port, LatencyRecorder recorder) {
+        this.host = host;
+        this.port = port;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public String getName() {
+        return "tcp " + host + ":" + port;
+    }
+
+    @Override
+    public boolean confirmsOnline() {
+        return false;
+    }
+
+    @Override
+    public ProbeOutcome probe(int timeoutMs) {
+        long start = System.nanoTime();
+        boolean failed = false;
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            return ProbeOutcome.online(null);
+        } catch (IOException e) {
+            failed = true;
+            return ProbeOutcome.inconclusive("连接失败: " + e.getMessage());
+        } finally {
+            long[] phaseMs = new long[ProbePhase.values().length];
+            Arrays.fill(phaseMs, -1);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!failed) phaseMs[ProbePhase.CONNECT.ordinal()] = elapsed;
+            phaseMs[ProbePhase.TOTAL.ordinal()] = elapsed;
+            recorder.record(getName(), phaseMs, failed, System.currentTimeMillis());
+        }
+    }
+}
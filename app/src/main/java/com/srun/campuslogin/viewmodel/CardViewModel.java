@@ -8,9 +8,11 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.srun.campuslogin.R;
 import com.srun.campuslogin.core.App;
+import com.srun.campuslogin.core.LoginCoordinator;
 import com.srun.campuslogin.data.dao.CardDao;
 import com.srun.campuslogin.data.model.CardEntity;
 import java.util.List;
+import java.util.Map;
 
 //===========================校园网账号卡片视图模型核心类=============================
 /**
@@ -26,11 +28,23 @@ public class CardViewModel extends AndroidViewModel {
     //===========================成员变量=============================
     private final CardDao cardDao; // 数据库访问对象
     private final MutableLiveData<Integer> toastMessage = new MutableLiveData<>(); // Toast消息通知
+    private final LoginCoordinator loginCoordinator;
+    private final MutableLiveData<Map<String, LoginCoordinator.LoginState>> loginStates = new MutableLiveData<>();
+    private final LoginCoordinator.Listener loginListener = this::publishLoginStates;
 
     //===========================初始化方法=============================
     public CardViewModel(Application application) {
         super(application);
         this.cardDao = App.getInstance().getDatabase().cardDao(); // 从应用实例获取数据库
+        this.loginCoordinator = App.getInstance().getLoginCoordinator();
+        loginCoordinator.addListener(loginListener);
+        publishLoginStates();
+    }
+
+    @Override
+    protected void onCleared() {
+        loginCoordinator.removeListener(loginListener);
+        super.onCleared();
     }
 
     //===========================数据操作接口=============================
@@ -124,4 +138,16 @@ public class CardViewModel extends AndroidViewModel {
     public LiveData<Integer> getToastMessage() {
         return toastMessage;
     }
+
+    /**
+     * 获取登录状态观察对象（登录中或冷却中的账号，可能由任意登录来源触发）
+     * @return 账号到登录状态的LiveData对象
+     */
+    public LiveData<Map<String, LoginCoordinator.LoginState>> getLoginStates() {
+        return loginStates;
+    }
+
+    private void publishLoginStates() {
+        loginStates.postValue(loginCoordinator.getStates());
+    }
 }
\ No newline at end of file
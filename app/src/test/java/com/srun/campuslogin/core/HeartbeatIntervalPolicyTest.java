@@ -0,0 +1,119 @@
+package com.srun.campuslogin.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * HeartbeatIntervalPolicy 间隔策略测试
+ * 使用假时钟推进时间，抖动为 0 时结果可精确断言
+ */
+public class HeartbeatIntervalPolicyTest {
+    private static final long SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    /** 手动推进的时钟 */
+    private static final class FakeClock implements HeartbeatIntervalPolicy.Clock {
+        long now = 1_000_000;
+
+        @Override
+        public long now() {
+            return now;
+        }
+    }
+
+    private final FakeClock clock = new FakeClock();
+
+    private HeartbeatIntervalPolicy policy(double jitter) {
+        HeartbeatIntervalPolicy.Config config = new HeartbeatIntervalPolicy.Config.Builder()
+                .setIntervalBounds(10 * SECOND, 60 * SECOND, 8 * MINUTE)
+                .setRecheckInterval(15 * SECOND)
+                .setStabilityWindow(30 * MINUTE)
+                .setLoginBackoff(30 * SECOND, 4 * MINUTE)
+                .setJitterRatio(jitter)
+                .build();
+        return new HeartbeatIntervalPolicy(config, clock, new Random(42));
+    }
+
+    /** 按策略给出的间隔连续成功检测，直到经过 duration */
+    private long succeedFor(HeartbeatIntervalPolicy policy, long duration) {
+        long end = clock.now + duration;
+        long interval = policy.onProbeSuccess();
+        while (clock.now < end) {
+            clock.now += interval;
+            interval = policy.onProbeSuccess();
+        }
+        return interval;
+    }
+
+    @Test
+    public void intervalGrowsWithSustainedSuccessUpToMax() {
+        HeartbeatIntervalPolicy policy = policy(0);
+        assertEquals(60 * SECOND, policy.onProbeSuccess());
+        assertEquals(120 * SECOND, succeedFor(policy, 30 * MINUTE));
+        assertEquals(240 * SECOND, succeedFor(policy, 30 * MINUTE));
+        assertEquals(8 * MINUTE, succeedFor(policy, 10 * 60 * MINUTE));
+    }
+
+    @Test
+    public void failureSwitchesToFastRecheckAndResetsStability() {
+        HeartbeatIntervalPolicy policy = policy(0);
+        succeedFor(policy, 2 * 60 * MINUTE);
+        assertEquals(15 * SECOND, policy.onProbeFailure());
+        clock.now += 15 * SECOND;
+        assertEquals(60 * SECOND, policy.onProbeSuccess());
+    }
+
+    @Test
+    public void loginFailuresBackOffExponentiallyAndSuccessResets() {
+        HeartbeatIntervalPolicy policy = policy(0);
+        assertTrue(policy.canAttemptLogin());
+        assertEquals(30 * SECOND, policy.onLoginFailure());
+        assertFalse(policy.canAttemptLogin());
+        clock.now += 30 * SECOND;
+        assertTrue(policy.canAttemptLogin());
+
+        assertEquals(60 * SECOND, policy.onLoginFailure());
+        assertEquals(120 * SECOND, policy.onLoginFailure());
+        assertEquals(240 * SECOND, policy.onLoginFailure());
+        assertEquals(240 * SECOND, policy.onLoginFailure()); // 上限
+        assertEquals(5, policy.getLoginFailures());
+
+        assertEquals(15 * SECOND, policy.onLoginSuccess());
+        assertTrue(policy.canAttemptLogin());
+        assertEquals(30 * SECOND, policy.onLoginFailure());
+    }
+
+    @Test
+    public void jitterStaysWithinRatioAndBounds() {
+        HeartbeatIntervalPolicy policy = policy(0.2);
+        for (int i = 0; i < 1000; i++) {
+            long interval = policy.onProbeSuccess();
+            assertTrue(interval >= 48 * SECOND && interval <= 72 * SECOND);
+            long recheck = policy.onProbeFailure();
+            assertTrue(recheck >= 12 * SECOND && recheck <= 18 * SECOND);
+        }
+        boolean varied = policy.onProbeSuccess() != policy.onProbeSuccess()
+                || policy.onProbeSuccess() != policy.onProbeSuccess();
+        assertTrue(varied);
+    }
+
+    @Test
+    public void eventDrivenStartsFromSlowerIntervalAndStillRechecksFast() {
+        HeartbeatIntervalPolicy policy = policy(0);
+        policy.setEventDriven(true);
+        assertEquals(5 * MINUTE, policy.onProbeSuccess());
+        assertEquals(8 * MINUTE, succeedFor(policy, 30 * MINUTE));
+        assertEquals(15 * SECOND, policy.onProbeFailure());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvertedBounds() {
+        new HeartbeatIntervalPolicy.Config.Builder()
+                .setIntervalBounds(60 * SECOND, 30 * SECOND, 10 * SECOND)
+                .build();
+    }
+}
@@ -0,0 +1,199 @@
+package com.srun.campuslogin.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * LoginCoordinator 合并登录、取消与失败冷却测试
+ * 使用假登录入口手动完成登录，假时钟推进冷却时间；回调在调用线程直接执行
+ */
+public class LoginCoordinatorTest {
+    private static final long COOLDOWN = 10_000;
+    private static final long TIMEOUT = 30_000;
+
+    /** 记录每次原生登录的句柄（不关联原生控制句柄），由测试决定何时返回结果 */
+    private static final class FakeLogin implements LoginCoordinator.Login {
+        final List<String> accounts = new ArrayList<>();
+        final List<LoginHandle> pending = new ArrayList<>();
+        long timeoutMs;
+
+        @Override
+        public LoginHandle login(String account, String password, long timeoutMs,
+                                 LoginBridge.LoginCallback callback) {
+            accounts.add(account);
+            this.timeoutMs = timeoutMs;
+            LoginHandle handle = new LoginHandle(0, Runnable::run, callback);
+            pending.add(handle);
+            return handle;
+        }
+    }
+
+    /** 统计结果的回调 */
+    private static final class Result implements LoginBridge.LoginCallback {
+        int successes;
+        LoginResult last;
+        final List<String> failures = new ArrayList<>();
+
+        @Override
+        public void onSuccess(LoginResult result) {
+            successes++;
+            last = result;
+        }
+
+        @Override
+        public void onFailure(LoginResult result) {
+            failures.add(result.message);
+            last = result;
+        }
+    }
+
+    /** 与原生层构造的成功结果相同 */
+    private static LoginResult success() {
+        return new LoginResult(0, "", "10.1.2.3", "", "", "", 0, 0, 1, 12, 34, 0, 50, false);
+    }
+
+    private static LoginResult rejected(String message) {
+        return LoginResult.failure(LoginResult.ErrorCategory.REJECTED, message);
+    }
+
+    private final FakeLogin login = new FakeLogin();
+    private final long[] now = {1_000_000};
+    private final LoginCoordinator coordinator = new LoginCoordinator(login,
+            new LoginCoordinator.Config(COOLDOWN, TIMEOUT), () -> now[0]);
+
+    private LoginCoordinator.Ticket login(String account, Result result) {
+        return coordinator.login(account, "pw", Runnable::run, result);
+    }
+
+    @Test
+    public void concurrentRequestsShareOneLogin() {
+        Result first = new Result();
+        Result second = new Result();
+        login("2020@ctc", first);
+        login("2020@ctc", second);
+
+        assertEquals(1, login.accounts.size());
+        assertEquals(LoginCoordinator.LoginState.IN_FLIGHT, coordinator.getState("2020@ctc"));
+
+        LoginResult result = success();
+        login.pending.get(0).complete(result);
+        assertEquals(1, first.successes);
+        assertEquals(1, second.successes);
+        // 合并的请求收到同一份结果
+        assertSame(result, first.last);
+        assertSame(result, second.last);
+        assertEquals("10.1.2.3", second.last.onlineIp);
+        assertEquals(LoginCoordinator.LoginState.IDLE, coordinator.getState("2020@ctc"));
+
+        // 完成后的新请求重新发起登录
+        login("2020@ctc", new Result());
+        assertEquals(2, login.accounts.size());
+    }
+
+    @Test
+    public void differentAccountsLoginIndependently() {
+        login("2020@ctc", new Result());
+        login("2021@ynufe", new Result());
+        assertEquals(2, login.accounts.size());
+        assertEquals(2, coordinator.getStates().size());
+    }
+
+    @Test
+    public void failureStartsCooldown() {
+        Result first = new Result();
+        login("2020@ctc", first);
+        login.pending.get(0).complete(rejected("密码错误"));
+        assertEquals(1, first.failures.size());
+        assertEquals("密码错误", first.failures.get(0));
+
+        // 冷却期内直接失败，不再发起原生登录
+        now[0] += COOLDOWN / 2;
+        Result rejected = new Result();
+        login("2020@ctc", rejected);
+        assertEquals(1, login.accounts.size());
+        assertEquals(1, rejected.failures.size());
+        assertTrue(rejected.failures.get(0).contains("5 秒"));
+        assertEquals(LoginResult.ErrorCategory.COOLING_DOWN, rejected.last.category);
+        assertEquals(LoginCoordinator.LoginState.COOLING_DOWN, coordinator.getState("2020@ctc"));
+
+        // 冷却结束后恢复
+        now[0] += COOLDOWN / 2;
+        assertEquals(LoginCoordinator.LoginState.IDLE, coordinator.getState("2020@ctc"));
+        login("2020@ctc", new Result());
+        assertEquals(2, login.accounts.size());
+    }
+
+    @Test
+    public void duplicateResultIsIgnored() {
+        Result result = new Result();
+        login("2020@ctc", result);
+        LoginHandle handle = login.pending.get(0);
+        handle.complete(success());
+        handle.expire(); // 结果之后到达的超时
+        assertFalse(handle.cancel());
+        assertEquals(1, result.successes);
+        assertTrue(result.failures.isEmpty());
+        assertEquals(LoginCoordinator.LoginState.IDLE, coordinator.getState("2020@ctc"));
+    }
+
+    @Test
+    public void listenersSeeStartAndFinish() {
+        AtomicInteger changes = new AtomicInteger();
+        coordinator.addListener(changes::incrementAndGet);
+        login("2020@ctc", new Result());
+        login("2020@ctc", new Result()); // 合并的请求不改变状态
+        assertEquals(1, changes.get());
+        login.pending.get(0).complete(success());
+        assertEquals(2, changes.get());
+    }
+
+    @Test
+    public void cancellingOneWaiterKeepsSharedLogin() {
+        Result kept = new Result();
+        Result cancelled = new Result();
+        login("2020@ctc", kept);
+        LoginCoordinator.Ticket ticket = login("2020@ctc", cancelled);
+
+        ticket.cancel();
+        assertEquals(1, cancelled.failures.size());
+        assertEquals(LoginHandle.CANCELLED_MESSAGE, cancelled.failures.get(0));
+        assertTrue(cancelled.last.isCancelled());
+        assertFalse(login.pending.get(0).isDone());
+
+        login.pending.get(0).complete(success());
+        assertEquals(1, kept.successes);
+        assertEquals(0, cancelled.successes);
+    }
+
+    @Test
+    public void cancellingLastWaiterCancelsLoginWithoutCooldown() {
+        Result result = new Result();
+        login("2020@ctc", result).cancel();
+
+        assertTrue(login.pending.get(0).isCancelled());
+        assertEquals(1, result.failures.size());
+        assertEquals(LoginCoordinator.LoginState.IDLE, coordinator.getState("2020@ctc"));
+
+        // 原生登录随后返回的结果被忽略
+        login.pending.get(0).complete(success());
+        assertEquals(0, result.successes);
+    }
+
+    @Test
+    public void timeoutIsPassedToLoginAndCoolsDown() {
+        Result result = new Result();
+        login("2020@ctc", result);
+        assertEquals(TIMEOUT, login.timeoutMs);
+
+        login.pending.get(0).expire();
+        assertEquals(LoginHandle.TIMEOUT_MESSAGE, result.failures.get(0));
+        assertEquals(LoginResult.ErrorCategory.TIMEOUT, result.last.category);
+        assertFalse(result.last.hasTimings());
+        assertEquals(LoginCoordinator.LoginState.COOLING_DOWN, coordinator.getState("2020@ctc"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.srun.campuslogin.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * LoginStandby 预取、登录期间暂停与保持期结束测试
+ * 预取在预热线程执行，测试通过队列与信号量等待；假时钟推进保持期
+ */
+public class LoginStandbyTest {
+    private static final long HOLD = 60_000;
+    private static final long VALID = 60_000; // 下次刷新在 40s 后，测试期间不会触发
+    private static final LoginStandby.Config CONFIG = new LoginStandby.Config(HOLD, 15_000, 5_000, 5_000);
+
+    /** 记录预取与丢弃 */
+    private static final class FakePrewarmer implements LoginStandby.Prewarmer {
+        final BlockingQueue<String> prewarmed = new LinkedBlockingQueue<>();
+        final Semaphore discards = new Semaphore(0);
+
+        @Override
+        public long prewarm(String account, long timeoutMs) {
+            prewarmed.add(account);
+            return VALID;
+        }
+
+        @Override
+        public void discard() {
+            discards.release();
+        }
+    }
+
+    private final FakePrewarmer prewarmer = new FakePrewarmer();
+    private final List<LoginHandle> pending = new ArrayList<>();
+    private final long[] now = {1_000_000};
+    private final LoginCoordinator coordinator = new LoginCoordinator((account, password, timeoutMs, callback) -> {
+        LoginHandle handle = new LoginHandle(0, Runnable::run, callback);
+        pending.add(handle);
+        return handle;
+    }, new LoginCoordinator.Config(0, 0), () -> now[0]);
+    private final LoginStandby standby = new LoginStandby(prewarmer, coordinator, CONFIG, () -> now[0]);
+
+    {
+        coordinator.addListener(standby);
+    }
+
+    private static final LoginBridge.LoginCallback IGNORED = new LoginBridge.LoginCallback() {
+        @Override
+        public void onSuccess(LoginResult result) {
+        }
+
+        @Override
+        public void onFailure(LoginResult result) {
+        }
+    };
+
+    private String awaitPrewarm() throws InterruptedException {
+        return prewarmer.prewarmed.poll(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void refreshDelayFollowsValidity() {
+        assertEquals(40_000, LoginStandby.nextRefreshDelay(60_000, CONFIG));
+        assertEquals(5_000, LoginStandby.nextRefreshDelay(3_000, CONFIG));
+        assertEquals(15_000, LoginStandby.nextRefreshDelay(-1, CONFIG));
+    }
+
+    @Test
+    public void armPrewarmsOnceAndDisarmDiscards() throws InterruptedException {
+        standby.arm("2020@ctc");
+        assertEquals("2020@ctc", awaitPrewarm());
+
+        // 同一账号再次出现异常迹象只延长保持期
+        standby.arm("2020@ctc");
+        assertNull(prewarmer.prewarmed.poll(200, TimeUnit.MILLISECONDS));
+
+        standby.disarm();
+        assertTrue(prewarmer.discards.tryAcquire(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void switchingAccountDiscardsPrevious() throws InterruptedException {
+        standby.arm("2020@ctc");
+        assertEquals("2020@ctc", awaitPrewarm());
+        standby.arm("2021@ynufe");
+        assertEquals("2021@ynufe", awaitPrewarm());
+        assertEquals(1, prewarmer.discards.availablePermits());
+    }
+
+    @Test
+    public void loginPausesRefreshAndRefillsAfterward() throws InterruptedException {
+        standby.arm("2020@ctc");
+        assertEquals("2020@ctc", awaitPrewarm());
+
+        coordinator.login("2020@ctc", "pw", Runnable::run, IGNORED);
+        assertNull(prewarmer.prewarmed.poll(200, TimeUnit.MILLISECONDS));
+
+        // 登录用掉预取结果，结束后立即补充
+        pending.get(0).complete(LoginResult.failure(LoginResult.ErrorCategory.REJECTED, "密码错误"));
+        assertEquals("2020@ctc", awaitPrewarm());
+    }
+
+    @Test
+    public void holdExpiryDisarms() throws InterruptedException {
+        standby.arm("2020@ctc");
+        assertEquals("2020@ctc", awaitPrewarm());
+
+        now[0] += HOLD;
+        coordinator.login("2020@ctc", "pw", Runnable::run, IGNORED);
+        pending.get(0).complete(LoginResult.failure(LoginResult.ErrorCategory.REJECTED, "密码错误"));
+
+        // 保持期已过：不再预取，退出预热并丢弃
+        assertTrue(prewarmer.discards.tryAcquire(2, TimeUnit.SECONDS));
+        assertNull(prewarmer.prewarmed.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
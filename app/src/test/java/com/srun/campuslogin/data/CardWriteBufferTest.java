@@ -0,0 +1,119 @@
+package com.srun.campuslogin.data;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * CardWriteBuffer 并发提交顺序测试
+ * 用内存中的 BatchWriter 代替数据库，首个批次在提交中途阻塞，模拟数据库线程池中两次提交重叠
+ */
+public class CardWriteBufferTest {
+    private static final int CARD_ID = 1;
+
+    /** 内存中的“数据库”：按提交顺序应用字段与日志 */
+    private static final class FakeWriter implements CardWriteBuffer.BatchWriter {
+        final Map<Integer, Boolean> active = new HashMap<>();
+        final Map<Integer, Integer> counters = new HashMap<>();
+        final List<String> logs = new ArrayList<>();
+        final CountDownLatch firstEntered = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        private boolean first = true;
+
+        @Override
+        public void commit(Map<Integer, CardWriteBuffer.PendingWrite> batch) {
+            boolean block;
+            synchronized (this) {
+                block = first;
+                first = false;
+            }
+            if (block) {
+                firstEntered.countDown();
+                try {
+                    releaseFirst.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                for (Map.Entry<Integer, CardWriteBuffer.PendingWrite> entry : batch.entrySet()) {
+                    CardWriteBuffer.PendingWrite write = entry.getValue();
+                    if (write.heartbeatActive != null) active.put(entry.getKey(), write.heartbeatActive);
+                    if (write.heartbeatCounter != null) counters.put(entry.getKey(), write.heartbeatCounter);
+                    for (CardLogEntity log : write.logs) {
+                        logs.add(log.getArg(0));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void compact(int cardId) {
+        }
+    }
+
+    private final FakeWriter writer = new FakeWriter();
+    private final ExecutorService pool = Executors.newFixedThreadPool(2); // 与共享数据库线程池一样可并发执行
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor();
+    private final CardWriteBuffer buffer = new CardWriteBuffer(writer, flushExecutor);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        flushExecutor.shutdownNow();
+    }
+
+    private static CardLogEntity log(String text) {
+        return new CardLogEntity(CARD_ID, System.currentTimeMillis(), LogEventType.LEGACY_TEXT, 0, text);
+    }
+
+    @Test
+    public void overlappingFlushesKeepLastWrite() throws Exception {
+        // 开启检测：第一次提交在事务中途阻塞
+        buffer.setHeartbeatActive(CARD_ID, true);
+        buffer.setHeartbeatCounter(CARD_ID, 1);
+        buffer.appendLog(log("开启"));
+        pool.execute(buffer::flushNow);
+        assertTrue(writer.firstEntered.await(2, TimeUnit.SECONDS));
+
+        // 随即关闭检测并再次提交
+        buffer.setHeartbeatActive(CARD_ID, false);
+        buffer.setHeartbeatCounter(CARD_ID, 2);
+        buffer.appendLog(log("关闭"));
+        CountDownLatch secondDone = new CountDownLatch(1);
+        pool.execute(() -> {
+            buffer.flushNow();
+            secondDone.countDown();
+        });
+        assertFalse("第一批提交完成前第二批不应提交", secondDone.await(200, TimeUnit.MILLISECONDS));
+
+        writer.releaseFirst.countDown();
+        assertTrue(secondDone.await(2, TimeUnit.SECONDS));
+        assertEquals(Boolean.FALSE, writer.active.get(CARD_ID));
+        assertEquals(Integer.valueOf(2), writer.counters.get(CARD_ID));
+        assertEquals(Arrays.asList("开启", "关闭"), writer.logs);
+    }
+
+    @Test
+    public void flushBlockingWaitsForQueuedAsyncFlush() {
+        buffer.setHeartbeatActive(CARD_ID, true);
+        buffer.flushAsync();
+        buffer.setHeartbeatActive(CARD_ID, false);
+        writer.releaseFirst.countDown(); // 不阻塞首次提交
+        buffer.flushBlocking(2_000);
+        assertEquals(Boolean.FALSE, writer.active.get(CARD_ID));
+    }
+}
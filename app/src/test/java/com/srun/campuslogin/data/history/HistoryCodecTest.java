@@ -0,0 +1,87 @@
+package com.srun.campuslogin.data.history;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * HistoryCodec 编解码测试
+ * 以一段模拟的心跳日志验证往返一致、区间解码与每条事件的编码体积
+ */
+public class HistoryCodecTest {
+    private static final int CARD_ID = 7;
+    private static final long START = 1_700_000_000_000L;
+    private static final int MAX_BYTES_PER_EVENT = 8;
+
+    /** 模拟 60 秒心跳：开始检测、计数、结果，偶尔失败并重连 */
+    private static List<CardLogEntity> heartbeatLogs(int ticks) {
+        List<CardLogEntity> logs = new ArrayList<>();
+        long time = START;
+        for (int i = 1; i <= ticks; i++) {
+            logs.add(new CardLogEntity(CARD_ID, time, LogEventType.CHECK_COUNT, 3, String.valueOf(i)));
+            if (i % 40 == 0) {
+                logs.add(new CardLogEntity(CARD_ID, time + 120, LogEventType.REAUTH_REQUIRED, 3, "连接超时"));
+                logs.add(new CardLogEntity(CARD_ID, time + 350, LogEventType.AUTO_LOGIN_FAILED, 3, "E2620: 已经在线了"));
+            } else {
+                logs.add(new CardLogEntity(CARD_ID, time + 85, LogEventType.NETWORK_OK, 3));
+            }
+            time += 60_000;
+        }
+        return logs;
+    }
+
+    @Test
+    public void roundTripsAllFields() {
+        List<CardLogEntity> logs = heartbeatLogs(100);
+        logs.add(new CardLogEntity(CARD_ID, START + 6_000_000, LogEventType.LEGACY_TEXT, 0, "旧日志 007"));
+        logs.add(new CardLogEntity(CARD_ID, START + 6_000_000, LogEventType.LOGIN_FAILED, 0, "a", null, "12"));
+
+        HistoryCodec.Reader reader = HistoryCodec.open(CARD_ID, HistoryCodec.encode(logs));
+        assertEquals(logs.size(), reader.size());
+        for (CardLogEntity expected : logs) {
+            CardLogEntity actual = reader.next();
+            assertEquals(CARD_ID, actual.getCardId());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getCode(), actual.getCode());
+            assertEquals(expected.getTaskId(), actual.getTaskId());
+            assertEquals(expected.getArgs(), actual.getArgs());
+        }
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void decodesOnlyRequestedRange() {
+        List<CardLogEntity> logs = heartbeatLogs(100);
+        long from = START + 10 * 60_000;
+        long to = START + 19 * 60_000 + 1_000;
+
+        List<CardLogEntity> range = new ArrayList<>();
+        HistoryCodec.Reader reader = HistoryCodec.open(CARD_ID, HistoryCodec.encode(logs));
+        reader.forEachInRange(from, to, range::add);
+
+        assertEquals(20, range.size());
+        assertEquals("11", range.get(0).getArg(0));
+        assertTrue(reader.hasNext()); // 越过区间终点后不再解码剩余事件
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOutOfOrderEvents() {
+        List<CardLogEntity> logs = new ArrayList<>();
+        logs.add(new CardLogEntity(CARD_ID, START + 1, LogEventType.CHECK_STARTED, 1));
+        logs.add(new CardLogEntity(CARD_ID, START, LogEventType.CHECK_STARTED, 1));
+        HistoryCodec.encode(logs);
+    }
+
+    @Test
+    public void staysWithinBytesPerEventBudget() {
+        List<CardLogEntity> logs = heartbeatLogs(128);
+        int blockBytes = HistoryCodec.encode(logs).length;
+        // 时间差与参数字符串表编码后，心跳事件每条平均不超过 8 字节（旧 JSON 文本每条约 65 字节）
+        assertTrue(blockBytes <= logs.size() * MAX_BYTES_PER_EVENT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.srun.campuslogin.data.history;
+
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.HourlyStatsEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * HistoryDownsampler 降采样测试
+ * 以两小时的 60 秒心跳验证例行日志只留计数、异常日志原样保留
+ */
+public class HistoryDownsamplerTest {
+    private static final int CARD_ID = 3;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long START = 1_700_000_000_000L / HOUR * HOUR; // 整点
+
+    @Test
+    public void routineHeartbeatsCollapseIntoHourlyCounts() {
+        List<CardLogEntity> logs = new ArrayList<>();
+        logs.add(new CardLogEntity(CARD_ID, START, LogEventType.CHECK_STARTED, 5));
+        for (int i = 0; i < 120; i++) {
+            long time = START + i * 60_000L;
+            logs.add(new CardLogEntity(CARD_ID, time, LogEventType.CHECK_COUNT, 5, String.valueOf(i + 1)));
+            if (i == 70) {
+                logs.add(new CardLogEntity(CARD_ID, time + 100, LogEventType.REAUTH_REQUIRED, 5, "连接超时"));
+                logs.add(new CardLogEntity(CARD_ID, time + 200, LogEventType.AUTO_LOGIN_STARTED, 0));
+                logs.add(new CardLogEntity(CARD_ID, time + 900, LogEventType.AUTO_LOGIN_SUCCESS, 0));
+            } else {
+                logs.add(new CardLogEntity(CARD_ID, time + 80, LogEventType.NETWORK_OK, 5));
+            }
+        }
+
+        HistoryDownsampler.Result result = HistoryDownsampler.downsample(CARD_ID, logs);
+
+        assertEquals(3, result.kept.size());
+        assertEquals(LogEventType.REAUTH_REQUIRED.getCode(), result.kept.get(0).getCode());
+        assertEquals(LogEventType.AUTO_LOGIN_SUCCESS.getCode(), result.kept.get(2).getCode());
+
+        assertEquals(2, result.hourly.size());
+        HourlyStatsEntity first = result.hourly.get(0);
+        HourlyStatsEntity second = result.hourly.get(1);
+        assertEquals(START, first.getHourStart());
+        assertEquals(START + HOUR, second.getHourStart());
+        assertEquals(60, first.getCheckCount());
+        assertEquals(60, first.getOkCount());
+        assertEquals(0, first.getFailureCount());
+        assertEquals(60, second.getCheckCount());
+        assertEquals(59, second.getOkCount());
+        assertEquals(1, second.getFailureCount());
+        assertEquals(1, second.getReloginCount());
+    }
+
+    @Test
+    public void oneShotChecksAndUserActionsAreKept() {
+        List<CardLogEntity> logs = new ArrayList<>();
+        logs.add(new CardLogEntity(CARD_ID, START, LogEventType.HEARTBEAT_ENABLED, 0));
+        logs.add(new CardLogEntity(CARD_ID, START + 10, LogEventType.NETWORK_OK, 0)); // 登录后的单次检测
+
+        HistoryDownsampler.Result result = HistoryDownsampler.downsample(CARD_ID, logs);
+
+        assertEquals(2, result.kept.size());
+        assertEquals(1, result.hourly.get(0).getOkCount());
+    }
+}
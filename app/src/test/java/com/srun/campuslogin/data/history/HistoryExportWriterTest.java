@@ -0,0 +1,101 @@
+package com.srun.campuslogin.data.history;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.srun.campuslogin.data.model.CardLogEntity;
+import com.srun.campuslogin.data.model.LogEventType;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * HistoryExportWriter 格式与流式写出测试
+ */
+public class HistoryExportWriterTest {
+    private static final long TIME = 1_700_000_000_000L;
+    private static final int BUFFER_SIZE = 64 * 1024; // 与 HistoryExportWriter 的写出缓冲区一致
+
+    @Test
+    public void writesOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HistoryExportWriter writer = new HistoryExportWriter(Channels.newChannel(out),
+                HistoryExportWriter.Format.NDJSON)) {
+            writer.write(new CardLogEntity(3, TIME, LogEventType.LOGIN_FAILED, 0, "密码\"错误\"\n"), "2021001");
+            writer.write(new CardLogEntity(3, TIME + 1, LogEventType.CHECK_COUNT, 5, "42"), null);
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(2, lines.length);
+        JsonObject first = new Gson().fromJson(lines[0], JsonObject.class);
+        assertEquals("2021001", first.get("student_id").getAsString());
+        assertEquals("LOGIN_FAILED", first.get("event").getAsString());
+        assertEquals("密码\"错误\"\n", first.getAsJsonArray("args").get(0).getAsString());
+        assertEquals("登录失败: 密码\"错误\"\n", first.get("message").getAsString());
+        JsonObject second = new Gson().fromJson(lines[1], JsonObject.class);
+        assertTrue(second.get("student_id").isJsonNull());
+        assertEquals(5, second.get("task_id").getAsInt());
+    }
+
+    @Test
+    public void quotesCsvFields() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HistoryExportWriter writer = new HistoryExportWriter(Channels.newChannel(out),
+                HistoryExportWriter.Format.CSV)) {
+            writer.write(new CardLogEntity(1, TIME, LogEventType.AUTO_LOGIN_FAILED, 2, "a,b"), "s1");
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertTrue(lines[0].startsWith("\uFEFFcard_id,student_id"));
+        assertTrue(lines[1].startsWith("1,s1," + TIME + ","));
+        assertTrue(lines[1].endsWith(",AUTO_LOGIN_FAILED,12,2,\"a,b\",\"❌ 自动登录失败: a,b\""));
+    }
+
+    @Test
+    public void streamsThroughFixedBuffer() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        CardLogEntity row = new CardLogEntity(1, TIME, LogEventType.REAUTH_REQUIRED, 7, "连接超时");
+        int records = 2_000; // 约 4 倍缓冲区大小，缓冲区需多次写出
+        try (HistoryExportWriter writer = new HistoryExportWriter(channel, HistoryExportWriter.Format.NDJSON)) {
+            for (int i = 0; i < records; i++) {
+                row.setTimestamp(TIME + i * 1000L);
+                writer.write(row, "2021001");
+            }
+        }
+        assertTrue(channel.total > 4 * BUFFER_SIZE);
+        assertTrue("单次写出不应超过缓冲区大小", channel.largestWrite <= BUFFER_SIZE);
+        assertTrue(channel.closed);
+    }
+
+    /** 丢弃数据、只统计字节数的通道 */
+    private static final class CountingChannel implements WritableByteChannel {
+        long total;
+        int largestWrite;
+        boolean closed;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            total += n;
+            largestWrite = Math.max(largestWrite, n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.srun.campuslogin.data.history;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * LogTokenizer 分词与查询构造测试
+ */
+public class LogTokenizerTest {
+
+    @Test
+    public void splitsCjkIntoSingleCharacterTokens() {
+        String tokens = LogTokenizer.tokenize("需要重新认证 E2620");
+        assertArrayEquals(new String[]{"需", "要", "重", "新", "认", "证", "E2620"},
+                tokens.trim().split("\\s+"));
+    }
+
+    @Test
+    public void buildsPhraseQueryPerTerm() {
+        assertEquals("\"重 新 认 证\" \"E2620\"", LogTokenizer.toMatchQuery("  重新认证   E2620 "));
+        assertEquals("\"已 经 在 线\"", LogTokenizer.toMatchQuery("已经在线"));
+    }
+
+    @Test
+    public void stripsSyntaxAndRejectsEmptyInput() {
+        assertNull(LogTokenizer.toMatchQuery(null));
+        assertNull(LogTokenizer.toMatchQuery("   "));
+        assertNull(LogTokenizer.toMatchQuery("\"*( )\""));
+        assertEquals("\"ip 10.0.0.1\"", LogTokenizer.toMatchQuery("ip:10.0.0.1"));
+        assertEquals(Arrays.asList("重新", "认证"), LogTokenizer.splitTerms(" 重新\t认证 "));
+    }
+}
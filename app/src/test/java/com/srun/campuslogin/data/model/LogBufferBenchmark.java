@@ -0,0 +1,74 @@
+package com.srun.campuslogin.data.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LogBuffer 与旧实现的追加路径分配基准（手动运行 main，不参与单元测试）
+ * 旧实现：ArrayList.remove(0) 淘汰最旧条目，且每次通知监听器都复制整表
+ */
+public final class LogBufferBenchmark {
+    private static final int CAPACITY = 100;
+    private static final int APPENDS = 200_000;
+
+    private static Object sink; // 防止结果被优化掉
+
+    public static void main(String[] args) {
+        String[] messages = new String[64];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = "✅ 网络正常，无需自动登录 [任务#" + i + "]";
+        }
+
+        // 预热
+        legacyAppend(messages, APPENDS / 10);
+        ringAppend(messages, APPENDS / 10);
+
+        long legacyBytes = allocatedBytes(() -> legacyAppend(messages, APPENDS));
+        long ringBytes = allocatedBytes(() -> ringAppend(messages, APPENDS));
+        if (legacyBytes < 0 || ringBytes < 0) {
+            System.out.println("当前 JVM 不支持按线程统计分配量");
+            return;
+        }
+        System.out.printf("legacy ArrayList: %.1f B/append, LogBuffer: %.1f B/append%n",
+                (double) legacyBytes / APPENDS, (double) ringBytes / APPENDS);
+    }
+
+    private static void legacyAppend(String[] messages, int appends) {
+        List<String> logs = new ArrayList<>();
+        for (int i = 0; i < appends; i++) {
+            if (logs.size() >= CAPACITY) {
+                logs.remove(0);
+            }
+            logs.add(messages[i % messages.length]);
+            sink = new ArrayList<>(logs); // 旧版每次通知监听器都会复制
+        }
+    }
+
+    private static void ringAppend(String[] messages, int appends) {
+        LogBuffer<String> logs = new LogBuffer<>(CAPACITY);
+        for (int i = 0; i < appends; i++) {
+            long seq = logs.add(messages[i % messages.length]);
+            sink = logs.since(seq);
+        }
+    }
+
+    /**
+     * 统计当前线程执行 task 期间分配的字节数（非 HotSpot JVM 返回 -1）
+     */
+    private static long allocatedBytes(Runnable task) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            task.run();
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+        long before = hotspot.getThreadAllocatedBytes(threadId);
+        task.run();
+        return hotspot.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private LogBufferBenchmark() {
+    }
+}
@@ -0,0 +1,64 @@
+package com.srun.campuslogin.data.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+
+import static org.junit.Assert.*;
+
+/**
+ * LogBuffer 单元测试
+ */
+public class LogBufferTest {
+    @Test
+    public void evictsOldestWhenFull() {
+        LogBuffer<String> buffer = new LogBuffer<>(3);
+        for (String s : Arrays.asList("a", "b", "c", "d", "e")) {
+            buffer.add(s);
+        }
+        assertEquals(3, buffer.size());
+        assertEquals(Arrays.asList("c", "d", "e"), buffer.toList());
+    }
+
+    @Test
+    public void sinceReturnsOnlyNewEntries() {
+        LogBuffer<String> buffer = new LogBuffer<>(4);
+        buffer.add("a");
+        long cursor = buffer.endSequence();
+        buffer.add("b");
+        buffer.add("c");
+        LogBuffer.Snapshot<String> delta = buffer.since(cursor);
+        assertEquals(Arrays.asList("b", "c"), delta.toList());
+        assertEquals(buffer.endSequence(), delta.endSequence());
+    }
+
+    @Test
+    public void snapshotDetectsOverwrite() {
+        LogBuffer<String> buffer = new LogBuffer<>(2);
+        buffer.add("a");
+        buffer.add("b");
+        LogBuffer.Snapshot<String> snapshot = buffer.snapshot();
+        buffer.add("c");
+        assertTrue(snapshot.isStale());
+        assertEquals("b", snapshot.get(1));
+        try {
+            snapshot.get(0);
+            fail("被覆盖的条目不应可读");
+        } catch (ConcurrentModificationException expected) {
+            // 预期行为
+        }
+    }
+
+    @Test
+    public void clearInvalidatesSnapshots() {
+        LogBuffer<String> buffer = new LogBuffer<>(2);
+        buffer.add("a");
+        LogBuffer.Snapshot<String> snapshot = buffer.snapshot();
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertTrue(snapshot.isStale());
+        buffer.add("b");
+        assertEquals(Arrays.asList("b"), buffer.toList());
+    }
+}
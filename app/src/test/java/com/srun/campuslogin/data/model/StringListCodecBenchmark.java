@@ -0,0 +1,81 @@
+package com.srun.campuslogin.data.model;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 旧转换器与 StringListCodec 的逐行开销基准（手动运行 main，不参与单元测试）
+ * 旧转换器：每次编码、解码都 new Gson() 并经 TypeToken 反射，计数列每行 new AtomicInteger
+ */
+public final class StringListCodecBenchmark {
+    private static final Type LIST_STRING_TYPE = new TypeToken<List<String>>() {}.getType();
+    private static final int ROWS = 20_000;
+
+    private static int sink; // 防止结果被优化掉
+
+    public static void main(String[] args) {
+        List<String> row = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            row.add("🔄 第 " + i + " 次检测 [任务#3] - 2024-05-01 08:00:" + (10 + i));
+        }
+        String json = StringListCodec.encode(row);
+
+        // 预热
+        legacyRows(row, json, ROWS / 10);
+        codecRows(row, json, ROWS / 10);
+
+        long[] legacy = measure(() -> legacyRows(row, json, ROWS));
+        long[] codec = measure(() -> codecRows(row, json, ROWS));
+        System.out.printf("%-16s %10s %10s%n", "", "ns/row", "B/row");
+        print("legacy Gson", legacy);
+        print("StringListCodec", codec);
+        System.out.println("sink=" + sink);
+    }
+
+    /** 旧实现：每行编码、解码各 new 一个 Gson，计数列每行 new 一个 AtomicInteger */
+    private static void legacyRows(List<String> row, String json, int rows) {
+        for (int i = 0; i < rows; i++) {
+            sink += new Gson().toJson(row, LIST_STRING_TYPE).length();
+            List<String> decoded = new Gson().fromJson(json, LIST_STRING_TYPE);
+            sink += decoded.size() + new AtomicInteger(i).get();
+        }
+    }
+
+    /** 新实现：流式编解码，计数列直接读 int */
+    private static void codecRows(List<String> row, String json, int rows) {
+        for (int i = 0; i < rows; i++) {
+            sink += StringListCodec.encode(row).length();
+            sink += StringListCodec.decode(json).size() + i;
+        }
+    }
+
+    private static void print(String name, long[] result) {
+        String bytes = result[1] < 0 ? "n/a" : String.format("%.0f", (double) result[1] / ROWS);
+        System.out.printf("%-16s %10.0f %10s%n", name, (double) result[0] / ROWS, bytes);
+    }
+
+    /**
+     * @return {耗时纳秒, 分配字节数（非 HotSpot JVM 为 -1）}
+     */
+    private static long[] measure(Runnable task) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean hotspot = bean instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) bean : null;
+        long threadId = Thread.currentThread().getId();
+        long beforeBytes = hotspot != null ? hotspot.getThreadAllocatedBytes(threadId) : 0;
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        long bytes = hotspot != null ? hotspot.getThreadAllocatedBytes(threadId) - beforeBytes : -1;
+        return new long[]{elapsed, bytes};
+    }
+
+    private StringListCodecBenchmark() {
+    }
+}
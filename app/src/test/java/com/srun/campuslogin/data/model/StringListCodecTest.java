@@ -0,0 +1,42 @@
+package com.srun.campuslogin.data.model;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * StringListCodec 单元测试
+ * 编码结果须为 Gson 可读的标准 JSON，解码须兼容旧版 Gson 写入的数据
+ */
+public class StringListCodecTest {
+    private static final Type LIST_STRING_TYPE = new TypeToken<List<String>>() {}.getType();
+
+    @Test
+    public void roundTripsEscapedText() {
+        List<String> values = Arrays.asList("✅ 登录成功 - 2024-01-01 12:00:00", "",
+                null, "引号\"与\\反斜杠", "换行\n制表\t\u0001", "<html>&'=", " ");
+        String json = StringListCodec.encode(values);
+        assertEquals(values, StringListCodec.decode(json));
+        assertEquals(values, new Gson().fromJson(json, LIST_STRING_TYPE)); // 输出为标准 JSON
+    }
+
+    @Test
+    public void readsGsonOutput() {
+        List<String> values = Arrays.asList("a=b", "<tag>", "it's", "é", "😀");
+        String gsonJson = new Gson().toJson(values, LIST_STRING_TYPE); // Gson 默认转义 HTML 字符为 \\uXXXX
+        assertEquals(values, StringListCodec.decode(gsonJson));
+        assertEquals(Arrays.asList("x"), StringListCodec.decode(" [ \"x\" ] "));
+        assertTrue(StringListCodec.decode("[]").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedInput() {
+        StringListCodec.decode("[\"unterminated]");
+    }
+}
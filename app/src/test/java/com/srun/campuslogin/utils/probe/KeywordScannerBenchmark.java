@@ -0,0 +1,65 @@
+package com.srun.campuslogin.utils.probe;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KeywordScanner 与原整页正则方案的对比基准（手动运行 main，不参与单元测试）
+ * 原方案：按行读取整个响应体拼接后执行 String.matches(".*(关键字).*")
+ */
+public final class KeywordScannerBenchmark {
+    private static final String[] FIXTURES = {
+            "srun_login_utf8.html", "campus_auth_gbk.html", "redirect_script.html",
+            "campus_news_utf8.html", "late_keyword_utf8.html"
+    };
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURE_ROUNDS = 10_000;
+
+    private static int sink; // 防止结果被优化掉
+
+    public static void main(String[] args) throws IOException {
+        KeywordScanner scanner = PortalProbe.newPortalPageScanner(PortalProbe.PORTAL_PAGE_KEYWORDS);
+        System.out.printf("%-24s %8s %14s %14s%n", "fixture", "bytes", "regex ns/op", "scanner ns/op");
+        for (String name : FIXTURES) {
+            byte[] data = KeywordScannerTest.fixture(name);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += regex(data) ? 1 : 0;
+                sink += scanner.scan(new ByteArrayInputStream(data), PortalProbe.DEFAULT_SCAN_LIMIT_BYTES);
+            }
+            long regexNs = measure(() -> sink += regex(data) ? 1 : 0);
+            long scannerNs = measure(() -> sink += scanner.scan(new ByteArrayInputStream(data),
+                    PortalProbe.DEFAULT_SCAN_LIMIT_BYTES));
+            System.out.printf("%-24s %8d %14d %14d%n", name, data.length, regexNs, scannerNs);
+        }
+        System.out.println("sink=" + sink);
+    }
+
+    private interface Op {
+        void run() throws IOException;
+    }
+
+    private static long measure(Op op) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / MEASURE_ROUNDS;
+    }
+
+    private static boolean regex(byte[] data) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data)))) {
+            StringBuilder content = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line);
+            }
+            return content.toString().matches(".*(用户登录|上网认证平台|portal|login).*");
+        }
+    }
+
+    private KeywordScannerBenchmark() {
+    }
+}
@@ -0,0 +1,83 @@
+package com.srun.campuslogin.utils.probe;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * KeywordScanner 关键字扫描测试
+ * 认证页样本位于 test/resources/portal
+ */
+public class KeywordScannerTest {
+    private static final int LIMIT = PortalProbe.DEFAULT_SCAN_LIMIT_BYTES;
+
+    private final KeywordScanner scanner = PortalProbe.newPortalPageScanner(PortalProbe.PORTAL_PAGE_KEYWORDS);
+
+    static byte[] fixture(String name) throws IOException {
+        try (InputStream in = KeywordScannerTest.class.getClassLoader().getResourceAsStream("portal/" + name)) {
+            assertNotNull(name, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private String scanFixture(String name, int limit) throws IOException {
+        int hit = scanner.scan(new ByteArrayInputStream(fixture(name)), limit);
+        return hit < 0 ? null : scanner.getKeywords().get(hit);
+    }
+
+    @Test
+    public void detectsPortalPagesInBothCharsets() throws IOException {
+        assertEquals("用户登录", scanFixture("srun_login_utf8.html", LIMIT));
+        assertEquals("上网认证平台", scanFixture("campus_auth_gbk.html", LIMIT));
+        assertEquals("portal", scanFixture("redirect_script.html", LIMIT));
+        assertNull(scanFixture("campus_news_utf8.html", LIMIT));
+    }
+
+    @Test
+    public void stopsAtScanLimit() throws IOException {
+        assertNull(scanFixture("late_keyword_utf8.html", LIMIT));
+        assertEquals("上网认证平台", scanFixture("late_keyword_utf8.html", 64 * 1024));
+    }
+
+    @Test
+    public void matchesAcrossChunkBoundaries() {
+        byte[] data = "xx用户登录xx".getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= data.length; split++) {
+            KeywordScanner.Cursor cursor = scanner.newCursor();
+            int hit = cursor.feed(data, 0, split);
+            if (hit < 0) hit = cursor.feed(data, split, data.length - split);
+            assertEquals("split " + split, 0, hit);
+        }
+    }
+
+    @Test
+    public void asciiKeywordsIgnoreCaseOnlyWhenRequested() {
+        byte[] data = "<a href=/LOGIN>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(3, scanner.scan(data, 0, data.length));
+        KeywordScanner exact = new KeywordScanner(Arrays.asList("login"), false, StandardCharsets.UTF_8);
+        assertEquals(-1, exact.scan(data, 0, data.length));
+    }
+
+    @Test
+    public void overlappingKeywordsReportFirstOccurrence() {
+        KeywordScanner overlapping = new KeywordScanner(Arrays.asList("she", "he", "hers"), false,
+                StandardCharsets.UTF_8);
+        byte[] data = "ushers".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0, overlapping.scan(data, 0, data.length)); // "she" 与 "he" 同时结束，取下标小者
+        byte[] suffix = "xhers".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(1, overlapping.scan(suffix, 0, suffix.length));
+    }
+}
@@ -0,0 +1,96 @@
+package com.srun.campuslogin.utils.probe;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyHistogram 分位估算与 LatencyRecorder 时段切换测试
+ */
+public class LatencyRecorderTest {
+    private static final long HOUR = 3_600_000;
+    private static final long T0 = 1_700_000_000_000L - 1_700_000_000_000L % HOUR;
+
+    private final List<List<LatencyRecorder.Summary>> persisted = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder(HOUR, persisted::add);
+
+    private static long[] phases(long dns, long connect, long tls, long ttfb, long total) {
+        return new long[]{dns, connect, tls, ttfb, total};
+    }
+
+    @Test
+    public void percentilesStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertWithin(500, histogram.getPercentile(0.50));
+        assertWithin(950, histogram.getPercentile(0.95));
+        assertWithin(990, histogram.getPercentile(0.99));
+        assertEquals(1000, histogram.getPercentile(1.0));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " got " + actual,
+                actual >= expected && actual <= expected + expected / 8);
+    }
+
+    @Test
+    public void bucketsCoverEveryValueContiguously() {
+        long previousUpper = -1;
+        for (int i = 0; LatencyHistogram.upperBoundOf(i) <= LatencyHistogram.MAX_VALUE_MS; i++) {
+            long upper = LatencyHistogram.upperBoundOf(i);
+            assertEquals(i, LatencyHistogram.indexOf(previousUpper + 1));
+            assertEquals(i, LatencyHistogram.indexOf(upper));
+            previousUpper = upper;
+            if (upper == LatencyHistogram.MAX_VALUE_MS) break;
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE_MS, previousUpper);
+    }
+
+    @Test
+    public void reusedConnectionsOnlyRecordTtfbAndTotal() {
+        recorder.record("portal", phases(12, 30, -1, 45, 50), false, T0);
+        recorder.record("portal", phases(-1, -1, -1, 8, 9), false, T0 + 1000);
+        assertEquals(12, recorder.getPercentile("portal", ProbePhase.DNS, 0.5));
+        assertEquals(-1, recorder.getPercentile("portal", ProbePhase.TLS, 0.5));
+        assertEquals(8, recorder.getPercentile("portal", ProbePhase.TTFB, 0.5));
+        assertEquals(-1, recorder.getPercentile("unknown", ProbePhase.TOTAL, 0.5));
+    }
+
+    @Test
+    public void periodRolloverPersistsPreviousSummaries() {
+        recorder.record("miui", phases(-1, -1, -1, 20, 25), false, T0 + 10);
+        recorder.record("miui", phases(-1, -1, -1, -1, 5000), true, T0 + 20);
+        assertTrue(persisted.isEmpty());
+
+        recorder.record("miui", phases(-1, -1, -1, 30, 31), false, T0 + HOUR);
+        assertEquals(1, persisted.size());
+        List<LatencyRecorder.Summary> summaries = persisted.get(0);
+        assertEquals(2, summaries.size()); // TTFB 与 TOTAL
+        for (LatencyRecorder.Summary summary : summaries) {
+            assertEquals("miui", summary.endpoint);
+            assertEquals(T0, summary.periodStart);
+            assertEquals(1, summary.failures);
+        }
+        LatencyRecorder.Summary total = summaries.get(1);
+        assertEquals(ProbePhase.TOTAL, total.phase);
+        assertEquals(2, total.count);
+        assertEquals(5000, total.max);
+
+        // 累计统计不随时段清空
+        assertEquals(1, recorder.getFailures("miui"));
+
+        // flush 输出当前时段的部分摘要，时段不结束
+        recorder.flush();
+        assertEquals(2, persisted.size());
+        LatencyRecorder.Summary partial = persisted.get(1).get(0);
+        assertEquals(T0 + HOUR, partial.periodStart);
+        assertEquals(1, partial.count);
+    }
+}
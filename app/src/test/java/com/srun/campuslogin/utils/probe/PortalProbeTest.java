@@ -0,0 +1,185 @@
+package com.srun.campuslogin.utils.probe;
+
+import org.junit.After;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * PortalProbe 竞速与 quorum 判定测试
+ * 使用假策略控制结论与返回时机，不访问网络
+ */
+public class PortalProbeTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch never = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        never.countDown();
+        executor.shutdownNow();
+    }
+
+    /** 延迟 delayMs 后返回固定结论的策略 */
+    private static ProbeStrategy fixed(String name, long delayMs, ProbeOutcome outcome) {
+        return new ProbeStrategy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public ProbeOutcome probe(int timeoutMs) throws InterruptedException {
+                Thread.sleep(delayMs);
+                return outcome;
+            }
+        };
+    }
+
+    /** 直到测试结束都不返回的策略 */
+    private ProbeStrategy hanging(String name) {
+        return new ProbeStrategy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public ProbeOutcome probe(int timeoutMs) throws InterruptedException {
+                never.await();
+                return ProbeOutcome.online(null);
+            }
+        };
+    }
+
+    /** 在线结论只能作参考的策略（如 TCP 连通） */
+    private static ProbeStrategy reference(String name, ProbeOutcome outcome) {
+        ProbeStrategy delegate = fixed(name, 0, outcome);
+        return new ProbeStrategy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public ProbeOutcome probe(int timeoutMs) throws Exception {
+                return delegate.probe(timeoutMs);
+            }
+
+            @Override
+            public boolean confirmsOnline() {
+                return false;
+            }
+        };
+    }
+
+    private PortalProbe probe(int quorum, long deadlineMs, ProbeStrategy... strategies) {
+        return new PortalProbe(Arrays.asList(strategies), quorum, 1000, deadlineMs, executor);
+    }
+
+    @Test
+    public void firstOnlineAnswerWinsWithoutWaitingForSlowStrategies() {
+        ProbeReport report = probe(2, TimeUnit.SECONDS.toMillis(10),
+                fixed("fast", 0, ProbeOutcome.online(null)),
+                hanging("slow")).run();
+        assertEquals(ProbeVerdict.ONLINE, report.verdict);
+        assertEquals(1, report.entries.size());
+        assertEquals("fast", report.entries.get(0).strategy);
+        assertEquals(1, report.pending);
+    }
+
+    @Test
+    public void referenceOnlineDoesNotWinAlone() {
+        // 门户放行了 TCP 目标：连通不结束竞速，HTTP 策略仍可确认需要认证
+        ProbeReport report = probe(2, TimeUnit.SECONDS.toMillis(10),
+                reference("tcp", ProbeOutcome.online(null)),
+                fixed("portal", 20, ProbeOutcome.needAuth("未在线")),
+                fixed("204", 40, ProbeOutcome.needAuth("重定向 302"))).run();
+        assertEquals(ProbeVerdict.NEED_AUTH, report.verdict);
+        assertEquals(3, report.entries.size());
+
+        // 没有其他策略确认时无法判断
+        report = probe(2, 100, reference("tcp", ProbeOutcome.online(null)), hanging("204")).run();
+        assertEquals(ProbeVerdict.INCONCLUSIVE, report.verdict);
+        assertEquals(1, report.pending);
+    }
+
+    @Test
+    public void singleNeedAuthDoesNotReachQuorum() {
+        ProbeReport report = probe(2, TimeUnit.SECONDS.toMillis(10),
+                fixed("portal", 0, ProbeOutcome.needAuth("未在线")),
+                fixed("timeout", 20, ProbeOutcome.inconclusive("超时"))).run();
+        assertEquals(ProbeVerdict.INCONCLUSIVE, report.verdict);
+        assertFalse(report.needReauth());
+        assertEquals(2, report.entries.size());
+        assertEquals(0, report.pending);
+    }
+
+    @Test
+    public void quorumOfNeedAuthConfirmsReauth() {
+        ProbeReport report = probe(2, TimeUnit.SECONDS.toMillis(10),
+                fixed("portal", 0, ProbeOutcome.needAuth("未在线")),
+                fixed("204", 20, ProbeOutcome.needAuth("重定向 302")),
+                hanging("tcp")).run();
+        assertEquals(ProbeVerdict.NEED_AUTH, report.verdict);
+        assertTrue(report.needReauth());
+        assertEquals(1, report.pending);
+        assertTrue(report.summary().startsWith("需要认证("));
+    }
+
+    @Test
+    public void deadlineWithoutAnswerIsInconclusive() {
+        ProbeReport report = probe(1, 50, hanging("a"), hanging("b")).run();
+        assertEquals(ProbeVerdict.INCONCLUSIVE, report.verdict);
+        assertTrue(report.entries.isEmpty());
+        assertEquals(2, report.pending);
+    }
+
+    @Test
+    public void strategyExceptionCountsAsInconclusive() {
+        ProbeStrategy failing = new ProbeStrategy() {
+            @Override
+            public String getName() {
+                return "failing";
+            }
+
+            @Override
+            public ProbeOutcome probe(int timeoutMs) throws Exception {
+                throw new java.io.IOException("connect timed out");
+            }
+        };
+        ProbeReport report = probe(1, TimeUnit.SECONDS.toMillis(10), failing).run();
+        assertEquals(ProbeVerdict.INCONCLUSIVE, report.verdict);
+        assertEquals("异常: connect timed out", report.entries.get(0).detail);
+    }
+
+    @Test
+    public void defaultCleartextEndpointsArePermitted() throws Exception {
+        // 单元测试的工作目录为模块根目录
+        File config = new File("src/main/res/xml/network_security_config.xml");
+        NodeList domains = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(config).getElementsByTagName("domain");
+        for (String endpoint : PortalProbe.DEFAULT_HTTP_ENDPOINTS) {
+            URI uri = URI.create(endpoint);
+            if (!"http".equals(uri.getScheme())) continue;
+            boolean permitted = false;
+            for (int i = 0; i < domains.getLength() && !permitted; i++) {
+                Element domain = (Element) domains.item(i);
+                String name = domain.getTextContent().trim();
+                boolean subdomains = Boolean.parseBoolean(domain.getAttribute("includeSubdomains"));
+                permitted = uri.getHost().equals(name) || (subdomains && uri.getHost().endsWith("." + name));
+            }
+            assertTrue("明文地址未在 network_security_config 中放行: " + endpoint, permitted);
+        }
+    }
+}
@@ -1,107 +1,204 @@
 use jni::{
     JNIEnv,
-    objects::{JClass, JString, JObject, JValue, GlobalRef},
-    sys::jboolean,
+    objects::{JClass, JObject, JString, JValue},
+    sys::{jboolean, jlong, jobject},
 };
-use crate::srun_login;
+use std::{sync::Arc, time::Duration};
+use crate::{discard_prewarmed, srun_login, srun_prewarm, ErrorCategory, LoginControl, LoginReport};
 
+// 登录控制句柄：Java 侧以 long 持有 Arc<LoginControl> 的原始指针
+//
+// nativeCreateControl 创建句柄，nativeReleaseControl 释放（每个句柄恰好一次），
+// 两者之间 nativeCancel 与 nativeLoginSync 可在任意线程使用；释放与取消的互斥由 Java 侧 LoginHandle 保证。
 #[no_mangle]
-pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativeLogin(
+pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativeCreateControl(
+    _: JNIEnv,
+    _: JClass,
+    timeout_ms: jlong,
+) -> jlong {
+    Arc::into_raw(Arc::new(LoginControl::new(timeout_of(timeout_ms)))) as jlong
+}
+
+fn timeout_of(timeout_ms: jlong) -> Option<Duration> {
+    if timeout_ms > 0 {
+        Some(Duration::from_millis(timeout_ms as u64))
+    } else {
+        None
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativeCancel(
+    _: JNIEnv,
+    _: JClass,
+    handle: jlong,
+) {
+    if handle != 0 {
+        // 借用句柄，不改变引用计数
+        let control = unsafe { &*(handle as *const LoginControl) };
+        control.cancel();
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativeReleaseControl(
+    _: JNIEnv,
+    _: JClass,
+    handle: jlong,
+) {
+    if handle != 0 {
+        drop(unsafe { Arc::from_raw(handle as *const LoginControl) });
+    }
+}
+
+// 从句柄取得一份新的引用（句柄本身的引用仍归 Java 侧所有）
+fn control_from_handle(handle: jlong) -> Option<Arc<LoginControl>> {
+    if handle == 0 {
+        return None;
+    }
+    let ptr = handle as *const LoginControl;
+    unsafe {
+        Arc::increment_strong_count(ptr);
+        Some(Arc::from_raw(ptr))
+    }
+}
+
+// 同步登录入口：在调用它的 Java 线程上执行，结果直接作为返回值
+//
+// Java 侧（LoginBridge）用固定线程数的执行器调用本函数，工作线程由 JVM 创建且常驻，
+// 因此这里不再需要 GlobalRef、std::thread::spawn 与 attach_current_thread，
+// 所有局部引用在函数返回时由 JVM 自动释放。
+//
+// control 为 nativeCreateControl 创建的句柄（0 表示不可取消、没有截止时间），
+// 取消或超时后在下一次请求前或重试等待中返回
+//
+// 返回值：LoginResult 对象（失败分类、认证服务器响应字段与各阶段耗时）；
+// 参数转换或创建对象失败时抛出异常并返回 null
+#[no_mangle]
+pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativeLoginSync(
     mut env: JNIEnv,
     _: JClass,
     username: JString,
     password: JString,
     detect_ip: jboolean,
-    callback: JObject,
-) {
-    // 显式声明 GlobalRef 类型
-    let global_callback: GlobalRef = match env.new_global_ref(callback) {
-        Ok(r) => r,
-        Err(e) => {
-            env.throw(format!("创建全局引用失败: {}", e)).ok();
-            return;
-        }
+    control: jlong,
+) -> jobject {
+    let username = match read_string(&mut env, &username, "用户名") {
+        Some(s) => s,
+        None => return std::ptr::null_mut(),
+    };
+    let password = match read_string(&mut env, &password, "密码") {
+        Some(s) => s,
+        None => return std::ptr::null_mut(),
     };
 
-    // 后续代码保持不变...
-    let jvm = match env.get_java_vm() {
-        Ok(vm) => vm,
-        Err(e) => {
-            env.throw(format!("获取JavaVM失败: {}", e)).ok();
-            return;
-        }
+    // 账号不完整时不发起网络请求
+    let report = if username.is_empty() || password.is_empty() {
+        LoginReport::failure(ErrorCategory::InvalidInput, "账号或密码为空")
+    } else {
+        srun_login(&username, &password, detect_ip != 0, control_from_handle(control))
     };
+    new_login_result(&mut env, &report)
+}
 
-    let username = match env.get_string(&username) {
-        Ok(jstr) => {
-            match jstr.to_str() {
-                Ok(s) => s.to_owned(),
-                Err(e) => {
-                    env.throw(format!("用户名转换失败: {}", e)).ok();
-                    return;
-                }
-            }
-        },
+// 预取 challenge 并保持连接，供该账号下一次 nativeLoginSync 直接使用
+//
+// 返回值：token 的剩余有效期（毫秒）；失败或账号为空时返回 -1，参数转换失败时抛出异常并返回 -1
+#[no_mangle]
+pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativePrewarm(
+    mut env: JNIEnv,
+    _: JClass,
+    username: JString,
+    detect_ip: jboolean,
+    timeout_ms: jlong,
+) -> jlong {
+    let username = match read_string(&mut env, &username, "用户名") {
+        Some(s) => s,
+        None => return -1,
+    };
+    if username.is_empty() {
+        return -1;
+    }
+    let control = Arc::new(LoginControl::new(timeout_of(timeout_ms)));
+    match srun_prewarm(&username, detect_ip != 0, Some(control)) {
+        Ok(remaining) => remaining.as_millis() as jlong,
         Err(e) => {
-            env.throw(format!("获取用户名失败: {}", e)).ok();
-            return;
+            println!("prewarm failed: {}", e);
+            -1
         }
-    };
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_com_srun_campuslogin_core_LoginBridge_nativeDiscardPrewarmed(
+    _: JNIEnv,
+    _: JClass,
+) {
+    discard_prewarmed();
+}
 
-    let password = match env.get_string(&password) {
-        Ok(jstr) => {
-            match jstr.to_str() {
-                Ok(s) => s.to_owned(),
-                Err(e) => {
-                    env.throw(format!("密码转换失败: {}", e)).ok();
-                    return;
-                }
+fn read_string(env: &mut JNIEnv, value: &JString, name: &str) -> Option<String> {
+    match env.get_string(value) {
+        Ok(jstr) => match jstr.to_str() {
+            Ok(s) => Some(s.to_owned()),
+            Err(e) => {
+                env.throw(format!("{}转换失败: {}", name, e)).ok();
+                None
             }
         },
         Err(e) => {
-            env.throw(format!("获取密码失败: {}", e)).ok();
-            return;
+            env.throw(format!("获取{}失败: {}", name, e)).ok();
+            None
         }
-    };
-
-    std::thread::spawn(move || {
-        let mut env = match jvm.attach_current_thread() {
-            Ok(e) => e,
-            Err(e) => {
-                println!("线程附加失败: {}", e);
-                return;
-            }
-        };
+    }
+}
 
-        match srun_login(&username, &password, detect_ip != 0) {
-            Ok(_) => {
-                if let Err(e) = env.call_method(
-                    &global_callback,
-                    "onSuccess",
-                    "()V",
-                    &[]
-                ) {
-                    println!("回调onSuccess失败: {}", e);
-                }
-            },
-            Err(e) => {
-                let error_msg = match env.new_string(format!("{}", e)) {
-                    Ok(s) => s,
-                    Err(e) => {
-                        println!("创建错误消息失败: {}", e);
-                        return;
-                    }
-                };
+const LOGIN_RESULT_CLASS: &str = "com/srun/campuslogin/core/LoginResult";
+// LoginResult(int category, String message, String onlineIp, String ecode, String errorMsg, String sucMsg,
+//             long remainFlux, long walletBalance, int portalAttempts,
+//             long challengeMs, long portalMs, long retryWaitMs, long totalMs, boolean challengePrefetched)
+const LOGIN_RESULT_CTOR: &str = "(ILjava/lang/String;Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;JJIJJJJZ)V";
 
-                if let Err(e) = env.call_method(
-                    &global_callback,
-                    "onFailure",
-                    "(Ljava/lang/String;)V",
-                    &[JValue::from(&error_msg)]
-                ) {
-                    println!("回调onFailure失败: {}", e);
-                }
-            }
+fn new_login_result(env: &mut JNIEnv, report: &LoginReport) -> jobject {
+    match build_login_result(env, report) {
+        Ok(result) => result.into_raw(),
+        Err(jni::errors::Error::JavaException) => std::ptr::null_mut(), // 异常已在 Java 侧挂起
+        Err(e) => {
+            env.throw(format!("创建登录结果失败: {}", e)).ok();
+            std::ptr::null_mut()
         }
-    });
-}
\ No newline at end of file
+    }
+}
+
+fn build_login_result<'local>(
+    env: &mut JNIEnv<'local>,
+    report: &LoginReport,
+) -> jni::errors::Result<JObject<'local>> {
+    let portal = report.portal.clone().unwrap_or_default();
+    let timings = &report.timings;
+    let message = env.new_string(&report.message)?;
+    let online_ip = env.new_string(&portal.online_ip)?;
+    let ecode = env.new_string(&portal.ecode)?;
+    let error_msg = env.new_string(&portal.error_msg)?;
+    let suc_msg = env.new_string(&portal.suc_msg)?;
+    env.new_object(
+        LOGIN_RESULT_CLASS,
+        LOGIN_RESULT_CTOR,
+        &[
+            JValue::Int(report.category as i32),
+            JValue::Object(&message),
+            JValue::Object(&online_ip),
+            JValue::Object(&ecode),
+            JValue::Object(&error_msg),
+            JValue::Object(&suc_msg),
+            JValue::Long(portal.remain_flux),
+            JValue::Long(portal.wallet_balance),
+            JValue::Int(timings.portal_attempts as i32),
+            JValue::Long(timings.challenge_ms as i64),
+            JValue::Long(timings.portal_ms as i64),
+            JValue::Long(timings.retry_wait_ms as i64),
+            JValue::Long(timings.total_ms as i64),
+            JValue::Bool(timings.prefetched as u8),
+        ],
+    )
+}
@@ -0,0 +1,65 @@
+use crate::{srun::SrunError, Result};
+use std::{
+    sync::atomic::{AtomicBool, Ordering},
+    thread,
+    time::{Duration, Instant},
+};
+
+// 重试等待期间检查取消标志的间隔
+const SLEEP_SLICE: Duration = Duration::from_millis(50);
+
+/// 一次登录的取消标志与截止时间，由调用方（如 JNI 层）持有并可在其他线程取消
+#[derive(Debug)]
+pub struct LoginControl {
+    cancelled: AtomicBool,
+    deadline: Option<Instant>,
+}
+
+impl LoginControl {
+    pub fn new(timeout: Option<Duration>) -> Self {
+        Self {
+            cancelled: AtomicBool::new(false),
+            deadline: timeout.map(|t| Instant::now() + t),
+        }
+    }
+
+    pub fn cancel(&self) {
+        self.cancelled.store(true, Ordering::Release);
+    }
+
+    pub fn is_cancelled(&self) -> bool {
+        self.cancelled.load(Ordering::Acquire)
+    }
+
+    /// 已取消或已超过截止时间时返回错误
+    pub fn check(&self) -> Result<()> {
+        if self.is_cancelled() {
+            return Err(Box::new(SrunError::Cancelled));
+        }
+        if let Some(deadline) = self.deadline {
+            if Instant::now() >= deadline {
+                return Err(Box::new(SrunError::DeadlineExceeded));
+            }
+        }
+        Ok(())
+    }
+
+    /// 距截止时间的剩余时间，没有截止时间时返回 None
+    pub fn remaining(&self) -> Option<Duration> {
+        self.deadline
+            .map(|deadline| deadline.saturating_duration_since(Instant::now()))
+    }
+
+    /// 分段睡眠，期间被取消或到达截止时间时提前返回错误
+    pub fn sleep(&self, duration: Duration) -> Result<()> {
+        let wake_at = Instant::now() + duration;
+        loop {
+            self.check()?;
+            let now = Instant::now();
+            if now >= wake_at {
+                return Ok(());
+            }
+            thread::sleep(SLEEP_SLICE.min(wake_at - now));
+        }
+    }
+}
@@ -1,16 +1,23 @@
+use std::{sync::Arc, time::Duration};
+
+pub use control::LoginControl;
 pub use srun::*;
 pub use user::User;
 pub use xencode::param_i;
 
+mod control;
 #[cfg(feature = "ureq")]
 mod http_client;
 pub mod srun;
+mod standby;
 mod user;
 mod utils;
 mod xencode;
 
 pub type Result<T> = std::result::Result<T, Box<dyn std::error::Error>>;
 
+const AUTH_SERVER: &str = "http://172.16.130.31/";
+
 pub struct LoginOptions {
     pub detect_ip: bool,
     pub strict_bind: bool,
@@ -32,15 +39,13 @@ pub fn login_with_options(
     password: &str,
     options: &LoginOptions,
 ) -> Result<()> {
-    let server = "http://172.16.130.31/";
-
     let user = User {
         username: username.to_owned(),
         password: password.to_owned(),
         ip: None,
     };
 
-    SrunClient::new_from_user(server, user)
+    SrunClient::new_from_user(AUTH_SERVER, user)
         .set_detect_ip(options.detect_ip)
         .set_strict_bind(options.strict_bind)
         .set_test_before_login(options.test_before_login)
@@ -51,17 +56,62 @@ pub fn login_with_options(
 mod android;
 
 // 导出核心功能
-pub fn srun_login(username: &str, password: &str, detect_ip: bool) -> Result<()> {
-    let server = "http://172.16.130.31/";
-
+// control 为 None 时不可取消、没有截止时间
+//
+// 返回失败分类、最后一个 srun_portal 响应与各阶段耗时，成功与否以 report.category 为准
+// 账号有 srun_prewarm 预取的 challenge 时直接使用（见 report.timings.prefetched）
+pub fn srun_login(
+    username: &str,
+    password: &str,
+    detect_ip: bool,
+    control: Option<Arc<LoginControl>>,
+) -> LoginReport {
     let user = User {
         username: username.to_owned(),
         password: password.to_owned(),
         ip: None,
     };
 
-    SrunClient::new_from_user(server, user)
-        .set_detect_ip(detect_ip)
-        .login()
+    let mut client = SrunClient::new_from_user(AUTH_SERVER, user).set_detect_ip(detect_ip);
+    if let Some(control) = &control {
+        client = client.set_control(control.clone());
+    }
+    if let Some(prefetched) = standby::take(username) {
+        client = client.set_prefetched(prefetched);
+    }
+    let result = client.login();
+
+    let mut report = LoginReport {
+        portal: client.portal_info().cloned(),
+        timings: client.timings().clone(),
+        ..Default::default()
+    };
+    if let Err(e) = result {
+        report.category = ErrorCategory::of(e.as_ref());
+        report.message = format!("{}", e);
+        // 请求超时受剩余时间限制，截止时间到达或被取消打断的请求表现为网络错误，以控制状态为准
+        if report.category == ErrorCategory::Network {
+            if let Some(Err(stopped)) = control.as_ref().map(|control| control.check()) {
+                report.category = ErrorCategory::of(stopped.as_ref());
+                report.message = format!("{}", stopped);
+            }
+        }
+    }
+    report
 }
 
+
+// 为账号预取 challenge 并保持到认证服务器的连接，返回 token 的剩余有效期
+// detect_ip 须与随后登录时一致
+pub fn srun_prewarm(
+    username: &str,
+    detect_ip: bool,
+    control: Option<Arc<LoginControl>>,
+) -> Result<Duration> {
+    standby::prewarm(AUTH_SERVER, username, detect_ip, control)
+}
+
+// 丢弃全部预取的 challenge 与连接
+pub fn discard_prewarmed() {
+    standby::discard_all();
+}
@@ -1,23 +1,34 @@
 use crate::{
     param_i,
     utils::{self},
-    Result, User,
+    LoginControl, Result, User,
 };
 use hmac::{Hmac, Mac};
 use md5::Md5;
 use quick_error::quick_error;
-use serde::Deserialize;
+use serde::{de::DeserializeOwned, Deserialize};
 use sha1::{Digest, Sha1};
 use std::{
     net::IpAddr,
     str::FromStr,
+    sync::Arc,
     thread,
-    time::{Duration, SystemTime, UNIX_EPOCH},
+    time::{Duration, Instant, SystemTime, UNIX_EPOCH},
 };
 
 const PATH_GET_CHALLENGE: &str = "/cgi-bin/get_challenge";
 const PATH_PORTAL: &str = "/cgi-bin/srun_portal";
 
+// challenge 响应没有 expire 字段时假定的有效期
+const DEFAULT_CHALLENGE_TTL: Duration = Duration::from_secs(60);
+// 预取的 challenge 剩余有效期低于此值时不再使用，留出 srun_portal 请求的时间
+const MIN_PREFETCHED_VALIDITY: Duration = Duration::from_secs(5);
+
+#[cfg(feature = "reqwest")]
+type HttpClient = reqwest::blocking::Client;
+#[cfg(feature = "ureq")]
+type HttpClient = ureq::Agent;
+
 #[derive(Default, Debug)]
 pub struct SrunClient {
     auth_server: String,
@@ -42,6 +53,98 @@ pub struct SrunClient {
     n: i32,
     utype: i32,
     time: u64,
+
+    control: Option<Arc<LoginControl>>,
+    prefetched: Option<Prefetched>,
+
+    timings: LoginTimings,
+    portal: Option<PortalInfo>,
+}
+
+/// 预取的 challenge 与保持着到认证服务器连接的客户端，只能用于一次登录
+#[derive(Debug)]
+pub struct Prefetched {
+    client: HttpClient,
+    token: String,
+    time: u64,
+    client_ip: String,
+    valid_until: Instant,
+}
+
+impl Prefetched {
+    /// token 的剩余有效期
+    pub fn remaining(&self) -> Duration {
+        self.valid_until.saturating_duration_since(Instant::now())
+    }
+
+    /// 剩余有效期是否足够完成一次 srun_portal 请求
+    pub fn is_usable(&self) -> bool {
+        self.remaining() >= MIN_PREFETCHED_VALIDITY
+    }
+}
+
+/// 一次登录各阶段的耗时（毫秒），失败时只包含失败前已完成的部分
+#[derive(Debug, Default, Clone)]
+pub struct LoginTimings {
+    pub challenge_ms: u64,    // get_challenge 请求累计（IP 变化时含第二次请求）
+    pub portal_ms: u64,       // srun_portal 请求累计（含重试）
+    pub retry_wait_ms: u64,   // 重试间隔累计
+    pub portal_attempts: u32, // 发出的 srun_portal 请求数
+    pub total_ms: u64,        // 整个登录流程，含建立客户端与计算参数
+    pub prefetched: bool,     // 是否使用了预取的 challenge（成功时 challenge_ms 为 0）
+}
+
+/// 最后一次 srun_portal 响应中调用方关心的字段
+#[derive(Debug, Default, Clone)]
+pub struct PortalInfo {
+    pub online_ip: String,
+    pub ecode: String,
+    pub error: String,
+    pub error_msg: String,
+    pub suc_msg: String,
+    pub remain_flux: i64,
+    pub wallet_balance: i64,
+}
+
+/// 登录失败的分类
+///
+/// 数值与 Java 侧 LoginResult.ErrorCategory 的顺序一致，只能在末尾追加
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+#[repr(i32)]
+pub enum ErrorCategory {
+    None = 0,
+    Cancelled = 1,
+    Timeout = 2,
+    Network = 3,
+    ChallengeFailed = 4,
+    IpUndefined = 5,
+    Rejected = 6,
+    Protocol = 7,
+    InvalidInput = 8,
+    Internal = 9,
+}
+
+/// 一次登录的完整结果：失败分类、认证服务器响应与各阶段耗时
+#[derive(Debug, Default)]
+pub struct LoginReport {
+    pub category: ErrorCategory,    // None 表示成功
+    pub message: String,            // 失败原因，成功时为空
+    pub portal: Option<PortalInfo>, // 没有收到 srun_portal 响应时为 None
+    pub timings: LoginTimings,
+}
+
+impl LoginReport {
+    pub fn failure(category: ErrorCategory, message: &str) -> Self {
+        Self {
+            category,
+            message: message.to_owned(),
+            ..Default::default()
+        }
+    }
+
+    pub fn is_success(&self) -> bool {
+        self.category == ErrorCategory::None
+    }
 }
 
 quick_error! {
@@ -49,6 +152,58 @@ quick_error! {
     pub enum SrunError {
         GetChallengeFailed
         IpUndefinedError
+        Cancelled {
+            display("登录已取消")
+        }
+        DeadlineExceeded {
+            display("登录超时")
+        }
+        Rejected(message: String) {
+            display("{}", message)
+        }
+        InvalidResponse {
+            display("认证服务器响应格式错误")
+        }
+    }
+}
+
+impl Default for ErrorCategory {
+    fn default() -> Self {
+        Self::None
+    }
+}
+
+impl ErrorCategory {
+    /// 按错误类型分类；取消与截止时间以调用方持有的 LoginControl 为准（见 srun_login）
+    pub fn of(error: &(dyn std::error::Error + 'static)) -> Self {
+        if let Some(e) = error.downcast_ref::<SrunError>() {
+            return match e {
+                SrunError::GetChallengeFailed => Self::ChallengeFailed,
+                SrunError::IpUndefinedError => Self::IpUndefined,
+                SrunError::Cancelled => Self::Cancelled,
+                SrunError::DeadlineExceeded => Self::Timeout,
+                SrunError::Rejected(_) => Self::Rejected,
+                SrunError::InvalidResponse => Self::Protocol,
+            };
+        }
+        if error.is::<serde_json::Error>() {
+            return Self::Protocol;
+        }
+        if error.is::<std::io::Error>() {
+            return Self::Network;
+        }
+        #[cfg(feature = "ureq")]
+        if error.is::<ureq::Error>() {
+            return Self::Network;
+        }
+        #[cfg(feature = "reqwest")]
+        if error.is::<reqwest::Error>() {
+            return Self::Network;
+        }
+        if error.is::<std::net::AddrParseError>() {
+            return Self::InvalidInput;
+        }
+        Self::Internal
     }
 }
 
@@ -129,43 +284,84 @@ impl SrunClient {
         self
     }
 
+    /// 设置取消标志与截止时间：每次请求前检查，单次请求的超时不超过剩余时间，重试等待可被打断
+    pub fn set_control(mut self, control: Arc<LoginControl>) -> Self {
+        self.control = Some(control);
+        self
+    }
+
+    /// 使用预取的 challenge 与连接：login 直接请求 srun_portal，失败一次后按完整流程重来
+    pub fn set_prefetched(mut self, prefetched: Prefetched) -> Self {
+        self.prefetched = Some(prefetched);
+        self
+    }
+
+    fn check_control(&self) -> Result<()> {
+        match &self.control {
+            Some(control) => control.check(),
+            None => Ok(()),
+        }
+    }
+
+    fn remaining_time(&self) -> Option<Duration> {
+        self.control.as_ref().and_then(|control| control.remaining())
+    }
+
+    fn retry_sleep(&self) -> Result<()> {
+        let delay = Duration::from_millis(self.retry_delay as u64);
+        match &self.control {
+            Some(control) => control.sleep(delay),
+            None => {
+                thread::sleep(delay);
+                Ok(())
+            }
+        }
+    }
+
+    /// 最近一次 login 各阶段的耗时
+    pub fn timings(&self) -> &LoginTimings {
+        &self.timings
+    }
+
+    /// 最近一次 login 收到的最后一个 srun_portal 响应
+    pub fn portal_info(&self) -> Option<&PortalInfo> {
+        self.portal.as_ref()
+    }
+
     #[cfg(feature = "reqwest")]
-    pub fn get_http_client(&self) -> Result<reqwest::blocking::Client> {
-        Ok(if self.strict_bind && !self.ip.is_empty() {
+    pub fn get_http_client(&self) -> Result<HttpClient> {
+        let builder = if self.strict_bind && !self.ip.is_empty() {
             let local_addr = IpAddr::from_str(&self.ip)?;
             reqwest::blocking::ClientBuilder::default()
                 .local_address(local_addr)
                 .connect_timeout(Duration::from_secs(3))
-                .build()?
         } else {
-            reqwest::blocking::Client::default()
-        })
+            reqwest::blocking::ClientBuilder::default()
+        };
+        Ok(builder.build()?)
     }
 
     #[cfg(feature = "ureq")]
-    pub fn get_http_client(&self) -> Result<ureq::Agent> {
+    pub fn get_http_client(&self) -> Result<HttpClient> {
         use crate::http_client::BindConnector;
         use std::net::SocketAddr;
 
-        Ok(if self.strict_bind && !self.ip.is_empty() {
+        let builder = if self.strict_bind && !self.ip.is_empty() {
             let local_addr_ip = IpAddr::from_str(&self.ip)?;
             ureq::AgentBuilder::new()
                 .connector(BindConnector::new_bind(SocketAddr::new(local_addr_ip, 0)))
                 .timeout_connect(Duration::from_secs(5))
-                .build()
         } else {
             ureq::AgentBuilder::new()
                 .timeout_connect(Duration::from_secs(5))
-                .build()
-        })
+        };
+        Ok(builder.build())
     }
 
-    fn detect_ip(&mut self) -> Result<()> {
+    // 一次 get_challenge 请求；query 中的 ip 为当前 client_ip（为空时服务器按来源地址签发）
+    fn request_challenge(&mut self, client: &HttpClient) -> Result<ChallengeResponse> {
+        self.check_control()?;
         self.time = unix_second() - 2;
-        let req = self
-            .get_http_client()?
-            .get(format!("{}{}", self.auth_server, PATH_GET_CHALLENGE).as_str());
-
         let time = self.time.to_string();
 
         let query = vec![
@@ -175,61 +371,48 @@ impl SrunClient {
             ("_", &time),
         ];
 
-        let challenge: ChallengeResponse = {
-            #[cfg(feature = "reqwest")]
-            {
-                let resp = req.query(&query).send()?.bytes()?;
-                serde_json::from_slice(&resp[4..resp.len() - 1])?
-            }
-            #[cfg(feature = "ureq")]
-            {
-                let resp = req.query_vec(query).call()?.into_string()?;
-                let resp = resp.as_bytes();
-                serde_json::from_slice(&resp[4..resp.len() - 1])?
-            }
-        };
+        let started = Instant::now();
+        let result = call_jsonp(
+            client,
+            &format!("{}{}", self.auth_server, PATH_GET_CHALLENGE),
+            query,
+            self.remaining_time(),
+        );
+        self.timings.challenge_ms += elapsed_ms(started);
+        result
+    }
+
+    fn detect_ip(&mut self, client: &HttpClient) -> Result<()> {
+        let challenge = self.request_challenge(client)?;
         if !challenge.online_ip.is_empty() {
             self.client_ip = challenge.online_ip;
         }
         Ok(())
     }
 
-    fn get_token(&mut self) -> Result<String> {
-        if self.client_ip.is_empty() {
+    // 用一次 get_challenge 同时取得在线 IP（detect_ip 时）与 token
+    //
+    // 请求中的 ip 为空时，服务器按来源地址签发 token，返回的 online_ip 即该地址，无需再请求；
+    // 只有请求时已指定 IP 且与检测结果不同，才按检测到的 IP 重新获取 token
+    //
+    // 返回 token 的有效期（challenge 响应的 expire，单位秒）
+    fn get_token(&mut self, client: &HttpClient) -> Result<Duration> {
+        if self.client_ip.is_empty() && !self.detect_ip {
             println!("need ip");
             return Err(Box::new(SrunError::IpUndefinedError));
         }
 
-        self.time = unix_second() - 2;
-        let req = self
-            .get_http_client()?
-            .get(format!("{}{}", self.auth_server, PATH_GET_CHALLENGE).as_str());
-
-        let time = self.time.to_string();
-
-        let query = vec![
-            ("callback", "sdu"),
-            ("username", &self.username),
-            ("ip", &self.client_ip),
-            ("_", &time),
-        ];
-
-        let challenge: ChallengeResponse = {
-            #[cfg(feature = "reqwest")]
-            {
-                let resp = req.query(&query).send()?.bytes()?;
-                serde_json::from_slice(&resp[4..resp.len() - 1])?
-            }
-            #[cfg(feature = "ureq")]
-            {
-                let resp = req.query_vec(query).call()?.into_string()?;
-                let resp = resp.as_bytes();
-                serde_json::from_slice(&resp[4..resp.len() - 1])?
+        let requested_ip = self.client_ip.clone();
+        let mut challenge = self.request_challenge(client)?;
+        if self.detect_ip && !challenge.online_ip.is_empty() && challenge.online_ip != self.client_ip {
+            self.client_ip = challenge.online_ip.clone();
+            if !requested_ip.is_empty() {
+                challenge = self.request_challenge(client)?;
             }
-        };
+        }
 
         println!("{:#?}", challenge);
-        match challenge.challenge.clone() {
+        match challenge.challenge {
             Some(token) => {
                 self.token = token;
             }
@@ -237,10 +420,41 @@ impl SrunClient {
                 return Err(Box::new(SrunError::GetChallengeFailed));
             }
         };
-        Ok(self.token.clone())
+        Ok(challenge_ttl(challenge.expire.as_deref()))
     }
 
+    /// 预取 challenge：建立到认证服务器的连接并取得 token，连接保留在返回的客户端中
+    ///
+    /// 有效期从发出请求时算起，偏保守
+    pub fn prefetch(&mut self) -> Result<Prefetched> {
+        let client = self.get_http_client()?;
+        let requested_at = Instant::now();
+        let ttl = self.get_token(&client)?;
+        if self.client_ip.is_empty() {
+            return Err(Box::new(SrunError::IpUndefinedError));
+        }
+        Ok(Prefetched {
+            client,
+            token: self.token.clone(),
+            time: self.time,
+            client_ip: self.client_ip.clone(),
+            valid_until: requested_at + ttl,
+        })
+    }
+
+    /// 登录；成功以 srun_portal 返回 access_token 为准，重试用尽仍未成功时返回 SrunError::Rejected
+    ///
+    /// 无论成败，各阶段耗时与最后一个 srun_portal 响应都可随后通过 timings 与 portal_info 读取
     pub fn login(&mut self) -> Result<()> {
+        let started = Instant::now();
+        self.timings = LoginTimings::default();
+        self.portal = None;
+        let result = self.try_login();
+        self.timings.total_ms = elapsed_ms(started);
+        result
+    }
+
+    fn try_login(&mut self) -> Result<()> {
         if self.test_before_login {
             if let Ok(d) = utils::tcp_ping("baidu.com:80") {
                 println!(
@@ -251,17 +465,42 @@ impl SrunClient {
             }
         }
 
-        if self.detect_ip {
-            self.detect_ip()?;
+        // 预取的 challenge 只尝试一次 srun_portal；失败（如 token 已被更新的 challenge 取代、IP 已变化）
+        // 时在同一客户端上按完整流程重来，被取消或超时则直接返回
+        if let Some(prefetched) = self.prefetched.take() {
+            self.token = prefetched.token;
+            self.time = prefetched.time;
+            self.client_ip = prefetched.client_ip;
+            self.timings.prefetched = true;
+            match self.portal_login(&prefetched.client, 1) {
+                Ok(()) => return Ok(()),
+                Err(e) => {
+                    self.check_control()?;
+                    println!("prefetched challenge failed: {}, retry with a fresh one", e);
+                    self.client_ip = self.ip.clone();
+                    return self.full_login(&prefetched.client);
+                }
+            }
         }
 
-        // this will detect ip from response if detect_ip
-        self.get_token()?;
+        // 整个 challenge → portal 流程共用一个客户端，连接保持复用
+        let client = self.get_http_client()?;
+        self.full_login(&client)
+    }
+
+    fn full_login(&mut self, client: &HttpClient) -> Result<()> {
+        // detect_ip 时同一次 challenge 响应提供在线 IP
+        self.get_token(client)?;
 
         if self.client_ip.is_empty() {
             return Err(Box::new(SrunError::IpUndefinedError));
         }
 
+        self.portal_login(client, self.retry_times)
+    }
+
+    // 用当前 token 请求 srun_portal，最多 attempts 次，直到返回 access_token
+    fn portal_login(&mut self, client: &HttpClient, attempts: u32) -> Result<()> {
         let hmd5 = {
             let mut mac = Hmac::<Md5>::new_from_slice(self.token.as_bytes())?;
             mac.update(self.password.as_bytes());
@@ -294,13 +533,10 @@ impl SrunClient {
             format!("{:x}", sha1_hasher.finalize())
         };
 
-        println!("will try at most {} times...", self.retry_times);
+        println!("will try at most {} times...", attempts);
         let mut result = PortalResponse::default();
-        for ti in 1..=self.retry_times {
-            let req = self
-                .get_http_client()?
-                .get(format!("{}{}", self.auth_server, PATH_PORTAL).as_str());
-
+        for ti in 1..=attempts {
+            self.check_control()?;
             let password = format!("{{MD5}}{}", hmd5);
             let ac_id = self.acid.to_string();
             let n = self.n.to_string();
@@ -325,38 +561,39 @@ impl SrunClient {
                 ("_", &time),
             ];
 
-            result = {
-                #[cfg(feature = "reqwest")]
-                {
-                    let resp = req.query(&query).send()?.bytes()?;
-                    serde_json::from_slice(&resp[4..resp.len() - 1])?
-                }
-                #[cfg(feature = "ureq")]
-                {
-                    let resp = req.query_vec(query).call()?.into_string()?;
-                    let resp = resp.as_bytes();
-                    serde_json::from_slice(&resp[4..resp.len() - 1])?
-                }
-            };
+            let started = Instant::now();
+            let response = call_jsonp(
+                client,
+                &format!("{}{}", self.auth_server, PATH_PORTAL),
+                query,
+                self.remaining_time(),
+            );
+            self.timings.portal_attempts += 1;
+            self.timings.portal_ms += elapsed_ms(started);
+            result = response?;
+            self.portal = Some(PortalInfo::from(&result));
 
             if !result.access_token.is_empty() {
-                println!("try {}/{}: success\n{:#?}", ti, self.retry_times, result);
+                println!("try {}/{}: success\n{:#?}", ti, attempts, result);
                 return Ok(());
             }
-            println!("try {}/{}: failed", ti, self.retry_times);
-            thread::sleep(Duration::from_millis(self.retry_delay as u64));
+            println!("try {}/{}: failed", ti, attempts);
+            if ti < attempts {
+                let started = Instant::now();
+                let slept = self.retry_sleep();
+                self.timings.retry_wait_ms += elapsed_ms(started);
+                slept?;
+            }
         }
         println!("{:#?}", result);
-        Ok(())
+        Err(Box::new(SrunError::Rejected(result.failure_message())))
     }
 
     pub fn logout(&mut self) -> Result<()> {
+        let client = self.get_http_client()?;
         if self.detect_ip {
-            self.detect_ip()?;
+            self.detect_ip(&client)?;
         }
-        let req = self
-            .get_http_client()?
-            .get(format!("{}{}", self.auth_server, PATH_PORTAL).as_str());
 
         let ac_id = self.acid.to_string();
         let time = unix_second().to_string();
@@ -369,19 +606,12 @@ impl SrunClient {
             ("_", &time),
         ];
 
-        let result: PortalResponse = {
-            #[cfg(feature = "reqwest")]
-            {
-                let resp = req.query(&query).send()?.bytes()?;
-                serde_json::from_slice(&resp[4..resp.len() - 1])?
-            }
-            #[cfg(feature = "ureq")]
-            {
-                let resp = req.query_vec(query).call()?.into_string()?;
-                let resp = resp.as_bytes();
-                serde_json::from_slice(&resp[4..resp.len() - 1])?
-            }
-        };
+        let result: PortalResponse = call_jsonp(
+            &client,
+            &format!("{}{}", self.auth_server, PATH_PORTAL),
+            query,
+            self.remaining_time(),
+        )?;
 
         println!("{:#?}", result);
         Ok(())
@@ -445,9 +675,121 @@ impl Default for ECode {
     }
 }
 
+impl ECode {
+    fn is_set(&self) -> bool {
+        match self {
+            Self::I(code) => *code != 0,
+            Self::S(code) => !code.is_empty() && code != "0",
+        }
+    }
+}
+
+impl std::fmt::Display for ECode {
+    fn fmt(&self, f: &mut std::fmt::Formatter<'_>) -> std::fmt::Result {
+        match self {
+            Self::I(code) => write!(f, "{}", code),
+            Self::S(code) => write!(f, "{}", code),
+        }
+    }
+}
+
+impl PortalResponse {
+    // 没有返回 access_token 时的失败原因，优先使用服务器给出的说明
+    fn failure_message(&self) -> String {
+        let message = if !self.error_msg.is_empty() {
+            self.error_msg.clone()
+        } else if !self.error.is_empty() {
+            self.error.clone()
+        } else {
+            "认证服务器未返回 access_token".to_owned()
+        };
+        let ecode = self.ecode.to_string();
+        if self.ecode.is_set() && !message.contains(&ecode) {
+            format!("{}: {}", ecode, message)
+        } else {
+            message
+        }
+    }
+}
+
+impl From<&PortalResponse> for PortalInfo {
+    fn from(response: &PortalResponse) -> Self {
+        Self {
+            online_ip: if response.online_ip.is_empty() {
+                response.client_ip.clone()
+            } else {
+                response.online_ip.clone()
+            },
+            ecode: if response.ecode.is_set() {
+                response.ecode.to_string()
+            } else {
+                String::new()
+            },
+            error: response.error.clone(),
+            error_msg: response.error_msg.clone(),
+            suc_msg: response.suc_msg.clone(),
+            remain_flux: response.remain_flux as i64,
+            wallet_balance: response.wallet_balance as i64,
+        }
+    }
+}
+
+// 发送 GET 请求并解析 JSONP 响应（callback=sdu，即 "sdu(" 与 ")" 之间的 JSON）
+// timeout 为本次请求的总超时（通常是登录剩余时间），None 表示只受连接超时限制
+fn call_jsonp<T: DeserializeOwned>(
+    client: &HttpClient,
+    url: &str,
+    query: Vec<(&str, &str)>,
+    timeout: Option<Duration>,
+) -> Result<T> {
+    #[cfg(feature = "reqwest")]
+    let resp = {
+        let mut req = client.get(url).query(&query);
+        if let Some(timeout) = timeout {
+            req = req.timeout(timeout);
+        }
+        req.send()?.bytes()?.to_vec()
+    };
+    #[cfg(feature = "ureq")]
+    let resp = {
+        let mut req = client.get(url);
+        if let Some(timeout) = timeout {
+            req = req.timeout(timeout);
+        }
+        req.query_vec(query).call()?.into_string()?.into_bytes()
+    };
+    // 至少包含 "sdu(" 与 ")"，否则切片越界
+    if resp.len() < 5 {
+        return Err(Box::new(SrunError::InvalidResponse));
+    }
+    Ok(serde_json::from_slice(&resp[4..resp.len() - 1])?)
+}
+
+// challenge 响应的 expire 为剩余秒数（字符串），缺失或无法解析时使用默认值
+fn challenge_ttl(expire: Option<&str>) -> Duration {
+    expire
+        .and_then(|e| e.trim().parse::<u64>().ok())
+        .filter(|secs| *secs > 0)
+        .map(Duration::from_secs)
+        .unwrap_or(DEFAULT_CHALLENGE_TTL)
+}
+
+fn elapsed_ms(started: Instant) -> u64 {
+    started.elapsed().as_millis() as u64
+}
+
 fn unix_second() -> u64 {
     SystemTime::now()
         .duration_since(UNIX_EPOCH)
         .expect("time went backwards")
         .as_secs()
 }
+
+#[test]
+fn test_challenge_ttl() {
+    assert_eq!(challenge_ttl(Some("60")), Duration::from_secs(60));
+    assert_eq!(challenge_ttl(Some(" 30 ")), Duration::from_secs(30));
+    assert_eq!(challenge_ttl(Some("0")), DEFAULT_CHALLENGE_TTL);
+    assert_eq!(challenge_ttl(Some("")), DEFAULT_CHALLENGE_TTL);
+    assert_eq!(challenge_ttl(None), DEFAULT_CHALLENGE_TTL);
+}
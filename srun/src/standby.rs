@@ -0,0 +1,53 @@
+use crate::{LoginControl, Prefetched, Result, SrunClient, User};
+use lazy_static::lazy_static;
+use std::{
+    collections::HashMap,
+    sync::{Arc, Mutex, MutexGuard},
+    time::Duration,
+};
+
+// 预热登录：按账号缓存预取的 challenge 与保持着连接的客户端
+//
+// 调用方在网络出现异常迹象时周期刷新（prewarm），随后的登录取出（take）缓存直接请求 srun_portal，
+// 省去 DNS、建立连接与 get_challenge；每份缓存只能用于一次登录，接近过期的不再使用
+
+lazy_static! {
+    static ref STANDBY: Mutex<HashMap<String, Prefetched>> = Mutex::new(HashMap::new());
+}
+
+/// 为账号预取 challenge，替换已缓存的一份，返回 token 的剩余有效期
+pub fn prewarm(
+    server: &str,
+    username: &str,
+    detect_ip: bool,
+    control: Option<Arc<LoginControl>>,
+) -> Result<Duration> {
+    let user = User {
+        username: username.to_owned(),
+        password: String::new(),
+        ip: None,
+    };
+    let mut client = SrunClient::new_from_user(server, user).set_detect_ip(detect_ip);
+    if let Some(control) = control {
+        client = client.set_control(control);
+    }
+    let prefetched = client.prefetch()?;
+    let remaining = prefetched.remaining();
+    lock().insert(username.to_owned(), prefetched);
+    Ok(remaining)
+}
+
+/// 取出账号的缓存；已接近过期的直接丢弃
+pub fn take(username: &str) -> Option<Prefetched> {
+    lock().remove(username).filter(|prefetched| prefetched.is_usable())
+}
+
+/// 丢弃全部缓存（同时关闭保持的连接），如网络变化后
+pub fn discard_all() {
+    lock().clear();
+}
+
+// 持锁期间不发起网络请求，锁中毒时缓存仍然可用
+fn lock() -> MutexGuard<'static, HashMap<String, Prefetched>> {
+    STANDBY.lock().unwrap_or_else(|e| e.into_inner())
+}